@@ -0,0 +1,53 @@
+package com.openfinance.payment.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs the JMH benchmarks for the per-request hot paths (validators, payment ID generation,
+ * response mapping and JSON) with the GC profiler, and writes the results as JSON so runs can
+ * be compared across releases, e.g. with jmh.morethan.io or a diff of the score fields.
+ * <pre>
+ * mvn -Pbenchmarks -pl benchmarks -am package -DskipTests
+ * java -cp benchmarks/target/benchmarks.jar com.openfinance.payment.benchmarks.HotPathSuite
+ * </pre>
+ *
+ * Arguments are benchmark name patterns and replace the default set. Settings (system
+ * properties): benchmark.output (default benchmarks/target/jmh-results.json)
+ */
+public final class HotPathSuite {
+
+    private static final String[] DEFAULT_BENCHMARKS = {
+            "ValidatorBenchmark",
+            "PaymentIdGeneratorBenchmark",
+            "PaymentMappingBenchmark",
+    };
+
+    private HotPathSuite() {
+        // Entry point only
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        Path output = Path.of(System.getProperty("benchmark.output", "benchmarks/target/jmh-results.json"));
+        Files.createDirectories(output.toAbsolutePath().getParent());
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(output.toString());
+        for (String benchmark : args.length > 0 ? args : DEFAULT_BENCHMARKS) {
+            options.include(benchmark);
+        }
+
+        new Runner(options.build()).run();
+        System.out.printf("results=%s%n", output.toAbsolutePath());
+    }
+}
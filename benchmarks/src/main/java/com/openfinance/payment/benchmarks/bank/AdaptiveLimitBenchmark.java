@@ -0,0 +1,147 @@
+package com.openfinance.payment.benchmarks.bank;
+
+import com.openfinance.payment.common.bank.BankSimulator;
+import com.openfinance.payment.common.bank.BankSimulatorSettings;
+import com.openfinance.payment.common.util.AdaptiveConcurrencyLimiter;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shows the adaptive bank concurrency limit following the bank through changing latency profiles.
+ *
+ * The simulated bank serves {@code benchmark.bankConnections} calls at a time; further calls
+ * queue inside the bank, as they would behind a real bank's connection pool. {@code benchmark.concurrency}
+ * payments are offered closed-loop, as the worker pool does. Every {@code benchmark.phaseSeconds}
+ * the simulator switches profile with {@link BankSimulator#setSettings}:
+ * <ol>
+ *   <li>healthy: 20 ms per call</li>
+ *   <li>slow: log-normal around 100 ms</li>
+ *   <li>struggling: 50 ms and a third of calls failing with "Bank system temporarily unavailable"</li>
+ *   <li>healthy again</li>
+ * </ol>
+ * Each second prints the limit, calls in flight at the bank and waiting at the limiter, throughput,
+ * and the bank-side latency (time from being let through to the bank's answer). Run it again with
+ * {@code -Dbenchmark.limiter=false} to see every offered call pile into the bank instead.
+ * <pre>
+ * mvn -Pbenchmarks -pl benchmarks exec:java \
+ *     -Dexec.mainClass=com.openfinance.payment.benchmarks.bank.AdaptiveLimitBenchmark
+ * </pre>
+ *
+ * Settings (system properties): benchmark.concurrency (default 256), benchmark.bankConnections (32),
+ * benchmark.phaseSeconds (20), benchmark.limiter (true)
+ */
+public final class AdaptiveLimitBenchmark {
+
+    private static final String OVERLOADED = "Bank system temporarily unavailable";
+
+    public static void main(String[] args) throws InterruptedException {
+        int concurrency = Integer.getInteger("benchmark.concurrency", 256);
+        int bankConnections = Integer.getInteger("benchmark.bankConnections", 32);
+        int phaseSeconds = Integer.getInteger("benchmark.phaseSeconds", 20);
+        boolean limited = Boolean.parseBoolean(System.getProperty("benchmark.limiter", "true"));
+
+        List<Phase> phases = List.of(
+                new Phase("healthy", fixed(20, 1.0)),
+                new Phase("slow", logNormal()),
+                new Phase("struggling", fixed(50, 2.0 / 3)),
+                new Phase("healthy", fixed(20, 1.0)));
+
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        ExecutorService connections = Executors.newFixedThreadPool(bankConnections);
+        BankSimulator simulator = new BankSimulator(phases.get(0).settings(), timer);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 1, 1000, 1.5, 0.9, Duration.ofSeconds(10));
+
+        Recorder bankLatency = new Recorder(TimeUnit.MINUTES.toMicros(5), 3);
+        LongAdder completed = new LongAdder();
+        LongAdder failed = new LongAdder();
+        LongAdder atBank = new LongAdder();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos((long) phaseSeconds * phases.size());
+
+        System.out.printf("concurrency=%d bankConnections=%d phaseSeconds=%d limiter=%s%n",
+                concurrency, bankConnections, phaseSeconds, limited);
+
+        Caller caller = new Caller(simulator, connections, limited ? limiter : null, bankLatency,
+                completed, failed, atBank, end);
+        for (int i = 0; i < concurrency; i++) {
+            caller.next();
+        }
+
+        int second = 0;
+        for (Phase phase : phases) {
+            simulator.setSettings(phase.settings());
+            for (int s = 0; s < phaseSeconds; s++, second++) {
+                Thread.sleep(1000);
+                Histogram interval = bankLatency.getIntervalHistogram();
+                System.out.printf("t=%3ds phase=%-10s limit=%4s atBank=%4d waiting=%4s throughput=%5d/s failed=%4d "
+                                + "bank_ms p50=%7.1f p99=%7.1f%n",
+                        second + 1, phase.name(),
+                        limited ? limiter.limit() : "-", atBank.sum(), limited ? limiter.waiting() : "-",
+                        completed.sumThenReset(), failed.sumThenReset(),
+                        interval.getValueAtPercentile(50) / 1000.0, interval.getValueAtPercentile(99) / 1000.0);
+            }
+        }
+
+        connections.shutdownNow();
+        timer.shutdownNow();
+    }
+
+    /**
+     * Keeps one payment in flight per call to {@link #next()}, starting another as each completes
+     */
+    private record Caller(BankSimulator simulator, ExecutorService connections, AdaptiveConcurrencyLimiter limiter,
+                          Recorder bankLatency, LongAdder completed, LongAdder failed, LongAdder atBank, long end) {
+
+        void next() {
+            if (System.nanoTime() >= end) {
+                return;
+            }
+            CompletableFuture<BankSimulator.Outcome> outcome = limiter != null
+                    ? limiter.submit(this::callBank, result -> !result.success() && OVERLOADED.equals(result.errorMessage()))
+                    : callBank();
+            outcome.whenComplete((result, error) -> {
+                completed.increment();
+                if (error != null || !result.success()) {
+                    failed.increment();
+                }
+                next();
+            });
+        }
+
+        private CompletableFuture<BankSimulator.Outcome> callBank() {
+            long started = System.nanoTime();
+            atBank.increment();
+            return CompletableFuture.supplyAsync(() -> simulator.call().join(), connections)
+                    .whenComplete((result, error) -> {
+                        atBank.decrement();
+                        bankLatency.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started));
+                    });
+        }
+    }
+
+    private static BankSimulatorSettings fixed(long millis, double successRate) {
+        BankSimulatorSettings settings = BankSimulatorSettings.uniform(
+                Duration.ofMillis(millis), Duration.ofMillis(millis), successRate, OVERLOADED);
+        settings.setDistribution(BankSimulatorSettings.LatencyDistribution.FIXED);
+        return settings;
+    }
+
+    private static BankSimulatorSettings logNormal() {
+        BankSimulatorSettings settings = BankSimulatorSettings.uniform(
+                Duration.ofMillis(40), Duration.ofMillis(1000), 1.0, OVERLOADED);
+        settings.setDistribution(BankSimulatorSettings.LatencyDistribution.LOG_NORMAL);
+        settings.setMedianLatency(Duration.ofMillis(100));
+        return settings;
+    }
+
+    private record Phase(String name, BankSimulatorSettings settings) {
+    }
+}
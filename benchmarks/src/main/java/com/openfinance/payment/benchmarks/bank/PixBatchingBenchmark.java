@@ -0,0 +1,123 @@
+package com.openfinance.payment.benchmarks.bank;
+
+import com.openfinance.payment.common.bank.BankSimulator;
+import com.openfinance.payment.common.bank.BankSimulatorSettings;
+import com.openfinance.payment.common.util.MicroBatcher;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares one bank call per PIX payment with micro-batched submission at several batch sizes.
+ *
+ * The simulated bank accepts a limited number of concurrent calls ({@code benchmark.bankConnections}),
+ * each costing a fixed per-call latency plus a small per-item latency, which is where
+ * batching pays off. Payments are offered closed-loop with {@code benchmark.concurrency}
+ * in flight, as the worker pool does.
+ * <pre>
+ * mvn -Pbenchmarks -pl benchmarks exec:java \
+ *     -Dexec.mainClass=com.openfinance.payment.benchmarks.bank.PixBatchingBenchmark
+ * </pre>
+ *
+ * Settings (system properties): benchmark.payments (default 50000), benchmark.concurrency (2000),
+ * benchmark.bankConnections (8), benchmark.callLatencyMs (20), benchmark.itemLatencyMicros (200),
+ * benchmark.lingerMs (5), benchmark.batchSizes (1,10,50,200)
+ */
+public final class PixBatchingBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int payments = Integer.getInteger("benchmark.payments", 50_000);
+        int concurrency = Integer.getInteger("benchmark.concurrency", 2_000);
+        int bankConnections = Integer.getInteger("benchmark.bankConnections", 8);
+        long callLatencyMs = Long.getLong("benchmark.callLatencyMs", 20);
+        long itemLatencyMicros = Long.getLong("benchmark.itemLatencyMicros", 200);
+        Duration linger = Duration.ofMillis(Long.getLong("benchmark.lingerMs", 5));
+        int[] batchSizes = Arrays.stream(System.getProperty("benchmark.batchSizes", "1,10,50,200").split(","))
+                .mapToInt(size -> Integer.parseInt(size.trim()))
+                .toArray();
+
+        BankSimulatorSettings settings = new BankSimulatorSettings();
+        settings.setDistribution(BankSimulatorSettings.LatencyDistribution.FIXED);
+        settings.setMinLatency(Duration.ofMillis(callLatencyMs));
+        settings.setMaxLatency(Duration.ofMillis(callLatencyMs));
+        settings.setPerItemLatency(Duration.ofNanos(itemLatencyMicros * 1_000));
+        settings.setSuccessRate(1.0);
+
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        BankSimulator simulator = new BankSimulator(settings, timer);
+
+        System.out.printf("payments=%d concurrency=%d bankConnections=%d callLatencyMs=%d itemLatencyMicros=%d lingerMs=%d%n",
+                payments, concurrency, bankConnections, callLatencyMs, itemLatencyMicros, linger.toMillis());
+
+        for (int batchSize : batchSizes) {
+            ExecutorService connections = Executors.newFixedThreadPool(bankConnections);
+            MicroBatcher<Integer, BankSimulator.Outcome> batcher = batchSize > 1
+                    ? new MicroBatcher<>(batchSize, linger, timer,
+                            items -> CompletableFuture.supplyAsync(() -> simulator.callBatch(items.size()).join(), connections))
+                    : null;
+
+            // Warm up, then measure
+            run(Math.min(payments, 5_000), concurrency, simulator, batcher, connections);
+            Result result = run(payments, concurrency, simulator, batcher, connections);
+
+            System.out.printf("batchSize=%d throughput=%.0f payments/s latency_ms p50=%.1f p99=%.1f max=%.1f%n",
+                    batchSize, result.throughput(), result.percentile(0.50), result.percentile(0.99),
+                    result.percentile(1.0));
+
+            if (batcher != null) {
+                batcher.close();
+            }
+            connections.shutdownNow();
+        }
+        timer.shutdownNow();
+    }
+
+    private static Result run(int payments, int concurrency, BankSimulator simulator,
+                              MicroBatcher<Integer, BankSimulator.Outcome> batcher,
+                              ExecutorService connections) throws InterruptedException {
+        long[] latencies = new long[payments];
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicInteger completed = new AtomicInteger();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < payments; i++) {
+            inFlight.acquire();
+            int slot = i;
+            long started = System.nanoTime();
+            CompletableFuture<BankSimulator.Outcome> response = batcher != null
+                    ? batcher.submit(i)
+                    : CompletableFuture.supplyAsync(() -> simulator.call().join(), connections);
+            response.whenComplete((outcome, error) -> {
+                latencies[slot] = System.nanoTime() - started;
+                inFlight.release();
+                if (completed.incrementAndGet() == payments) {
+                    done.complete(null);
+                }
+            });
+        }
+        done.join();
+        long elapsed = System.nanoTime() - begin;
+
+        Arrays.sort(latencies);
+        return new Result(latencies, elapsed);
+    }
+
+    private record Result(long[] sortedLatencies, long elapsedNanos) {
+
+        double throughput() {
+            return sortedLatencies.length / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        double percentile(double quantile) {
+            int rank = (int) Math.ceil(quantile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(rank, 0)] / 1_000_000.0;
+        }
+    }
+}
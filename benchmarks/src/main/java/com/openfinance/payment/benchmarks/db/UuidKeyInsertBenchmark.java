@@ -0,0 +1,165 @@
+package com.openfinance.payment.benchmarks.db;
+
+import com.openfinance.payment.common.util.UuidV7;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Inserts the same number of payment-shaped rows keyed by random (v4) and by time-ordered (v7)
+ * UUIDs into a local Postgres and reports insert throughput and index size for each.
+ *
+ * Every payment row gets an audit-like child row with a foreign key to it, so each insert also
+ * pays the primary key lookup that payment_queue and audit_log inserts pay. Throughput is
+ * printed per 10% of the run because random keys slow down once the primary key no longer
+ * fits in shared_buffers. The tables are created in the target database and dropped at the end.
+ * <pre>
+ * docker-compose up -d postgres
+ * mvn -Pbenchmarks -pl benchmarks exec:java \
+ *     -Dexec.mainClass=com.openfinance.payment.benchmarks.db.UuidKeyInsertBenchmark
+ * </pre>
+ *
+ * Settings (system properties): benchmark.jdbcUrl (default the docker-compose database),
+ * benchmark.user (default admin), benchmark.password (default admin123),
+ * benchmark.rows (default 10000000), benchmark.batchSize (rows per commit, default 1000)
+ */
+public final class UuidKeyInsertBenchmark {
+
+    private static final int REPORTS = 10;
+
+    private final String jdbcUrl;
+    private final String user;
+    private final String password;
+    private final int rows;
+    private final int batchSize;
+
+    private UuidKeyInsertBenchmark(String jdbcUrl, String user, String password, int rows, int batchSize) {
+        this.jdbcUrl = jdbcUrl;
+        this.user = user;
+        this.password = password;
+        this.rows = rows;
+        this.batchSize = batchSize;
+    }
+
+    public static void main(String[] args) throws SQLException {
+        String jdbcUrl = System.getProperty("benchmark.jdbcUrl",
+                "jdbc:postgresql://localhost:5433/payment_processor?reWriteBatchedInserts=true");
+        String user = System.getProperty("benchmark.user", "admin");
+        String password = System.getProperty("benchmark.password", "admin123");
+        int rows = Integer.getInteger("benchmark.rows", 10_000_000);
+        int batchSize = Integer.getInteger("benchmark.batchSize", 1000);
+
+        UuidKeyInsertBenchmark benchmark = new UuidKeyInsertBenchmark(jdbcUrl, user, password, rows, batchSize);
+        System.out.printf("rows=%d batchSize=%d%n", rows, batchSize);
+        benchmark.run("v4", UUID::randomUUID);
+        benchmark.run("v7", UuidV7::generate);
+    }
+
+    private void run(String label, Supplier<UUID> keys) throws SQLException {
+        String payments = "bench_payments_" + label;
+        String events = "bench_payment_events_" + label;
+
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, user, password)) {
+            createTables(connection, payments, events);
+            connection.setAutoCommit(false);
+
+            String insertPayment = "INSERT INTO " + payments
+                    + " (id, payment_id, amount, status, created_at) VALUES (?, ?, 150.00, 'PENDING', now())";
+            String insertEvent = "INSERT INTO " + events
+                    + " (payment_id, event_type, created_at) VALUES (?, 'CREATED', now())";
+
+            long begin = System.nanoTime();
+            long reportStart = begin;
+            int reported = 0;
+            int reportEvery = Math.max(rows / REPORTS, batchSize);
+            try (PreparedStatement paymentStatement = connection.prepareStatement(insertPayment);
+                 PreparedStatement eventStatement = connection.prepareStatement(insertEvent)) {
+                UUID[] batch = new UUID[batchSize];
+                int inserted = 0;
+                while (inserted < rows) {
+                    int size = Math.min(batchSize, rows - inserted);
+                    for (int i = 0; i < size; i++) {
+                        batch[i] = keys.get();
+                        paymentStatement.setObject(1, batch[i]);
+                        paymentStatement.setString(2, "PAY-BENCH-" + (inserted + i));
+                        paymentStatement.addBatch();
+                    }
+                    paymentStatement.executeBatch();
+                    for (int i = 0; i < size; i++) {
+                        eventStatement.setObject(1, batch[i]);
+                        eventStatement.addBatch();
+                    }
+                    eventStatement.executeBatch();
+                    connection.commit();
+
+                    inserted += size;
+                    if (inserted - reported >= reportEvery || inserted == rows) {
+                        long now = System.nanoTime();
+                        System.out.printf("%s rows=%d window_throughput=%.0f rows/s%n",
+                                label, inserted, (inserted - reported) / seconds(now - reportStart));
+                        reported = inserted;
+                        reportStart = now;
+                    }
+                }
+            }
+            double elapsed = seconds(System.nanoTime() - begin);
+            connection.setAutoCommit(true);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("VACUUM ANALYZE " + payments);
+            }
+            System.out.printf("%s total=%.1f s throughput=%.0f rows/s pkey=%s table=%s fk_index=%s%n",
+                    label, elapsed, rows / elapsed,
+                    size(connection, payments + "_pkey"), size(connection, payments),
+                    size(connection, events + "_payment_id_idx"));
+
+            dropTables(connection, payments, events);
+        }
+    }
+
+    private static void createTables(Connection connection, String payments, String events) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            dropTables(connection, payments, events);
+            statement.execute("CREATE TABLE " + payments + " ("
+                    + "id UUID PRIMARY KEY, "
+                    + "payment_id VARCHAR(50) NOT NULL, "
+                    + "amount DECIMAL(15, 2) NOT NULL, "
+                    + "status VARCHAR(20) NOT NULL, "
+                    + "created_at TIMESTAMP NOT NULL)");
+            statement.execute("CREATE TABLE " + events + " ("
+                    + "id BIGSERIAL PRIMARY KEY, "
+                    + "payment_id UUID NOT NULL REFERENCES " + payments + "(id), "
+                    + "event_type VARCHAR(50) NOT NULL, "
+                    + "created_at TIMESTAMP NOT NULL)");
+            statement.execute("CREATE INDEX " + events + "_payment_id_idx ON " + events + " (payment_id)");
+        }
+    }
+
+    private static void dropTables(Connection connection, String payments, String events) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + events);
+            statement.execute("DROP TABLE IF EXISTS " + payments);
+        }
+    }
+
+    private static String size(Connection connection, String relation) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT pg_size_pretty(pg_relation_size(?::regclass))")) {
+            statement.setString(1, relation);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        }
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1_000_000_000.0;
+    }
+}
@@ -0,0 +1,155 @@
+package com.openfinance.payment.benchmarks.http;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Creates the same number of payments through POST /api/v1/payments and through
+ * POST /api/v1/payments/batch against a running payment-api and reports payments per second
+ * for each, plus the speedup.
+ * <pre>
+ * mvn -Pbenchmarks -pl benchmarks exec:java \
+ *     -Dexec.mainClass=com.openfinance.payment.benchmarks.http.BatchCreatePaymentBenchmark
+ * </pre>
+ *
+ * Settings (system properties): benchmark.url, benchmark.credentials (default user:password),
+ * benchmark.payments (default 20000), benchmark.concurrency (requests in flight, default 64),
+ * benchmark.batchSize (default 500), benchmark.warmupPayments (default 2000)
+ */
+public final class BatchCreatePaymentBenchmark {
+
+    private static final String PAYMENT_BODY = """
+            {
+              "type": "PIX",
+              "amount": "150.00",
+              "currency": "BRL",
+              "sender": {"document": "12345678909", "bankCode": "001", "account": "12345-6"},
+              "receiver": {"pixKey": "user@example.com", "pixKeyType": "EMAIL"}
+            }
+            """;
+
+    private final HttpClient client;
+    private final URI singleEndpoint;
+    private final URI batchEndpoint;
+    private final String authorization;
+    private final int concurrency;
+    private final int batchSize;
+
+    private BatchCreatePaymentBenchmark(String baseUrl, String credentials, int concurrency, int batchSize) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.singleEndpoint = URI.create(baseUrl + "/api/v1/payments");
+        this.batchEndpoint = URI.create(baseUrl + "/api/v1/payments/batch");
+        this.authorization = "Basic " + Base64.getEncoder()
+                .encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+        this.concurrency = concurrency;
+        this.batchSize = batchSize;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String baseUrl = System.getProperty("benchmark.url", "http://localhost:8082");
+        String credentials = System.getProperty("benchmark.credentials", "user:password");
+        int payments = Integer.getInteger("benchmark.payments", 20_000);
+        int concurrency = Integer.getInteger("benchmark.concurrency", 64);
+        int batchSize = Integer.getInteger("benchmark.batchSize", 500);
+        int warmupPayments = Integer.getInteger("benchmark.warmupPayments", 2_000);
+
+        BatchCreatePaymentBenchmark benchmark =
+                new BatchCreatePaymentBenchmark(baseUrl, credentials, concurrency, batchSize);
+
+        benchmark.run(warmupPayments, false);
+        benchmark.run(warmupPayments, true);
+
+        Result single = benchmark.run(payments, false);
+        Result batch = benchmark.run(payments, true);
+
+        System.out.printf("payments=%d concurrency=%d batchSize=%d%n", payments, concurrency, batchSize);
+        System.out.printf("single throughput=%.1f payments/s status_counts=%s%n",
+                single.throughput(), single.statusCounts());
+        System.out.printf("batch  throughput=%.1f payments/s status_counts=%s%n",
+                batch.throughput(), batch.statusCounts());
+        System.out.printf("speedup=%.1fx%n", batch.throughput() / single.throughput());
+    }
+
+    /**
+     * Sends {@code payments} payments with at most {@code concurrency} requests in flight
+     */
+    private Result run(int payments, boolean batched) throws InterruptedException {
+        int requests = batched ? (payments + batchSize - 1) / batchSize : payments;
+        Semaphore inFlight = new Semaphore(concurrency);
+        Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+
+        long begin = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                int items = batched ? Math.min(batchSize, payments - i * batchSize) : 1;
+                inFlight.acquire();
+                executor.submit(() -> {
+                    try {
+                        int status = batched ? sendBatch(items) : sendSingle();
+                        statusCounts.computeIfAbsent(status, key -> new LongAdder()).increment();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+
+        Map<Integer, Long> counts = new TreeMap<>();
+        statusCounts.forEach((status, count) -> counts.put(status, count.sum()));
+        return new Result(payments / seconds, counts);
+    }
+
+    private int sendSingle() {
+        return send(HttpRequest.newBuilder(singleEndpoint)
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .POST(HttpRequest.BodyPublishers.ofString(PAYMENT_BODY)));
+    }
+
+    private int sendBatch(int items) {
+        StringBuilder body = new StringBuilder(items * 320).append("{\"items\":[");
+        for (int i = 0; i < items; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("{\"idempotencyKey\":\"").append(UUID.randomUUID())
+                    .append("\",\"payment\":").append(PAYMENT_BODY).append('}');
+        }
+        body.append("]}");
+        return send(HttpRequest.newBuilder(batchEndpoint)
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString())));
+    }
+
+    private int send(HttpRequest.Builder builder) {
+        HttpRequest request = builder
+                .timeout(Duration.ofSeconds(120))
+                .header("Content-Type", "application/json")
+                .header("Authorization", authorization)
+                .build();
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private record Result(double throughput, Map<Integer, Long> statusCounts) {
+    }
+}
@@ -0,0 +1,216 @@
+package com.openfinance.payment.benchmarks.http;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fires bursts of concurrent POST /api/v1/payments requests at a running payment-api
+ * and reports throughput and latency percentiles.
+ *
+ * Run it once against payment-api started with VIRTUAL_THREADS_ENABLED=false and once
+ * with VIRTUAL_THREADS_ENABLED=true to compare platform and virtual request threads:
+ * <pre>
+ * mvn -Pbenchmarks -pl benchmarks exec:java -Dbenchmark.label=platform
+ * mvn -Pbenchmarks -pl benchmarks exec:java -Dbenchmark.label=virtual
+ * </pre>
+ *
+ * With {@code benchmark.duplicateRatio} set, that share of requests reuses an idempotency key
+ * that already succeeded in an earlier round, and latencies are reported separately for new
+ * and duplicate requests:
+ * <pre>
+ * mvn -Pbenchmarks -pl benchmarks exec:java -Dbenchmark.duplicateRatio=0.3 -Dbenchmark.label=redis
+ * </pre>
+ *
+ * Settings (system properties): benchmark.url, benchmark.concurrency (default 1000),
+ * benchmark.rounds (default 5), benchmark.warmupRounds (default 1),
+ * benchmark.credentials (default user:password), benchmark.duplicateRatio (default 0),
+ * benchmark.label
+ */
+public final class CreatePaymentConcurrencyBenchmark {
+
+    private static final String PAYMENT_BODY = """
+            {
+              "type": "PIX",
+              "amount": "150.00",
+              "currency": "BRL",
+              "sender": {"document": "12345678909", "bankCode": "001", "account": "12345-6"},
+              "receiver": {"pixKey": "user@example.com", "pixKeyType": "EMAIL"}
+            }
+            """;
+
+    private final HttpClient client;
+    private final URI endpoint;
+    private final String authorization;
+    private final int concurrency;
+    private final double duplicateRatio;
+    private final List<String> succeededKeys = new ArrayList<>();
+
+    private CreatePaymentConcurrencyBenchmark(String baseUrl, String credentials, int concurrency,
+                                              double duplicateRatio) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.endpoint = URI.create(baseUrl + "/api/v1/payments");
+        this.authorization = "Basic " + Base64.getEncoder()
+                .encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+        this.concurrency = concurrency;
+        this.duplicateRatio = duplicateRatio;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String baseUrl = System.getProperty("benchmark.url", "http://localhost:8082");
+        String credentials = System.getProperty("benchmark.credentials", "user:password");
+        String label = System.getProperty("benchmark.label", "unlabelled");
+        int concurrency = Integer.getInteger("benchmark.concurrency", 1000);
+        int rounds = Integer.getInteger("benchmark.rounds", 5);
+        int warmupRounds = Integer.getInteger("benchmark.warmupRounds", 1);
+        double duplicateRatio = Double.parseDouble(System.getProperty("benchmark.duplicateRatio", "0"));
+
+        CreatePaymentConcurrencyBenchmark benchmark =
+                new CreatePaymentConcurrencyBenchmark(baseUrl, credentials, concurrency, duplicateRatio);
+
+        for (int i = 0; i < warmupRounds; i++) {
+            benchmark.runRound();
+        }
+
+        long[] latencies = new long[concurrency * rounds];
+        boolean[] duplicates = new boolean[concurrency * rounds];
+        Map<Integer, Integer> statusCounts = new TreeMap<>();
+        long totalNanos = 0;
+
+        for (int i = 0; i < rounds; i++) {
+            RoundResult result = benchmark.runRound();
+            System.arraycopy(result.latencies(), 0, latencies, i * concurrency, concurrency);
+            System.arraycopy(result.duplicates(), 0, duplicates, i * concurrency, concurrency);
+            result.statusCounts().forEach((status, count) -> statusCounts.merge(status, count.intValue(), Integer::sum));
+            totalNanos += result.elapsedNanos();
+        }
+
+        double seconds = totalNanos / 1_000_000_000.0;
+
+        System.out.printf("label=%s concurrency=%d rounds=%d duplicateRatio=%.2f%n",
+                label, concurrency, rounds, duplicateRatio);
+        System.out.printf("throughput=%.1f req/s%n", latencies.length / seconds);
+        printLatencies("latency_ms", latencies);
+        if (duplicateRatio > 0) {
+            printLatencies("new_latency_ms", select(latencies, duplicates, false));
+            printLatencies("duplicate_latency_ms", select(latencies, duplicates, true));
+        }
+        System.out.printf("status_counts=%s%n", statusCounts);
+    }
+
+    private static void printLatencies(String label, long[] latencies) {
+        if (latencies.length == 0) {
+            return;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%s p50=%.1f p90=%.1f p99=%.1f max=%.1f%n", label,
+                percentile(latencies, 0.50), percentile(latencies, 0.90),
+                percentile(latencies, 0.99), latencies[latencies.length - 1] / 1_000_000.0);
+    }
+
+    private static long[] select(long[] latencies, boolean[] duplicates, boolean duplicate) {
+        long[] selected = new long[latencies.length];
+        int count = 0;
+        for (int i = 0; i < latencies.length; i++) {
+            if (duplicates[i] == duplicate) {
+                selected[count++] = latencies[i];
+            }
+        }
+        return Arrays.copyOf(selected, count);
+    }
+
+    /**
+     * Releases {@code concurrency} requests at the same instant and waits for all of them
+     */
+    private RoundResult runRound() throws InterruptedException {
+        long[] latencies = new long[concurrency];
+        boolean[] duplicates = new boolean[concurrency];
+        AtomicInteger index = new AtomicInteger();
+        Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+        ConcurrentLinkedQueue<String> newKeys = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        // Duplicates reuse keys that succeeded in earlier rounds, so their originals have committed
+        String[] previousKeys = succeededKeys.toArray(String[]::new);
+        String[] keys = new String[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            duplicates[i] = previousKeys.length > 0 && random.nextDouble() < duplicateRatio;
+            keys[i] = duplicates[i]
+                    ? previousKeys[random.nextInt(previousKeys.length)]
+                    : UUID.randomUUID().toString();
+        }
+
+        long begin;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                executor.submit(() -> {
+                    start.await();
+                    int slot = index.getAndIncrement();
+                    int status = sendCreatePayment(latencies, slot, keys[slot]);
+                    statusCounts.computeIfAbsent(status, key -> new LongAdder()).increment();
+                    if (status == 201) {
+                        newKeys.add(keys[slot]);
+                    }
+                    return null;
+                });
+            }
+            begin = System.nanoTime();
+            start.countDown();
+        }
+
+        succeededKeys.addAll(newKeys);
+        return new RoundResult(latencies, duplicates, statusCounts, System.nanoTime() - begin);
+    }
+
+    private int sendCreatePayment(long[] latencies, int slot, String idempotencyKey) {
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .header("Authorization", authorization)
+                .header("Idempotency-Key", idempotencyKey)
+                .POST(HttpRequest.BodyPublishers.ofString(PAYMENT_BODY))
+                .build();
+
+        long started = System.nanoTime();
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            status = -1;
+        }
+        latencies[slot] = System.nanoTime() - started;
+        return status;
+    }
+
+    private static double percentile(long[] sortedNanos, double quantile) {
+        int rank = (int) Math.ceil(quantile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(rank, 0)] / 1_000_000.0;
+    }
+
+    private record RoundResult(long[] latencies, boolean[] duplicates, Map<Integer, LongAdder> statusCounts,
+                               long elapsedNanos) {
+    }
+}
@@ -0,0 +1,156 @@
+package com.openfinance.payment.benchmarks.http;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Opens many Server-Sent Event streams on pending payments and holds them idle, reporting how
+ * many the server accepted.
+ *
+ * Stop processing-service first so the payments stay PENDING and the streams stay idle.
+ * Watch payment-api heap and {@code payments.status.subscriptions} while it holds the streams.
+ * Raise the open-files limit on both sides ({@code ulimit -n 120000}) before going past a few
+ * thousand connections:
+ * <pre>
+ * mvn -Pbenchmarks -pl benchmarks exec:java \
+ *     -Dexec.mainClass=com.openfinance.payment.benchmarks.http.IdleSubscriptionsBenchmark
+ * </pre>
+ *
+ * Settings (system properties): benchmark.url, benchmark.credentials (default user:password),
+ * benchmark.subscriptions (default 50000), benchmark.payments (streams are spread over this many
+ * payments, default 1000), benchmark.openRate (connections opened in parallel, default 500),
+ * benchmark.holdSeconds (default 60)
+ */
+public final class IdleSubscriptionsBenchmark {
+
+    private static final String PAYMENT_BODY = """
+            {
+              "type": "PIX",
+              "amount": "150.00",
+              "currency": "BRL",
+              "sender": {"document": "12345678909", "bankCode": "001", "account": "12345-6"},
+              "receiver": {"pixKey": "user@example.com", "pixKeyType": "EMAIL"}
+            }
+            """;
+
+    private static final Pattern PAYMENT_ID = Pattern.compile("\"paymentId\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final String authorization;
+
+    private IdleSubscriptionsBenchmark(String baseUrl, String credentials) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.baseUrl = baseUrl;
+        this.authorization = "Basic " + Base64.getEncoder()
+                .encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("benchmark.url", "http://localhost:8082");
+        String credentials = System.getProperty("benchmark.credentials", "user:password");
+        int subscriptions = Integer.getInteger("benchmark.subscriptions", 50_000);
+        int payments = Integer.getInteger("benchmark.payments", 1000);
+        int openRate = Integer.getInteger("benchmark.openRate", 500);
+        int holdSeconds = Integer.getInteger("benchmark.holdSeconds", 60);
+
+        IdleSubscriptionsBenchmark benchmark = new IdleSubscriptionsBenchmark(baseUrl, credentials);
+        String[] paymentIds = benchmark.createPayments(payments);
+
+        Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+        ConcurrentLinkedQueue<InputStream> streams = new ConcurrentLinkedQueue<>();
+        Semaphore opening = new Semaphore(openRate);
+
+        long begin = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < subscriptions; i++) {
+                String paymentId = paymentIds[i % paymentIds.length];
+                opening.acquire();
+                executor.submit(() -> {
+                    try {
+                        int status = benchmark.open(paymentId, streams);
+                        statusCounts.computeIfAbsent(status, key -> new LongAdder()).increment();
+                    } finally {
+                        opening.release();
+                    }
+                });
+            }
+        }
+        double openSeconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+        System.out.printf("subscriptions=%d payments=%d opened=%d in %.1f s status_counts=%s%n",
+                subscriptions, payments, streams.size(), openSeconds, counts(statusCounts));
+
+        // Heap and subscription gauges are read on the server while the streams are held
+        Thread.sleep(Duration.ofSeconds(holdSeconds).toMillis());
+
+        for (InputStream stream : streams) {
+            stream.close();
+        }
+        System.out.printf("held=%d s, closed %d streams%n", holdSeconds, streams.size());
+    }
+
+    private String[] createPayments(int count) throws Exception {
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            HttpRequest request = request(URI.create(baseUrl + "/api/v1/payments"))
+                    .header("Content-Type", "application/json")
+                    .header("Idempotency-Key", UUID.randomUUID().toString())
+                    .POST(HttpRequest.BodyPublishers.ofString(PAYMENT_BODY))
+                    .build();
+            Matcher matcher = PAYMENT_ID.matcher(client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+            ids[i] = matcher.find() ? matcher.group(1) : null;
+        }
+        return ids;
+    }
+
+    private int open(String paymentId, ConcurrentLinkedQueue<InputStream> streams) {
+        HttpRequest request = request(URI.create(baseUrl + "/api/v1/payments/" + paymentId + "/events"))
+                .header("Accept", "text/event-stream")
+                .GET()
+                .build();
+        try {
+            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            if (response.statusCode() == 200) {
+                streams.add(response.body());
+            } else {
+                response.body().close();
+            }
+            return response.statusCode();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private HttpRequest.Builder request(URI uri) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", authorization);
+    }
+
+    private static Map<Integer, Long> counts(Map<Integer, LongAdder> statusCounts) {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statusCounts.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+}
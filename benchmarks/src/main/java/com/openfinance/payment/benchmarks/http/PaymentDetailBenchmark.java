@@ -0,0 +1,191 @@
+package com.openfinance.payment.benchmarks.http;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Polls GET /api/v1/payments/{paymentId} the way clients do and reports latency percentiles.
+ *
+ * Creates {@code benchmark.payments} payments, waits until processing-service has settled
+ * them, then has {@code benchmark.concurrency} pollers fetch random ones for
+ * {@code benchmark.seconds}. Run it against payment-api started with
+ * DETAIL_CACHE_ENABLED=false and then true (or against the previous build) to compare:
+ * <pre>
+ * mvn -Pbenchmarks -pl benchmarks exec:java \
+ *     -Dexec.mainClass=com.openfinance.payment.benchmarks.http.PaymentDetailBenchmark -Dbenchmark.label=cache
+ * </pre>
+ *
+ * Settings (system properties): benchmark.url, benchmark.credentials (default user:password),
+ * benchmark.payments (default 500), benchmark.concurrency (default 64),
+ * benchmark.seconds (default 30), benchmark.warmupSeconds (default 10), benchmark.label
+ */
+public final class PaymentDetailBenchmark {
+
+    private static final String PAYMENT_BODY = """
+            {
+              "type": "PIX",
+              "amount": "150.00",
+              "currency": "BRL",
+              "sender": {"document": "12345678909", "bankCode": "001", "account": "12345-6"},
+              "receiver": {"pixKey": "user@example.com", "pixKeyType": "EMAIL"}
+            }
+            """;
+
+    private static final Pattern PAYMENT_ID = Pattern.compile("\"paymentId\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern STATUS = Pattern.compile("\"status\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final String authorization;
+
+    private PaymentDetailBenchmark(String baseUrl, String credentials) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.baseUrl = baseUrl;
+        this.authorization = "Basic " + Base64.getEncoder()
+                .encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("benchmark.url", "http://localhost:8082");
+        String credentials = System.getProperty("benchmark.credentials", "user:password");
+        String label = System.getProperty("benchmark.label", "unlabelled");
+        int payments = Integer.getInteger("benchmark.payments", 500);
+        int concurrency = Integer.getInteger("benchmark.concurrency", 64);
+        int seconds = Integer.getInteger("benchmark.seconds", 30);
+        int warmupSeconds = Integer.getInteger("benchmark.warmupSeconds", 10);
+
+        PaymentDetailBenchmark benchmark = new PaymentDetailBenchmark(baseUrl, credentials);
+        String[] paymentIds = benchmark.createPayments(payments);
+        benchmark.awaitSettled(paymentIds);
+
+        benchmark.poll(paymentIds, concurrency, warmupSeconds);
+        Result result = benchmark.poll(paymentIds, concurrency, seconds);
+
+        long[] latencies = result.latencies();
+        Arrays.sort(latencies);
+        System.out.printf("label=%s payments=%d concurrency=%d seconds=%d%n", label, payments, concurrency, seconds);
+        System.out.printf("throughput=%.1f req/s errors=%d%n", latencies.length / (double) seconds, result.errors());
+        System.out.printf("latency_ms p50=%.2f p90=%.2f p99=%.2f p999=%.2f max=%.2f%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                percentile(latencies, 0.999), latencies[latencies.length - 1] / 1_000_000.0);
+    }
+
+    private String[] createPayments(int count) throws Exception {
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            HttpRequest request = request(URI.create(baseUrl + "/api/v1/payments"))
+                    .header("Content-Type", "application/json")
+                    .header("Idempotency-Key", UUID.randomUUID().toString())
+                    .POST(HttpRequest.BodyPublishers.ofString(PAYMENT_BODY))
+                    .build();
+            ids[i] = extract(PAYMENT_ID, client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+        }
+        return ids;
+    }
+
+    /**
+     * Pollers in production mostly see settled payments, which is what the cache targets
+     */
+    private void awaitSettled(String[] paymentIds) throws Exception {
+        List<String> pending = new ArrayList<>(List.of(paymentIds));
+        long deadline = System.nanoTime() + Duration.ofMinutes(5).toNanos();
+        while (!pending.isEmpty() && System.nanoTime() < deadline) {
+            List<String> stillPending = new ArrayList<>();
+            for (String paymentId : pending) {
+                String status = extract(STATUS, get(paymentId).body());
+                if (!"SUCCESS".equals(status) && !"FAILED".equals(status)) {
+                    stillPending.add(paymentId);
+                }
+            }
+            pending = stillPending;
+            if (!pending.isEmpty()) {
+                Thread.sleep(1000);
+            }
+        }
+        if (!pending.isEmpty()) {
+            System.out.printf("warning: %d payments did not settle; is processing-service running?%n", pending.size());
+        }
+    }
+
+    private Result poll(String[] paymentIds, int concurrency, int seconds) throws InterruptedException {
+        long end = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        List<long[]> perPoller = new ArrayList<>();
+        int[] counts = new int[concurrency];
+        LongAdder errors = new LongAdder();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int p = 0; p < concurrency; p++) {
+                long[] latencies = new long[1 << 17];
+                perPoller.add(latencies);
+                int poller = p;
+                executor.submit(() -> {
+                    while (System.nanoTime() < end && counts[poller] < latencies.length) {
+                        String paymentId = paymentIds[ThreadLocalRandom.current().nextInt(paymentIds.length)];
+                        long started = System.nanoTime();
+                        try {
+                            if (get(paymentId).statusCode() != 200) {
+                                errors.increment();
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                        latencies[counts[poller]++] = System.nanoTime() - started;
+                    }
+                    return null;
+                });
+            }
+        }
+
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int p = 0; p < concurrency; p++) {
+            System.arraycopy(perPoller.get(p), 0, all, offset, counts[p]);
+            offset += counts[p];
+        }
+        return new Result(all, errors.sum());
+    }
+
+    private HttpResponse<String> get(String paymentId) throws Exception {
+        HttpRequest request = request(URI.create(baseUrl + "/api/v1/payments/" + paymentId)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder request(URI uri) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", authorization);
+    }
+
+    private static String extract(Pattern pattern, String body) {
+        Matcher matcher = pattern.matcher(body);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static double percentile(long[] sortedNanos, double quantile) {
+        int rank = (int) Math.ceil(quantile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(rank, 0)] / 1_000_000.0;
+    }
+
+    private record Result(long[] latencies, long errors) {
+    }
+}
@@ -0,0 +1,67 @@
+package com.openfinance.payment.benchmarks.id;
+
+import com.openfinance.payment.common.util.PaymentIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost of generating one payment ID with the Snowflake generator and with the previous
+ * {@code LocalDateTime.now().format} plus {@code String.format} implementation, from one
+ * thread and from eight threads sharing a generator. Run with {@code -prof gc} to compare
+ * allocation per ID:
+ *
+ * java -jar benchmarks/target/benchmarks.jar PaymentIdGeneratorBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentIdGeneratorBenchmark {
+
+    private static final DateTimeFormatter YEAR_FORMATTER = DateTimeFormatter.ofPattern("yyyy");
+
+    private final PaymentIdGenerator generator = new PaymentIdGenerator(1);
+    private final AtomicLong counter = new AtomicLong(1);
+
+    @Benchmark
+    public String snowflake() {
+        return generator.generate();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String snowflakeContended() {
+        return generator.generate();
+    }
+
+    @Benchmark
+    public String legacyFormat() {
+        return legacy();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String legacyFormatContended() {
+        return legacy();
+    }
+
+    private String legacy() {
+        String year = LocalDateTime.now().format(YEAR_FORMATTER);
+        return String.format("PAY-%s-%06d", year, counter.getAndIncrement());
+    }
+}
@@ -0,0 +1,311 @@
+package com.openfinance.payment.benchmarks.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * End-to-end load test: create → queue → process → reconcile, driven at a fixed arrival rate.
+ *
+ * Requests are sent on schedule whether or not earlier ones have completed (open loop), and
+ * every latency is measured from the moment the request was due, not from when it was sent.
+ * A stall in the services therefore shows up in the latencies of every request that queued
+ * behind it instead of silently lowering the send rate (coordinated omission). Latencies are
+ * recorded in HdrHistograms:
+ * <ul>
+ *   <li>create: POST /api/v1/payments until the 201</li>
+ *   <li>end_to_end: until a long poll ({@code ?waitFor=terminal}) sees SUCCESS or FAILED</li>
+ *   <li>queue_lag: {@code created_at} to {@code processed_at} (or the last update for FAILED),
+ *       read from Postgres after the run</li>
+ * </ul>
+ *
+ * Start all three services with the fast, deterministic bank simulator (profile {@code loadtest}):
+ * <pre>
+ * docker-compose -f docker-compose.yml -f docker-compose.loadtest.yml up -d --build
+ * mvn -Pbenchmarks -pl benchmarks exec:java \
+ *     -Dexec.mainClass=com.openfinance.payment.benchmarks.loadtest.PaymentLoadTest -Dbenchmark.rate=500
+ * </pre>
+ *
+ * Settings (system properties): benchmark.url, benchmark.credentials (default user:password),
+ * benchmark.rate (payments/s, default 200), benchmark.seconds (default 60),
+ * benchmark.warmupSeconds (default 10), benchmark.jdbcUrl, benchmark.dbUser, benchmark.dbPassword
+ * (default the docker-compose database), benchmark.histogramDir (writes .hgrm percentile files
+ * when set), benchmark.label
+ */
+public final class PaymentLoadTest {
+
+    private static final String PAYMENT_BODY = """
+            {
+              "type": "PIX",
+              "amount": "150.00",
+              "currency": "BRL",
+              "sender": {"document": "12345678909", "bankCode": "001", "account": "12345-6"},
+              "receiver": {"pixKey": "user@example.com", "pixKeyType": "EMAIL"}
+            }
+            """;
+
+    private static final Pattern PAYMENT_ID = Pattern.compile("\"paymentId\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern STATUS = Pattern.compile("\"status\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Set<String> TERMINAL = Set.of("SUCCESS", "FAILED", "CANCELLED");
+
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(30);
+    private static final int LONG_POLL_SECONDS = 120;
+    private static final Duration SETTLE_TIMEOUT = Duration.ofMinutes(10);
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final String authorization;
+
+    private PaymentLoadTest(String baseUrl, String credentials) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.baseUrl = baseUrl;
+        this.authorization = "Basic " + Base64.getEncoder()
+                .encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("benchmark.url", "http://localhost:8082");
+        String credentials = System.getProperty("benchmark.credentials", "user:password");
+        String label = System.getProperty("benchmark.label", "unlabelled");
+        int rate = Integer.getInteger("benchmark.rate", 200);
+        int seconds = Integer.getInteger("benchmark.seconds", 60);
+        int warmupSeconds = Integer.getInteger("benchmark.warmupSeconds", 10);
+        String jdbcUrl = System.getProperty("benchmark.jdbcUrl", "jdbc:postgresql://localhost:5433/payment_processor");
+        String dbUser = System.getProperty("benchmark.dbUser", "admin");
+        String dbPassword = System.getProperty("benchmark.dbPassword", "admin123");
+        String histogramDir = System.getProperty("benchmark.histogramDir");
+
+        PaymentLoadTest loadTest = new PaymentLoadTest(baseUrl, credentials);
+
+        if (warmupSeconds > 0) {
+            loadTest.run(rate, warmupSeconds);
+        }
+        Run run = loadTest.run(rate, seconds);
+        Histogram queueLag = queueLag(jdbcUrl, dbUser, dbPassword, run.paymentIds());
+
+        System.out.printf("label=%s rate=%d/s seconds=%d%n", label, rate, seconds);
+        System.out.printf("sent=%d created=%d settled=%d unsettled=%d create_status_counts=%s final_status_counts=%s%n",
+                run.sent(), run.paymentIds().size(), run.endToEnd().getTotalCount(),
+                run.paymentIds().size() - run.endToEnd().getTotalCount(),
+                run.createStatusCounts(), run.finalStatusCounts());
+        System.out.printf("throughput created=%.1f/s settled=%.1f/s (over %.1f s until the last payment settled)%n",
+                run.paymentIds().size() / (double) seconds,
+                run.endToEnd().getTotalCount() / run.elapsedSeconds(), run.elapsedSeconds());
+        print("create_ms", run.create());
+        print("end_to_end_ms", run.endToEnd());
+        print("queue_lag_ms", queueLag);
+
+        if (histogramDir != null) {
+            Path dir = Files.createDirectories(Path.of(histogramDir));
+            write(dir.resolve(label + "-create.hgrm"), run.create());
+            write(dir.resolve(label + "-end-to-end.hgrm"), run.endToEnd());
+            write(dir.resolve(label + "-queue-lag.hgrm"), queueLag);
+            System.out.printf("histograms=%s%n", dir.toAbsolutePath());
+        }
+    }
+
+    /**
+     * Sends {@code rate * seconds} payments on a fixed schedule and waits for all of them to settle
+     */
+    private Run run(int rate, int seconds) throws InterruptedException {
+        long total = (long) rate * seconds;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+
+        Histogram create = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+        Histogram endToEnd = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+        Map<Integer, LongAdder> createStatusCounts = new ConcurrentHashMap<>();
+        Map<String, LongAdder> finalStatusCounts = new ConcurrentHashMap<>();
+        ConcurrentLinkedQueue<String> paymentIds = new ConcurrentLinkedQueue<>();
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < total; i++) {
+                long due = start + i * intervalNanos;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                executor.submit(() -> {
+                    String paymentId = create(due, create, createStatusCounts);
+                    if (paymentId != null) {
+                        paymentIds.add(paymentId);
+                        String status = awaitTerminal(paymentId, due + SETTLE_TIMEOUT.toNanos());
+                        if (status != null) {
+                            endToEnd.recordValue(micros(System.nanoTime() - due));
+                        }
+                        finalStatusCounts.computeIfAbsent(status != null ? status : "UNSETTLED",
+                                key -> new LongAdder()).increment();
+                    }
+                });
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        return new Run(total, new ArrayList<>(paymentIds), create, endToEnd,
+                sums(createStatusCounts), sums(finalStatusCounts), elapsedSeconds);
+    }
+
+    private String create(long due, Histogram create, Map<Integer, LongAdder> statusCounts) {
+        HttpRequest request = request(URI.create(baseUrl + "/api/v1/payments"))
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .POST(HttpRequest.BodyPublishers.ofString(PAYMENT_BODY))
+                .build();
+        int status;
+        String paymentId = null;
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            status = response.statusCode();
+            if (status == 201) {
+                paymentId = extract(PAYMENT_ID, response.body());
+            }
+        } catch (Exception e) {
+            status = -1;
+        }
+        create.recordValue(micros(System.nanoTime() - due));
+        statusCounts.computeIfAbsent(status, key -> new LongAdder()).increment();
+        return paymentId;
+    }
+
+    /**
+     * @return the terminal status, or null if the payment has not settled by {@code deadline}
+     */
+    private String awaitTerminal(String paymentId, long deadline) {
+        URI uri = URI.create(baseUrl + "/api/v1/payments/" + paymentId
+                + "?waitFor=terminal&timeout=" + LONG_POLL_SECONDS);
+        while (System.nanoTime() < deadline) {
+            try {
+                HttpRequest request = request(uri)
+                        .timeout(Duration.ofSeconds(LONG_POLL_SECONDS + 30))
+                        .GET()
+                        .build();
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                String status = response.statusCode() == 200 ? extract(STATUS, response.body()) : null;
+                if (status != null && TERMINAL.contains(status)) {
+                    return status;
+                }
+                if (response.statusCode() != 200) {
+                    Thread.sleep(1000);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (Exception e) {
+                LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+            }
+        }
+        return null;
+    }
+
+    private static Histogram queueLag(String jdbcUrl, String user, String password, List<String> paymentIds)
+            throws SQLException {
+        Histogram histogram = new Histogram(HIGHEST_MICROS, 3);
+        String sql = """
+                SELECT EXTRACT(EPOCH FROM (COALESCE(processed_at, updated_at) - created_at)) * 1000000
+                FROM payments
+                WHERE payment_id = ANY (?) AND status IN ('SUCCESS', 'FAILED')
+                """;
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, user, password);
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int from = 0; from < paymentIds.size(); from += 10_000) {
+                List<String> chunk = paymentIds.subList(from, Math.min(from + 10_000, paymentIds.size()));
+                Array ids = connection.createArrayOf("varchar", chunk.toArray());
+                statement.setArray(1, ids);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        histogram.recordValue(Math.max(0, Math.min(HIGHEST_MICROS, rs.getLong(1))));
+                    }
+                }
+                ids.free();
+            }
+        }
+        return histogram;
+    }
+
+    private HttpRequest.Builder request(URI uri) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(60))
+                .header("Authorization", authorization);
+    }
+
+    private static void print(String label, Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            System.out.printf("%s no samples%n", label);
+            return;
+        }
+        System.out.printf("%s count=%d p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f p99.99=%.1f max=%.1f%n", label,
+                histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getValueAtPercentile(99.99) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    /**
+     * Percentile distribution in milliseconds, plottable with HdrHistogram's plotter
+     */
+    private static void write(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(new FileOutputStream(file.toFile()), false, StandardCharsets.UTF_8)) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static long micros(long nanos) {
+        return Math.min(HIGHEST_MICROS, TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    private static String extract(Pattern pattern, String body) {
+        Matcher matcher = pattern.matcher(body);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static <K extends Comparable<K>> Map<K, Long> sums(Map<K, LongAdder> counts) {
+        Map<K, Long> sums = new TreeMap<>();
+        counts.forEach((key, count) -> sums.put(key, count.sum()));
+        return sums;
+    }
+
+    private record Run(long sent, List<String> paymentIds, Histogram create, Histogram endToEnd,
+                       Map<Integer, Long> createStatusCounts, Map<String, Long> finalStatusCounts,
+                       double elapsedSeconds) {
+    }
+}
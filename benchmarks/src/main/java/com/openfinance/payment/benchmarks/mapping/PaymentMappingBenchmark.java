@@ -0,0 +1,109 @@
+package com.openfinance.payment.benchmarks.mapping;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.openfinance.payment.common.dto.PaymentRequest;
+import com.openfinance.payment.common.dto.PaymentResponse;
+import com.openfinance.payment.common.entity.Payment;
+import com.openfinance.payment.common.entity.PaymentStatus;
+import com.openfinance.payment.common.entity.PaymentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request mapping and JSON costs of the payment API: the entity to response mapping,
+ * and Jackson reading a {@link PaymentRequest} and writing a {@link PaymentResponse} with the
+ * settings Spring Boot applies (JavaTimeModule, ISO dates).
+ *
+ * java -jar benchmarks/target/benchmarks.jar PaymentMappingBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PaymentMappingBenchmark {
+
+    private static final String REQUEST_BODY = """
+            {
+              "type": "PIX",
+              "amount": "150.00",
+              "currency": "BRL",
+              "sender": {"document": "12345678909", "bankCode": "001", "account": "12345-6"},
+              "receiver": {"pixKey": "user@example.com", "pixKeyType": "EMAIL"}
+            }
+            """;
+
+    private ObjectMapper objectMapper;
+    private Payment payment;
+    private PaymentResponse response;
+    private byte[] requestBody;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        LocalDateTime now = LocalDateTime.now();
+        payment = Payment.builder()
+                .id(UUID.randomUUID())
+                .paymentId("PAY-2025-0249609741926404096")
+                .idempotencyKey(UUID.randomUUID())
+                .type(PaymentType.PIX)
+                .amount(new BigDecimal("150.00"))
+                .currency("BRL")
+                .status(PaymentStatus.SUCCESS)
+                .senderDocument("12345678909")
+                .senderBankCode("001")
+                .senderAccount("12345-6")
+                .receiverPixKey("user@example.com")
+                .receiverPixKeyType("EMAIL")
+                .confirmationCode("E12345678202511191900001234567890")
+                .createdAt(now)
+                .processedAt(now.plusSeconds(2))
+                .build();
+        response = PaymentResponse.from(payment);
+        requestBody = REQUEST_BODY.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public PaymentResponse toPaymentResponse() {
+        return PaymentResponse.from(payment);
+    }
+
+    @Benchmark
+    public byte[] writePaymentResponse() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public PaymentRequest readPaymentRequest() throws IOException {
+        return objectMapper.readValue(requestBody, PaymentRequest.class);
+    }
+
+    /**
+     * What POST /api/v1/payments pays around validation and persistence
+     */
+    @Benchmark
+    public byte[] readMapWrite() throws IOException {
+        objectMapper.readValue(requestBody, PaymentRequest.class);
+        return objectMapper.writeValueAsBytes(PaymentResponse.from(payment));
+    }
+}
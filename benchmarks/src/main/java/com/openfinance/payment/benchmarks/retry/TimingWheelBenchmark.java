@@ -0,0 +1,93 @@
+package com.openfinance.payment.benchmarks.retry;
+
+import com.openfinance.payment.common.util.TimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedule, cancel and expire costs of the retry timing wheel with 1M pending timers.
+ * Deadlines are spread over an hour, well beyond the retry backoffs seen in practice.
+ *
+ * java -jar benchmarks/target/benchmarks.jar TimingWheelBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class TimingWheelBenchmark {
+
+    private static final long TICK_MILLIS = 20;
+    private static final int WHEEL_SIZE = 64;
+    private static final int LEVELS = 4;
+    private static final long HORIZON_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    @Param("1000000")
+    private int pendingTimers;
+
+    private TimingWheel<Integer> wheel;
+    private TimingWheel.Timeout<Integer>[] timeouts;
+    private SplittableRandom random;
+    private long now;
+    private int cursor;
+
+    @Setup(Level.Iteration)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        random = new SplittableRandom(42);
+        now = 0;
+        cursor = 0;
+        wheel = new TimingWheel<>(TICK_MILLIS, WHEEL_SIZE, LEVELS, now);
+        timeouts = new TimingWheel.Timeout[pendingTimers];
+        for (int i = 0; i < pendingTimers; i++) {
+            timeouts[i] = wheel.schedule(i, randomDeadline());
+        }
+    }
+
+    /**
+     * A new timer that is cancelled right away, e.g. a retry made moot by reconciliation
+     */
+    @Benchmark
+    public boolean scheduleAndCancel() {
+        return wheel.schedule(-1, randomDeadline()).cancel();
+    }
+
+    /**
+     * Cancels one of the pending timers and schedules its replacement
+     */
+    @Benchmark
+    public TimingWheel.Timeout<Integer> cancelAndReschedule() {
+        int index = cursor;
+        cursor = (cursor + 1) % pendingTimers;
+        timeouts[index].cancel();
+        timeouts[index] = wheel.schedule(index, randomDeadline());
+        return timeouts[index];
+    }
+
+    /**
+     * Advances the wheel one tick; expired timers are rescheduled to keep 1M pending
+     */
+    @Benchmark
+    public int expireTick() {
+        now += TICK_MILLIS;
+        return wheel.advanceTo(now, index -> timeouts[index] = wheel.schedule(index, now + HORIZON_MILLIS));
+    }
+
+    private long randomDeadline() {
+        return now + 1 + random.nextLong(HORIZON_MILLIS);
+    }
+}
@@ -0,0 +1,106 @@
+package com.openfinance.payment.benchmarks.validator;
+
+import java.util.regex.Pattern;
+
+/**
+ * The regex-based validators as they were before the hand-written rewrite, kept as the
+ * baseline for {@link ValidatorBenchmark}
+ */
+final class LegacyValidators {
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile(
+            "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$"
+    );
+
+    private static final Pattern PHONE_PATTERN = Pattern.compile(
+            "^\\+55\\d{10,11}$"
+    );
+
+    private static final Pattern RANDOM_KEY_PATTERN = Pattern.compile(
+            "^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$"
+    );
+
+    private LegacyValidators() {
+        // Utility class
+    }
+
+    static boolean isValidCpf(String cpf) {
+        if (cpf == null || cpf.isEmpty()) {
+            return false;
+        }
+        String cleanCpf = cpf.replaceAll("\\D", "");
+        if (cleanCpf.length() != 11 || cleanCpf.matches("(\\d)\\1{10}")) {
+            return false;
+        }
+        int sum = 0;
+        for (int i = 0; i < 9; i++) {
+            sum += Character.getNumericValue(cleanCpf.charAt(i)) * (10 - i);
+        }
+        int firstCheckDigit = 11 - (sum % 11);
+        if (firstCheckDigit >= 10) {
+            firstCheckDigit = 0;
+        }
+        if (firstCheckDigit != Character.getNumericValue(cleanCpf.charAt(9))) {
+            return false;
+        }
+        sum = 0;
+        for (int i = 0; i < 10; i++) {
+            sum += Character.getNumericValue(cleanCpf.charAt(i)) * (11 - i);
+        }
+        int secondCheckDigit = 11 - (sum % 11);
+        if (secondCheckDigit >= 10) {
+            secondCheckDigit = 0;
+        }
+        return secondCheckDigit == Character.getNumericValue(cleanCpf.charAt(10));
+    }
+
+    static boolean isValidCnpj(String cnpj) {
+        if (cnpj == null || cnpj.isEmpty()) {
+            return false;
+        }
+        String cleanCnpj = cnpj.replaceAll("\\D", "");
+        if (cleanCnpj.length() != 14 || cleanCnpj.matches("(\\d)\\1{13}")) {
+            return false;
+        }
+        int[] weights1 = {5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2};
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += Character.getNumericValue(cleanCnpj.charAt(i)) * weights1[i];
+        }
+        int firstCheckDigit = sum % 11;
+        firstCheckDigit = (firstCheckDigit < 2) ? 0 : 11 - firstCheckDigit;
+        if (firstCheckDigit != Character.getNumericValue(cleanCnpj.charAt(12))) {
+            return false;
+        }
+        int[] weights2 = {6, 5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2};
+        sum = 0;
+        for (int i = 0; i < 13; i++) {
+            sum += Character.getNumericValue(cleanCnpj.charAt(i)) * weights2[i];
+        }
+        int secondCheckDigit = sum % 11;
+        secondCheckDigit = (secondCheckDigit < 2) ? 0 : 11 - secondCheckDigit;
+        return secondCheckDigit == Character.getNumericValue(cleanCnpj.charAt(13));
+    }
+
+    static boolean isValidPixKey(String pixKey, String pixKeyType) {
+        if (pixKey == null || pixKey.isEmpty() || pixKeyType == null || pixKeyType.isEmpty()) {
+            return false;
+        }
+        return switch (pixKeyType.toUpperCase()) {
+            case "EMAIL" -> EMAIL_PATTERN.matcher(pixKey).matches();
+            case "CPF" -> isValidCpf(pixKey);
+            case "CNPJ" -> isValidCnpj(pixKey);
+            case "PHONE" -> isValidPhone(pixKey);
+            case "RANDOM" -> RANDOM_KEY_PATTERN.matcher(pixKey.toLowerCase()).matches();
+            default -> false;
+        };
+    }
+
+    private static boolean isValidPhone(String phone) {
+        String cleanPhone = phone.replaceAll("\\D", "");
+        if (cleanPhone.length() >= 12 && cleanPhone.startsWith("55")) {
+            return PHONE_PATTERN.matcher("+" + cleanPhone).matches();
+        }
+        return cleanPhone.length() >= 12 && cleanPhone.length() <= 13 && cleanPhone.startsWith("55");
+    }
+}
@@ -0,0 +1,110 @@
+package com.openfinance.payment.benchmarks.validator;
+
+import com.openfinance.payment.common.validator.CNPJValidator;
+import com.openfinance.payment.common.validator.CPFValidator;
+import com.openfinance.payment.common.validator.PixKeyValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of the document and PIX key validators run on every payment request, next to
+ * the regex-based implementations they replaced. Run with {@code -prof gc} for bytes/op:
+ *
+ * java -jar benchmarks/target/benchmarks.jar ValidatorBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidatorBenchmark {
+
+    @Param({"plain", "formatted"})
+    private String documentFormat;
+
+    private String cpf;
+    private String cnpj;
+    private byte[] cpfBytes;
+    private String email;
+    private String phone;
+    private String randomKey;
+
+    @Setup
+    public void setUp() {
+        boolean formatted = "formatted".equals(documentFormat);
+        cpf = formatted ? "123.456.789-09" : "12345678909";
+        cnpj = formatted ? "11.222.333/0001-81" : "11222333000181";
+        cpfBytes = cpf.getBytes(StandardCharsets.US_ASCII);
+        email = "test.user@domain.com.br";
+        phone = formatted ? "+55 (11) 98765-4321" : "+5511987654321";
+        randomKey = "123e4567-e89b-12d3-a456-426614174000";
+    }
+
+    @Benchmark
+    public boolean cpf() {
+        return CPFValidator.isValid(cpf);
+    }
+
+    @Benchmark
+    public boolean cpfBytes() {
+        return CPFValidator.isValid(cpfBytes, 0, cpfBytes.length);
+    }
+
+    @Benchmark
+    public boolean cpfLegacy() {
+        return LegacyValidators.isValidCpf(cpf);
+    }
+
+    @Benchmark
+    public boolean cnpj() {
+        return CNPJValidator.isValid(cnpj);
+    }
+
+    @Benchmark
+    public boolean cnpjLegacy() {
+        return LegacyValidators.isValidCnpj(cnpj);
+    }
+
+    @Benchmark
+    public boolean pixEmail() {
+        return PixKeyValidator.isValid(email, "EMAIL");
+    }
+
+    @Benchmark
+    public boolean pixEmailLegacy() {
+        return LegacyValidators.isValidPixKey(email, "EMAIL");
+    }
+
+    @Benchmark
+    public boolean pixPhone() {
+        return PixKeyValidator.isValid(phone, "PHONE");
+    }
+
+    @Benchmark
+    public boolean pixPhoneLegacy() {
+        return LegacyValidators.isValidPixKey(phone, "PHONE");
+    }
+
+    @Benchmark
+    public boolean pixRandom() {
+        return PixKeyValidator.isValid(randomKey, "RANDOM");
+    }
+
+    @Benchmark
+    public boolean pixRandomLegacy() {
+        return LegacyValidators.isValidPixKey(randomKey, "RANDOM");
+    }
+}
@@ -0,0 +1,299 @@
+package com.openfinance.payment.common.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openfinance.payment.common.entity.AuditLog;
+import com.openfinance.payment.common.util.BoundedRingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Buffers audit events in a lock-free ring buffer once their transaction commits and
+ * group-commits them from a single writer thread with multi-row INSERTs.
+ *
+ * When the buffer is full producers wait up to {@code audit.async.offer-timeout} for room,
+ * then write the event themselves in a transaction of their own, so events are slowed down
+ * rather than dropped.
+ * On shutdown the buffer is drained before the context closes.
+ */
+@Component
+@ConditionalOnProperty(prefix = "audit", name = "mode", havingValue = "async")
+@Slf4j
+public class AsyncAuditWriter implements AuditWriter {
+
+    /**
+     * Must match the INCREMENT of audit_log_id_seq and the allocationSize on {@link AuditLog}
+     */
+    private static final int ID_BLOCK_SIZE = 50;
+    private static final int MAX_FLUSH_ATTEMPTS = 5;
+    private static final long FLUSH_RETRY_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long FULL_BUFFER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO audit_log (id, payment_id, event_type, old_status, new_status, metadata, created_at) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?::jsonb, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate callerWriteTransaction;
+    private final ObjectMapper objectMapper;
+    private final BoundedRingBuffer<AuditLog> buffer;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long offerTimeoutNanos;
+    private final Duration shutdownTimeout;
+    private final Thread writerThread;
+    private final Timer flushTimer;
+    private final DistributionSummary flushSizeSummary;
+    private final Counter backpressureCounter;
+    private final Counter flushFailuresCounter;
+    private final Counter droppedCounter;
+    private final ReentrantLock idLock = new ReentrantLock();
+
+    private volatile boolean running = true;
+    private long nextId;
+    private long lastId = -1;
+
+    public AsyncAuditWriter(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${audit.async.buffer-capacity:65536}") int bufferCapacity,
+                            @Value("${audit.async.batch-size:500}") int batchSize,
+                            @Value("${audit.async.linger:5ms}") Duration linger,
+                            @Value("${audit.async.offer-timeout:100ms}") Duration offerTimeout,
+                            @Value("${audit.async.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Called from afterCommit, where the committed transaction's connection is still bound
+        // and would never commit this write; suspend it and write in a transaction of our own
+        this.callerWriteTransaction = new TransactionTemplate(transactionManager);
+        this.callerWriteTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.objectMapper = objectMapper;
+        this.buffer = new BoundedRingBuffer<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.lingerNanos = linger.toNanos();
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+        this.writerThread = Thread.ofPlatform().name("audit-writer").daemon(true).unstarted(this::runWriter);
+
+        Gauge.builder("audit.buffer.depth", buffer, BoundedRingBuffer::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+
+        this.flushTimer = Timer.builder("audit.flush.duration")
+                .description("Time to write one group of audit events")
+                .register(meterRegistry);
+
+        this.flushSizeSummary = DistributionSummary.builder("audit.flush.size")
+                .description("Audit events written per group commit")
+                .register(meterRegistry);
+
+        this.backpressureCounter = Counter.builder("audit.backpressure")
+                .description("Audit events that found the buffer full")
+                .register(meterRegistry);
+
+        this.flushFailuresCounter = Counter.builder("audit.flush.failures")
+                .description("Failed audit group commits")
+                .register(meterRegistry);
+
+        this.droppedCounter = Counter.builder("audit.dropped")
+                .description("Audit events that could not be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        writerThread.start();
+        log.info("Async audit writer started: capacity={}, batchSize={}", buffer.capacity(), batchSize);
+    }
+
+    @Override
+    public void write(AuditLog auditLog) {
+        if (auditLog.getCreatedAt() == null) {
+            auditLog.setCreatedAt(LocalDateTime.now());
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Only record what actually committed
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(auditLog);
+                }
+            });
+        } else {
+            enqueue(auditLog);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            log.error("Audit writer did not drain within {}: {} events not written", shutdownTimeout, buffer.size());
+        } else {
+            log.info("Audit writer drained and stopped");
+        }
+    }
+
+    private void enqueue(AuditLog auditLog) {
+        if (running && buffer.offer(auditLog)) {
+            return;
+        }
+
+        backpressureCounter.increment();
+        long deadline = System.nanoTime() + offerTimeoutNanos;
+        while (running && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(FULL_BUFFER_PARK_NANOS);
+            if (buffer.offer(auditLog)) {
+                return;
+            }
+        }
+
+        // Still full (or shutting down): write on the caller's thread rather than lose the event.
+        // One attempt only; the caller is a request or worker thread that must not stall on retries
+        List<AuditLog> single = List.of(auditLog);
+        long started = System.nanoTime();
+        try {
+            callerWriteTransaction.executeWithoutResult(status -> insertRows(single));
+            flushTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            flushSizeSummary.record(1);
+        } catch (RuntimeException e) {
+            flushFailuresCounter.increment();
+            log.error("Audit write on caller thread failed: paymentId={}", auditLog.getPaymentId(), e);
+            drop(single);
+        }
+    }
+
+    private void runWriter() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            buffer.drainTo(batch::add, batchSize);
+            if (batch.isEmpty()) {
+                // Events keep arriving while we wait, which is what groups them
+                LockSupport.parkNanos(lingerNanos);
+                continue;
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<AuditLog> batch) {
+        for (int attempt = 1; attempt <= MAX_FLUSH_ATTEMPTS; attempt++) {
+            long started = System.nanoTime();
+            try {
+                insertRows(batch);
+                flushTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                flushSizeSummary.record(batch.size());
+                return;
+            } catch (RuntimeException e) {
+                flushFailuresCounter.increment();
+                log.error("Audit flush failed: size={}, attempt={}/{}", batch.size(), attempt, MAX_FLUSH_ATTEMPTS, e);
+                if (attempt < MAX_FLUSH_ATTEMPTS) {
+                    LockSupport.parkNanos(FLUSH_RETRY_BACKOFF_NANOS);
+                }
+            }
+        }
+
+        drop(batch);
+    }
+
+    private void drop(List<AuditLog> batch) {
+        droppedCounter.increment(batch.size());
+        for (AuditLog auditLog : batch) {
+            log.error("Audit event dropped: paymentId={}, eventType={}, oldStatus={}, newStatus={}, createdAt={}",
+                    auditLog.getPaymentId(), auditLog.getEventType(), auditLog.getOldStatus(),
+                    auditLog.getNewStatus(), auditLog.getCreatedAt());
+        }
+    }
+
+    private void insertRows(List<AuditLog> batch) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + batch.size() * (ROW_PLACEHOLDERS.length() + 1));
+        sql.append(INSERT_PREFIX);
+        Object[] args = new Object[batch.size() * 7];
+
+        int arg = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            AuditLog auditLog = batch.get(i);
+            if (auditLog.getId() == null) {
+                auditLog.setId(nextId());
+            }
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append(ROW_PLACEHOLDERS);
+
+            args[arg++] = auditLog.getId();
+            args[arg++] = auditLog.getPaymentId();
+            args[arg++] = auditLog.getEventType().name();
+            args[arg++] = auditLog.getOldStatus() != null ? auditLog.getOldStatus().name() : null;
+            args[arg++] = auditLog.getNewStatus() != null ? auditLog.getNewStatus().name() : null;
+            args[arg++] = toJson(auditLog);
+            args[arg++] = auditLog.getCreatedAt();
+        }
+
+        jdbcTemplate.update(sql.toString(), args);
+    }
+
+    /**
+     * Hands out ids the same way Hibernate's pooled optimizer does, so rows written here
+     * never collide with rows Hibernate inserts from the same sequence. Guarded by a lock rather
+     * than a monitor, so a virtual thread fetching the next block does not pin its carrier.
+     */
+    private long nextId() {
+        idLock.lock();
+        try {
+            if (nextId > lastId) {
+                Long hi = jdbcTemplate.queryForObject("SELECT nextval('audit_log_id_seq')", Long.class);
+                if (hi == null) {
+                    throw new IllegalStateException("audit_log_id_seq returned no value");
+                }
+                lastId = hi;
+                nextId = hi < ID_BLOCK_SIZE ? hi : hi - ID_BLOCK_SIZE + 1;
+            }
+            return nextId++;
+        } finally {
+            idLock.unlock();
+        }
+    }
+
+    private String toJson(AuditLog auditLog) {
+        if (auditLog.getMetadata() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(auditLog.getMetadata());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Audit metadata is not serializable: paymentId=" + auditLog.getPaymentId(), e);
+        }
+    }
+}
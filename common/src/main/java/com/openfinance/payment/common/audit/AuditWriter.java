@@ -0,0 +1,17 @@
+package com.openfinance.payment.common.audit;
+
+import com.openfinance.payment.common.entity.AuditLog;
+
+/**
+ * Destination for audit events. Selected with {@code audit.mode}:
+ * <ul>
+ *   <li>{@code transactional} (default) - the row is written in the caller's transaction,
+ *       so it commits or rolls back with the state change it describes</li>
+ *   <li>{@code async} - the row is buffered after commit and group-committed by a background
+ *       writer; faster, but events still buffered are lost if the process dies</li>
+ * </ul>
+ */
+public interface AuditWriter {
+
+    void write(AuditLog auditLog);
+}
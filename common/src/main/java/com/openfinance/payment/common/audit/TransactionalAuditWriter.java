@@ -0,0 +1,27 @@
+package com.openfinance.payment.common.audit;
+
+import com.openfinance.payment.common.entity.AuditLog;
+import com.openfinance.payment.common.repository.AuditLogRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes audit rows in the current transaction, like a transactional outbox:
+ * the event is durable exactly when the change it records is.
+ * Hibernate batches the inserts at flush.
+ */
+@Component
+@ConditionalOnProperty(prefix = "audit", name = "mode", havingValue = "transactional", matchIfMissing = true)
+public class TransactionalAuditWriter implements AuditWriter {
+
+    private final AuditLogRepository auditLogRepository;
+
+    public TransactionalAuditWriter(AuditLogRepository auditLogRepository) {
+        this.auditLogRepository = auditLogRepository;
+    }
+
+    @Override
+    public void write(AuditLog auditLog) {
+        auditLogRepository.save(auditLog);
+    }
+}
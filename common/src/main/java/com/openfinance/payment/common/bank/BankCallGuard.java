@@ -0,0 +1,142 @@
+package com.openfinance.payment.common.bank;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Runs asynchronous bank calls behind a circuit breaker and a bulkhead, without holding a thread:
+ * <ul>
+ *   <li>while the circuit is open, calls fail at once with {@link CallNotPermittedException}</li>
+ *   <li>calls over the bulkhead's limit fail at once with {@link BulkheadFullException}</li>
+ *   <li>calls that fail, time out, or answer with a response the caller marks as "bank unavailable"
+ *       count as failures towards opening the circuit; declined payments do not</li>
+ * </ul>
+ * Callers that can hold work back rather than fail it should check {@link #isCallPermitted()} first,
+ * and size that work by {@link #permittedCalls()} while the circuit is half-open.
+ */
+public final class BankCallGuard {
+
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Duration timeout;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public BankCallGuard(CircuitBreaker circuitBreaker, Bulkhead bulkhead, Duration timeout) {
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.timeout = timeout;
+    }
+
+    /**
+     * @param unavailable whether a response means the bank is unavailable rather than answering
+     * @return future completed with the call's result, or failed at once if the call was not let through
+     */
+    public <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> call, Predicate<T> unavailable) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return CompletableFuture.failedFuture(CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+        }
+        if (!bulkhead.tryAcquirePermission()) {
+            circuitBreaker.releasePermission();
+            return CompletableFuture.failedFuture(BulkheadFullException.createBulkheadFullException(bulkhead));
+        }
+
+        inFlight.incrementAndGet();
+        long started = circuitBreaker.getCurrentTimestamp();
+        CompletableFuture<T> response;
+        try {
+            response = call.get();
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+
+        return response
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((value, error) -> {
+                    inFlight.decrementAndGet();
+                    bulkhead.onComplete();
+                    long duration = circuitBreaker.getCurrentTimestamp() - started;
+                    if (error != null) {
+                        circuitBreaker.onError(duration, circuitBreaker.getTimestampUnit(), unwrap(error));
+                    } else if (value != null && unavailable.test(value)) {
+                        circuitBreaker.onError(duration, circuitBreaker.getTimestampUnit(),
+                                new BankUnavailableException(circuitBreaker.getName()));
+                    } else {
+                        circuitBreaker.onSuccess(duration, circuitBreaker.getTimestampUnit());
+                    }
+                });
+    }
+
+    /**
+     * Whether the circuit currently lets calls through; false once a half-open circuit has handed
+     * out all its trial calls
+     */
+    public boolean isCallPermitted() {
+        return permittedCalls() > 0;
+    }
+
+    /**
+     * How many more calls the circuit lets through right now: unbounded while closed, none while
+     * open, and the trial calls not yet started or completed while half-open. A circuit that does
+     * not move to half-open on its own only does so when a call is attempted, so while open it
+     * reports its half-open trial calls.
+     */
+    public int permittedCalls() {
+        int halfOpenCalls = circuitBreaker.getCircuitBreakerConfig().getPermittedNumberOfCallsInHalfOpenState();
+        return switch (circuitBreaker.getState()) {
+            case OPEN -> circuitBreaker.getCircuitBreakerConfig().isAutomaticTransitionFromOpenToHalfOpenEnabled()
+                    ? 0 : halfOpenCalls;
+            case FORCED_OPEN -> 0;
+            case HALF_OPEN -> Math.max(0,
+                    halfOpenCalls - circuitBreaker.getMetrics().getNumberOfBufferedCalls() - inFlight.get());
+            default -> Integer.MAX_VALUE;
+        };
+    }
+
+    /**
+     * Runs the listener whenever the circuit moves from open to a state that lets calls through
+     */
+    public void onCallsPermitted(Runnable listener) {
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            CircuitBreaker.State to = event.getStateTransition().getToState();
+            if (to != CircuitBreaker.State.OPEN && to != CircuitBreaker.State.FORCED_OPEN) {
+                listener.run();
+            }
+        });
+    }
+
+    public CircuitBreaker circuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Whether the error means the call never reached the bank because the circuit was open or the bulkhead full
+     */
+    public static boolean isRejection(Throwable error) {
+        Throwable cause = unwrap(error);
+        return cause instanceof CallNotPermittedException || cause instanceof BulkheadFullException;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Recorded against the circuit for responses that report the bank unavailable
+     */
+    static final class BankUnavailableException extends RuntimeException {
+
+        BankUnavailableException(String name) {
+            super("Bank unavailable: " + name, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.openfinance.payment.common.bank;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simulates a bank endpoint without blocking threads: each call samples a latency and
+ * an outcome, and completes its future from a shared timer when the latency has elapsed.
+ * A single timer thread can keep tens of thousands of calls in flight.
+ *
+ * Settings can be swapped at runtime to switch latency profiles under load. With
+ * {@link BankSimulatorSettings#isDeterministic()} every run sees the same outcomes in the
+ * same order.
+ */
+public class BankSimulator {
+
+    private final ScheduledExecutorService timer;
+    private final AtomicLong calls = new AtomicLong();
+    private volatile BankSimulatorSettings settings;
+
+    public BankSimulator(BankSimulatorSettings settings, ScheduledExecutorService timer) {
+        this.settings = settings;
+        this.timer = timer;
+    }
+
+    public BankSimulatorSettings getSettings() {
+        return settings;
+    }
+
+    public void setSettings(BankSimulatorSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Starts a simulated call; the future completes after the sampled latency
+     */
+    public CompletableFuture<Outcome> call() {
+        BankSimulatorSettings current = settings;
+        Duration latency = sampleLatency(current);
+        Outcome outcome = outcome(current, latency);
+
+        CompletableFuture<Outcome> future = new CompletableFuture<>();
+        if (latency.isZero()) {
+            future.complete(outcome);
+        } else {
+            timer.schedule(() -> future.complete(outcome), latency.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        return future;
+    }
+
+    /**
+     * Starts a simulated batch call: one sampled per-call latency plus the per-item latency
+     * for each item, with an independent outcome per item
+     */
+    public CompletableFuture<List<Outcome>> callBatch(int size) {
+        BankSimulatorSettings current = settings;
+        Duration latency = sampleLatency(current).plus(current.getPerItemLatency().multipliedBy(size));
+        List<Outcome> outcomes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            outcomes.add(outcome(current, latency));
+        }
+
+        CompletableFuture<List<Outcome>> future = new CompletableFuture<>();
+        if (latency.isZero()) {
+            future.complete(outcomes);
+        } else {
+            timer.schedule(() -> future.complete(outcomes), latency.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        return future;
+    }
+
+    private Outcome outcome(BankSimulatorSettings settings, Duration latency) {
+        return settings.isDeterministic()
+                ? deterministicOutcome(settings, latency, calls.getAndIncrement())
+                : sampleOutcome(settings, latency);
+    }
+
+    static Duration sampleLatency(BankSimulatorSettings settings) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long minNanos = settings.getMinLatency().toNanos();
+        long maxNanos = Math.max(minNanos, settings.getMaxLatency().toNanos());
+
+        if (settings.isDeterministic()) {
+            long nanos = switch (settings.getDistribution()) {
+                case FIXED -> minNanos;
+                case UNIFORM -> minNanos + (maxNanos - minNanos) / 2;
+                case LOG_NORMAL -> Math.min(maxNanos, Math.max(minNanos, settings.getMedianLatency().toNanos()));
+            };
+            return Duration.ofNanos(nanos);
+        }
+
+        long nanos = switch (settings.getDistribution()) {
+            case FIXED -> minNanos;
+            case UNIFORM -> maxNanos > minNanos ? random.nextLong(minNanos, maxNanos + 1) : minNanos;
+            case LOG_NORMAL -> {
+                double median = settings.getMedianLatency().toNanos();
+                double sample = median * Math.exp(settings.getSigma() * random.nextGaussian());
+                yield Math.min(maxNanos, Math.max(minNanos, (long) sample));
+            }
+        };
+        return Duration.ofNanos(nanos);
+    }
+
+    static Outcome sampleOutcome(BankSimulatorSettings settings, Duration latency) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < settings.getSuccessRate()) {
+            return new Outcome(true, null, latency);
+        }
+        List<BankSimulatorSettings.ErrorWeight> errors = settings.getErrors();
+        int totalWeight = totalWeight(errors);
+        return new Outcome(false, pickError(errors, totalWeight > 0 ? random.nextInt(totalWeight) : 0), latency);
+    }
+
+    /**
+     * Call {@code n} fails when the running failure count ⌊(n + 1)(1 - successRate)⌋ steps up,
+     * which spreads failures evenly. The k-th failure takes position k of the weighted errors,
+     * cycling, so every run of total-weight failures has exactly the configured mix.
+     */
+    static Outcome deterministicOutcome(BankSimulatorSettings settings, Duration latency, long n) {
+        double failureRate = 1 - settings.getSuccessRate();
+        long failuresBefore = (long) Math.floor(n * failureRate);
+        long failuresAfter = (long) Math.floor((n + 1) * failureRate);
+        if (failuresAfter == failuresBefore) {
+            return new Outcome(true, null, latency);
+        }
+        List<BankSimulatorSettings.ErrorWeight> errors = settings.getErrors();
+        int totalWeight = totalWeight(errors);
+        return new Outcome(false, pickError(errors, totalWeight > 0 ? failuresBefore % totalWeight : 0), latency);
+    }
+
+    private static int totalWeight(List<BankSimulatorSettings.ErrorWeight> errors) {
+        int totalWeight = 0;
+        for (BankSimulatorSettings.ErrorWeight error : errors) {
+            totalWeight += error.getWeight();
+        }
+        return totalWeight;
+    }
+
+    /**
+     * @param pick position in [0, total weight); each error covers as many positions as its weight
+     */
+    private static String pickError(List<BankSimulatorSettings.ErrorWeight> errors, long pick) {
+        if (totalWeight(errors) <= 0) {
+            return "Bank system temporarily unavailable";
+        }
+        for (BankSimulatorSettings.ErrorWeight error : errors) {
+            pick -= error.getWeight();
+            if (pick < 0) {
+                return error.getMessage();
+            }
+        }
+        return errors.get(errors.size() - 1).getMessage();
+    }
+
+    /**
+     * Result of a simulated call
+     */
+    public record Outcome(boolean success, String errorMessage, Duration latency) {
+    }
+}
@@ -0,0 +1,98 @@
+package com.openfinance.payment.common.bank;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Latency distribution and outcome mix of a simulated bank endpoint
+ */
+@Data
+@NoArgsConstructor
+public class BankSimulatorSettings {
+
+    private LatencyDistribution distribution = LatencyDistribution.UNIFORM;
+
+    /**
+     * Lower bound for UNIFORM, the only value for FIXED
+     */
+    private Duration minLatency = Duration.ofMillis(500);
+
+    /**
+     * Upper bound for UNIFORM, cap for LOG_NORMAL
+     */
+    private Duration maxLatency = Duration.ofMillis(1500);
+
+    /**
+     * Median for LOG_NORMAL
+     */
+    private Duration medianLatency = Duration.ofMillis(800);
+
+    /**
+     * Shape (sigma) of the LOG_NORMAL distribution; larger means a heavier tail
+     */
+    private double sigma = 0.5;
+
+    /**
+     * Extra latency per item of a batch call, on top of the sampled per-call latency
+     */
+    private Duration perItemLatency = Duration.ZERO;
+
+    /**
+     * Fraction of calls that succeed
+     */
+    private double successRate = 0.85;
+
+    /**
+     * Replace random sampling with a repeatable sequence: failures are spread evenly over the
+     * calls at exactly {@code 1 - successRate}, errors cycle in order by weight, and UNIFORM and
+     * LOG_NORMAL latencies become their midpoint and median. For load tests that need the same
+     * work on every run.
+     */
+    private boolean deterministic = false;
+
+    /**
+     * Weighted error messages returned by failed calls
+     */
+    private List<ErrorWeight> errors = new ArrayList<>();
+
+    public enum LatencyDistribution {
+        FIXED,
+        UNIFORM,
+        LOG_NORMAL
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ErrorWeight {
+        private String message;
+        private int weight = 1;
+    }
+
+    public static BankSimulatorSettings uniform(Duration min, Duration max, double successRate, String... errors) {
+        BankSimulatorSettings settings = new BankSimulatorSettings();
+        settings.setDistribution(LatencyDistribution.UNIFORM);
+        settings.setMinLatency(min);
+        settings.setMaxLatency(max);
+        settings.setSuccessRate(successRate);
+        for (String error : errors) {
+            settings.getErrors().add(new ErrorWeight(error, 1));
+        }
+        return settings;
+    }
+
+    /**
+     * Fast, repeatable bank for load tests
+     */
+    public static BankSimulatorSettings deterministic(Duration latency, double successRate, String... errors) {
+        BankSimulatorSettings settings = uniform(latency, latency, successRate, errors);
+        settings.setDistribution(LatencyDistribution.FIXED);
+        settings.setDeterministic(true);
+        return settings;
+    }
+}
@@ -0,0 +1,32 @@
+package com.openfinance.payment.common.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Several payments submitted at once. Items are validated one by one, so an invalid
+ * item is reported in the response instead of rejecting the whole batch.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPaymentRequest {
+
+    @NotEmpty(message = "At least one payment is required")
+    private List<Item> items;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private String idempotencyKey;
+        private PaymentRequest payment;
+    }
+}
@@ -0,0 +1,46 @@
+package com.openfinance.payment.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPaymentResponse {
+
+    private int total;
+    private int created;
+    private int duplicates;
+    private int failed;
+    private List<ItemResult> results;
+
+    @Data
+    @Builder(toBuilder = true)
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class ItemResult {
+        private int index;
+        private String idempotencyKey;
+        private Outcome outcome;
+        private PaymentResponse payment;
+        private String existingPaymentId;
+        private String error;
+        private String message;
+        private Map<String, String> validationErrors;
+    }
+
+    public enum Outcome {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        FAILED
+    }
+}
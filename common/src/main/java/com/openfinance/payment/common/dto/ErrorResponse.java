@@ -22,6 +22,11 @@ public class ErrorResponse {
     private Map<String, String> validationErrors;
     private String existingPaymentId;
 
+    /**
+     * Response of the request that first used the idempotency key
+     */
+    private PaymentResponse originalResponse;
+
     public static ErrorResponse of(String error, String message) {
         return ErrorResponse.builder()
                 .error(error)
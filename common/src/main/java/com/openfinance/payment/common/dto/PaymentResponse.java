@@ -1,6 +1,7 @@
 package com.openfinance.payment.common.dto;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.openfinance.payment.common.entity.Payment;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -28,6 +29,23 @@ public class PaymentResponse {
     private LocalDateTime estimatedCompletion;
     private List<TimelineEvent> timeline;
 
+    /**
+     * Summary view of a payment, without the timeline
+     */
+    public static PaymentResponse from(Payment payment) {
+        return PaymentResponse.builder()
+                .paymentId(payment.getPaymentId())
+                .status(payment.getStatus().name())
+                .amount(payment.getAmount())
+                .currency(payment.getCurrency())
+                .confirmationCode(payment.getConfirmationCode())
+                .failureReason(payment.getFailureReason())
+                .createdAt(payment.getCreatedAt())
+                .processedAt(payment.getProcessedAt())
+                .estimatedCompletion(payment.getCreatedAt().plusSeconds(30))
+                .build();
+    }
+
     @Data
     @Builder
     @NoArgsConstructor
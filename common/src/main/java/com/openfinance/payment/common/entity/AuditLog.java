@@ -14,7 +14,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "audit_log", indexes = {
-    @Index(name = "idx_audit_payment_id", columnList = "payment_id"),
+    @Index(name = "idx_audit_payment_timeline", columnList = "payment_id, created_at"),
     @Index(name = "idx_audit_created_at", columnList = "created_at")
 })
 @Data
@@ -23,8 +23,10 @@ import java.util.UUID;
 @AllArgsConstructor
 public class AuditLog {
 
+    // Pooled sequence so inserts can be JDBC-batched; allocationSize must match the sequence INCREMENT
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_log_id_seq")
+    @SequenceGenerator(name = "audit_log_id_seq", sequenceName = "audit_log_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "payment_id", nullable = false)
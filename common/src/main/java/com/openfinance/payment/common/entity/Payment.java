@@ -12,8 +12,8 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "payments", indexes = {
-    @Index(name = "idx_status", columnList = "status"),
-    @Index(name = "idx_created_at", columnList = "created_at"),
+    @Index(name = "idx_created_at_id", columnList = "created_at DESC, id DESC"),
+    @Index(name = "idx_status_created_at_id", columnList = "status, created_at DESC, id DESC"),
     @Index(name = "idx_payment_id", columnList = "payment_id", unique = true),
     @Index(name = "idx_idempotency_key", columnList = "idempotency_key", unique = true)
 })
@@ -24,7 +24,7 @@ import java.util.UUID;
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
     @Column(name = "payment_id", unique = true, nullable = false, length = 50)
@@ -77,6 +77,10 @@ public class Payment {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -20,8 +20,10 @@ import java.util.UUID;
 @AllArgsConstructor
 public class PaymentQueue {
 
+    // Pooled sequence so inserts can be JDBC-batched; allocationSize must match the sequence INCREMENT
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_queue_id_seq")
+    @SequenceGenerator(name = "payment_queue_id_seq", sequenceName = "payment_queue_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "payment_id", nullable = false)
@@ -41,6 +43,12 @@ public class PaymentQueue {
     @Column(name = "last_error", length = 1000)
     private String lastError;
 
+    @Column(name = "lease_owner", length = 100)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
@@ -60,6 +68,20 @@ public class PaymentQueue {
         this.nextRetryAt = LocalDateTime.now().plusSeconds((long) Math.pow(2, retryCount));
     }
 
+    /**
+     * Leases this item to a processing node until the given time.
+     * Expired leases can be claimed again by any node.
+     */
+    public void lease(String owner, LocalDateTime expiresAt) {
+        this.leaseOwner = owner;
+        this.leaseExpiresAt = expiresAt;
+    }
+
+    public void releaseLease() {
+        this.leaseOwner = null;
+        this.leaseExpiresAt = null;
+    }
+
     public boolean canRetry() {
         return retryCount < maxRetries;
     }
@@ -0,0 +1,59 @@
+package com.openfinance.payment.common.metrics;
+
+import com.openfinance.payment.common.entity.Payment;
+import com.openfinance.payment.common.entity.PaymentStatus;
+import com.openfinance.payment.common.entity.PaymentType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Time from creation until a payment reaches a terminal status, per payment type and outcome.
+ * Recorded by whichever service settles the payment (processing or reconciliation).
+ */
+@Component
+public class PaymentLifecycleMetrics {
+
+    private static final PaymentStatus[] TERMINAL = {PaymentStatus.SUCCESS, PaymentStatus.FAILED, PaymentStatus.CANCELLED};
+
+    /**
+     * Retries and reconciliation can take a payment well past the default 30 s histogram range
+     */
+    private static final Duration MAX_EXPECTED = Duration.ofHours(1);
+
+    private final Map<PaymentType, Map<PaymentStatus, Timer>> timers = new EnumMap<>(PaymentType.class);
+
+    public PaymentLifecycleMetrics(MeterRegistry meterRegistry) {
+        for (PaymentType type : PaymentType.values()) {
+            Map<PaymentStatus, Timer> byOutcome = new EnumMap<>(PaymentStatus.class);
+            for (PaymentStatus outcome : TERMINAL) {
+                byOutcome.put(outcome, Timer.builder("payments.lifecycle.duration")
+                        .description("Time from payment creation to a terminal status")
+                        .tag("type", type.name())
+                        .tag("outcome", outcome.name())
+                        .publishPercentileHistogram()
+                        .maximumExpectedValue(MAX_EXPECTED)
+                        .register(meterRegistry));
+            }
+            timers.put(type, byOutcome);
+        }
+    }
+
+    /**
+     * Records the payment's time to its current status; ignored unless that status is terminal
+     */
+    public void recordSettled(Payment payment) {
+        Map<PaymentStatus, Timer> byOutcome = payment.getType() != null ? timers.get(payment.getType()) : null;
+        Timer timer = byOutcome != null ? byOutcome.get(payment.getStatus()) : null;
+        if (timer == null || payment.getCreatedAt() == null) {
+            return;
+        }
+        Duration elapsed = Duration.between(payment.getCreatedAt(), LocalDateTime.now());
+        timer.record(elapsed.isNegative() ? Duration.ZERO : elapsed);
+    }
+}
@@ -0,0 +1,48 @@
+package com.openfinance.payment.common.notification;
+
+import com.openfinance.payment.common.entity.PaymentStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends Postgres NOTIFY messages on the current connection.
+ * Inside a transaction Postgres holds the notification until commit and drops it
+ * on rollback, so listeners never see rows that are not yet visible.
+ */
+@Component
+public class PostgresNotifier {
+
+    /**
+     * Channel notified with the payment UUID whenever a payment is enqueued
+     */
+    public static final String PAYMENT_QUEUE_CHANNEL = "payment_queue";
+
+    /**
+     * Channel notified with {@code <paymentId>:<status>} whenever a payment changes status
+     */
+    public static final String PAYMENT_STATUS_CHANNEL = "payment_status";
+
+    private static final RowCallbackHandler IGNORE_RESULT = rs -> { };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public PostgresNotifier(JdbcTemplate jdbcTemplate,
+                            @Value("${payment.notifications.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    public void notify(String channel, String payload) {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", IGNORE_RESULT, channel, payload);
+    }
+
+    public void notifyStatusChange(String paymentId, PaymentStatus status) {
+        notify(PAYMENT_STATUS_CHANNEL, paymentId + ":" + status.name());
+    }
+}
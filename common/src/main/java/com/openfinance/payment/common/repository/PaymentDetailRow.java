@@ -0,0 +1,25 @@
+package com.openfinance.payment.common.repository;
+
+import com.openfinance.payment.common.entity.AuditLog;
+import com.openfinance.payment.common.entity.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One row of the payment detail query: the payment's columns repeated for each timeline
+ * event, or once with null event columns when it has none
+ */
+public record PaymentDetailRow(
+        String paymentId,
+        PaymentStatus status,
+        BigDecimal amount,
+        String currency,
+        String confirmationCode,
+        String failureReason,
+        LocalDateTime createdAt,
+        LocalDateTime processedAt,
+        PaymentStatus eventStatus,
+        AuditLog.EventType eventType,
+        LocalDateTime eventAt) {
+}
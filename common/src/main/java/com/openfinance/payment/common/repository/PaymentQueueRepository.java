@@ -1,11 +1,15 @@
 package com.openfinance.payment.common.repository;
 
 import com.openfinance.payment.common.entity.PaymentQueue;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,8 +19,35 @@ public interface PaymentQueueRepository extends JpaRepository<PaymentQueue, Long
 
     Optional<PaymentQueue> findByPaymentId(UUID paymentId);
 
-    @Query("SELECT pq FROM PaymentQueue pq WHERE pq.nextRetryAt <= :now AND pq.retryCount < pq.maxRetries ORDER BY pq.nextRetryAt ASC")
-    List<PaymentQueue> findReadyForProcessing(LocalDateTime now);
+    /**
+     * Locks a bounded batch of ready, unleased (or lease-expired) queue items.
+     * Rows locked by another transaction are skipped, so concurrent nodes never
+     * claim the same item. Must be called inside a transaction.
+     */
+    @Query(value = """
+            SELECT * FROM payment_queue
+            WHERE next_retry_at <= :now
+              AND retry_count < max_retries
+              AND (lease_expires_at IS NULL OR lease_expires_at <= :now)
+            ORDER BY next_retry_at ASC
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<PaymentQueue> lockReadyForProcessing(LocalDateTime now, int limit);
+
+    /**
+     * Locks the items still leased to {@code owner}. An expired lease no longer counts, even if
+     * no other node has reclaimed the item yet: it may be claimed at any moment.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT pq FROM PaymentQueue pq WHERE pq.paymentId IN :paymentIds AND pq.leaseOwner = :owner " +
+            "AND pq.leaseExpiresAt > :now")
+    List<PaymentQueue> lockLeasedBy(Collection<UUID> paymentIds, String owner, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE PaymentQueue pq SET pq.leaseOwner = NULL, pq.leaseExpiresAt = NULL " +
+            "WHERE pq.paymentId IN :paymentIds AND pq.leaseOwner = :owner")
+    int releaseLeases(Collection<UUID> paymentIds, String owner);
 
     @Query("SELECT COUNT(pq) FROM PaymentQueue pq WHERE pq.retryCount < pq.maxRetries")
     long countPendingItems();
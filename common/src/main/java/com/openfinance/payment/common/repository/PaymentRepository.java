@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -20,10 +21,56 @@ public interface PaymentRepository extends JpaRepository<Payment, UUID> {
 
     Optional<Payment> findByIdempotencyKey(UUID idempotencyKey);
 
+    /**
+     * Payment detail and its status timeline in one round trip, reading only the columns
+     * the response needs (no audit metadata)
+     */
+    @Query("""
+            SELECT new com.openfinance.payment.common.repository.PaymentDetailRow(
+                p.paymentId, p.status, p.amount, p.currency, p.confirmationCode, p.failureReason,
+                p.createdAt, p.processedAt, a.newStatus, a.eventType, a.createdAt)
+            FROM Payment p
+            LEFT JOIN AuditLog a ON a.paymentId = p.id AND a.newStatus IS NOT NULL
+            WHERE p.paymentId = :paymentId
+            ORDER BY a.createdAt, a.id
+            """)
+    List<PaymentDetailRow> findDetailRows(String paymentId);
+
+    List<Payment> findByIdempotencyKeyIn(Collection<UUID> idempotencyKeys);
+
+    @Query("SELECT new com.openfinance.payment.common.repository.PaymentStatusView(p.paymentId, p.status) "
+            + "FROM Payment p WHERE p.paymentId IN :paymentIds")
+    List<PaymentStatusView> findStatusesByPaymentIdIn(Collection<String> paymentIds);
+
     Page<Payment> findAllByStatus(PaymentStatus status, Pageable pageable);
 
     Page<Payment> findAllByOrderByCreatedAtDesc(Pageable pageable);
 
+    // Keyset pagination on (created_at, id), newest first. The pageable only carries the limit;
+    // returning a List skips the count query. "created_at <= :createdAt" bounds the index range,
+    // the OR only filters rows that share the cursor's timestamp.
+
+    @Query("SELECT p FROM Payment p ORDER BY p.createdAt DESC, p.id DESC")
+    List<Payment> findFirstPage(Pageable pageable);
+
+    @Query("""
+            SELECT p FROM Payment p
+            WHERE p.createdAt <= :createdAt AND (p.createdAt < :createdAt OR p.id < :id)
+            ORDER BY p.createdAt DESC, p.id DESC
+            """)
+    List<Payment> findPageAfter(LocalDateTime createdAt, UUID id, Pageable pageable);
+
+    @Query("SELECT p FROM Payment p WHERE p.status = :status ORDER BY p.createdAt DESC, p.id DESC")
+    List<Payment> findFirstPageByStatus(PaymentStatus status, Pageable pageable);
+
+    @Query("""
+            SELECT p FROM Payment p
+            WHERE p.status = :status
+              AND p.createdAt <= :createdAt AND (p.createdAt < :createdAt OR p.id < :id)
+            ORDER BY p.createdAt DESC, p.id DESC
+            """)
+    List<Payment> findPageAfterByStatus(PaymentStatus status, LocalDateTime createdAt, UUID id, Pageable pageable);
+
     List<Payment> findByStatusAndUpdatedAtBefore(PaymentStatus status, LocalDateTime dateTime);
 
     @Query("SELECT COUNT(p) FROM Payment p WHERE p.status = :status")
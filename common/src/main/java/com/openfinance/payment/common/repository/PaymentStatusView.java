@@ -0,0 +1,6 @@
+package com.openfinance.payment.common.repository;
+
+import com.openfinance.payment.common.entity.PaymentStatus;
+
+public record PaymentStatusView(String paymentId, PaymentStatus status) {
+}
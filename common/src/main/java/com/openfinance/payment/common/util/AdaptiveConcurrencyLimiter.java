@@ -0,0 +1,280 @@
+package com.openfinance.payment.common.util;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of calls in flight to a downstream service and adapts the cap to how the
+ * service responds, in the style of a latency gradient limiter:
+ * <ul>
+ *   <li>the current latency is a moving average of recent round trips, compared with the
+ *       no-load latency, the fastest round trip seen since the last probe</li>
+ *   <li>while the current latency stays within {@code rttTolerance} times the no-load one the
+ *       limit grows by about sqrt(limit) per call, so a healthy service is probed for more</li>
+ *   <li>when calls start queueing in the service and latency rises above that, the limit
+ *       shrinks in proportion</li>
+ *   <li>a call that fails or reports overload cuts the limit by {@code backoffRatio}</li>
+ * </ul>
+ * A service that is always busy never shows its no-load latency, and one that has become
+ * slower shows a higher one. Every {@value #PROBE_INTERVAL} calls the limiter therefore drops
+ * to a small limit and re-measures the no-load latency from the calls started after that;
+ * the limit grows back within a few round trips.
+ *
+ * The limit only grows while at least half of it is in use, so an idle period does not
+ * inflate it. Calls over the limit wait in FIFO order without holding a thread and start
+ * as earlier calls complete. A waiting call fails with {@link WaitTimeoutException} once it
+ * has waited {@code maxWait}, and one whose future the caller completed (e.g. timed out or
+ * cancelled) is dropped; neither is ever started.
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    static final int PROBE_INTERVAL = 1000;
+
+    private static final double RTT_WEIGHT = 0.1;
+    private static final double SMOOTHING = 0.2;
+    private static final long NO_SAMPLE = -1;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double backoffRatio;
+    private final long maxWaitNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Waiter<?>> waiting = new ArrayDeque<>();
+
+    private double estimatedLimit;
+    private volatile int limit;
+    private volatile int inFlight;
+    private double rttNanos;
+    private long noLoadRttNanos = Long.MAX_VALUE;
+    private int callsSinceProbe;
+
+    /**
+     * Incremented by each probe; calls started before it do not count towards the no-load latency
+     */
+    private volatile long probe;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      double rttTolerance, double backoffRatio, Duration maxWait) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (rttTolerance < 1.0) {
+            throw new IllegalArgumentException("rttTolerance must be at least 1");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+        }
+        if (maxWait.isNegative() || maxWait.isZero()) {
+            throw new IllegalArgumentException("maxWait must be positive");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.backoffRatio = backoffRatio;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Starts the call now if the limit allows, otherwise once enough earlier calls have completed
+     * @param overloaded whether a successful result still means the service is overloaded
+     * @return future completed with the call's result
+     */
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> call, Predicate<T> overloaded) {
+        return submit(call, overloaded, error -> false);
+    }
+
+    /**
+     * Like {@link #submit(Supplier, Predicate)}, for calls that may be turned away before reaching
+     * the service, e.g. by a circuit breaker; those free their slot without affecting the limit
+     * @param rejected whether an error means the call never reached the service
+     */
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> call, Predicate<T> overloaded,
+                                           Predicate<Throwable> rejected) {
+        Waiter<T> waiter = new Waiter<>(call, overloaded, rejected, new CompletableFuture<>());
+
+        int inFlightAtStart = 0;
+        long probeAtStart = 0;
+        boolean startNow;
+        lock.lock();
+        try {
+            startNow = inFlight < limit;
+            if (startNow) {
+                inFlightAtStart = ++inFlight;
+                probeAtStart = probe;
+            } else {
+                waiting.add(waiter);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (startNow) {
+            start(waiter, inFlightAtStart, probeAtStart);
+        } else {
+            CompletableFuture.delayedExecutor(maxWaitNanos, TimeUnit.NANOSECONDS, Runnable::run)
+                    .execute(() -> expire(waiter));
+        }
+        return waiter.result();
+    }
+
+    private void expire(Waiter<?> waiter) {
+        boolean removed;
+        lock.lock();
+        try {
+            removed = waiting.remove(waiter);
+        } finally {
+            lock.unlock();
+        }
+        if (removed) {
+            waiter.result().completeExceptionally(new WaitTimeoutException(maxWaitNanos));
+        }
+    }
+
+    private <T> void start(Waiter<T> waiter, int inFlightAtStart, long probeAtStart) {
+        Supplier<CompletableFuture<T>> call = waiter.call();
+        Predicate<T> overloaded = waiter.overloaded();
+        CompletableFuture<T> result = waiter.result();
+        if (result.isDone()) {
+            // The caller gave up between the slot being granted and now
+            release(NO_SAMPLE, false, inFlightAtStart, probeAtStart);
+            return;
+        }
+        long started = System.nanoTime();
+        CompletableFuture<T> response;
+        try {
+            response = call.get();
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+
+        Predicate<Throwable> rejected = waiter.rejected();
+        response.whenComplete((value, error) -> {
+            if (error != null && rejected.test(error)) {
+                release(NO_SAMPLE, false, inFlightAtStart, probeAtStart);
+            } else {
+                boolean dropped = error != null || (value != null && overloaded.test(value));
+                release(System.nanoTime() - started, dropped, inFlightAtStart, probeAtStart);
+            }
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        });
+    }
+
+    private void release(long rttNanos, boolean dropped, int inFlightAtStart, long probeAtStart) {
+        List<Runnable> ready = null;
+        lock.lock();
+        try {
+            inFlight--;
+            if (rttNanos != NO_SAMPLE) {
+                update(rttNanos, dropped, inFlightAtStart, probeAtStart);
+            }
+            while (inFlight < limit && !waiting.isEmpty()) {
+                Waiter<?> waiter = waiting.poll();
+                if (waiter.result().isDone()) {
+                    // Given up on by the caller; sending it now would repeat the call
+                    continue;
+                }
+                if (ready == null) {
+                    ready = new ArrayList<>();
+                }
+                int inFlightAtGrant = ++inFlight;
+                long probeAtGrant = probe;
+                ready.add(() -> start(waiter, inFlightAtGrant, probeAtGrant));
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (ready != null) {
+            ready.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * Folds one completed call into the limit; callers hold the lock
+     */
+    void update(long sampleNanos, boolean dropped, int inFlightAtStart, long probeAtStart) {
+        if (++callsSinceProbe >= PROBE_INTERVAL) {
+            callsSinceProbe = 0;
+            probe++;
+            noLoadRttNanos = Long.MAX_VALUE;
+            setLimit(Math.min(estimatedLimit, Math.max(minLimit, Math.sqrt(estimatedLimit))));
+            return;
+        }
+
+        if (dropped) {
+            setLimit(Math.max(minLimit, estimatedLimit * backoffRatio));
+            return;
+        }
+
+        long sample = Math.max(sampleNanos, 1);
+        rttNanos = rttNanos == 0 ? sample : rttNanos + (sample - rttNanos) * RTT_WEIGHT;
+        if (probeAtStart == probe) {
+            noLoadRttNanos = Math.min(noLoadRttNanos, sample);
+        }
+
+        // Not enough demand to tell whether the service could take more, or no
+        // call has completed since the last probe
+        if (inFlightAtStart * 2 < estimatedLimit || noLoadRttNanos == Long.MAX_VALUE) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * noLoadRttNanos / rttNanos));
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        setLimit(Math.max(minLimit, Math.min(maxLimit, estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING)));
+    }
+
+    private void setLimit(double newLimit) {
+        estimatedLimit = newLimit;
+        limit = (int) newLimit;
+    }
+
+    long probe() {
+        return probe;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight;
+    }
+
+    public int waiting() {
+        lock.lock();
+        try {
+            return waiting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Waiter<T>(Supplier<CompletableFuture<T>> call, Predicate<T> overloaded,
+                             Predicate<Throwable> rejected, CompletableFuture<T> result) {
+    }
+
+    /**
+     * A call waited longer than {@code maxWait} for the limit and was never started
+     */
+    public static final class WaitTimeoutException extends TimeoutException {
+
+        WaitTimeoutException(long maxWaitNanos) {
+            super("Waited more than " + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + " ms for the concurrency limit");
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.openfinance.payment.common.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Groups individually submitted items into batches and hands each batch to a flush function.
+ * A batch is flushed when it reaches {@code maxSize} items or when its first item has waited
+ * {@code linger}, whichever comes first. The flush function must return one result per item,
+ * in submission order; each submitter gets its own result back.
+ */
+public final class MicroBatcher<T, R> {
+
+    private final int maxSize;
+    private final Duration linger;
+    private final Function<List<T>, CompletableFuture<List<R>>> flusher;
+    private final ScheduledExecutorService timer;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private List<Pending<T, R>> pending;
+    private ScheduledFuture<?> lingerTask;
+    private long generation;
+    private boolean closed;
+
+    public MicroBatcher(int maxSize, Duration linger, ScheduledExecutorService timer,
+                        Function<List<T>, CompletableFuture<List<R>>> flusher) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.linger = linger;
+        this.timer = timer;
+        this.flusher = flusher;
+        this.pending = new ArrayList<>(maxSize);
+    }
+
+    /**
+     * Adds an item to the current batch
+     * @return future completed with this item's result once its batch has been flushed
+     */
+    public CompletableFuture<R> submit(T item) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        List<Pending<T, R>> full = null;
+
+        lock.lock();
+        try {
+            if (closed) {
+                result.completeExceptionally(new IllegalStateException("Batcher is closed"));
+                return result;
+            }
+            pending.add(new Pending<>(item, result));
+            if (pending.size() >= maxSize) {
+                full = takePending();
+            } else if (pending.size() == 1) {
+                long scheduledGeneration = generation;
+                lingerTask = timer.schedule(() -> flushIfCurrent(scheduledGeneration),
+                        linger.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (full != null) {
+            dispatch(full);
+        }
+        return result;
+    }
+
+    /**
+     * Flushes whatever is pending and rejects further submissions
+     */
+    public void close() {
+        List<Pending<T, R>> remaining;
+        lock.lock();
+        try {
+            closed = true;
+            remaining = pending.isEmpty() ? null : takePending();
+        } finally {
+            lock.unlock();
+        }
+        if (remaining != null) {
+            dispatch(remaining);
+        }
+    }
+
+    public int pendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushIfCurrent(long scheduledGeneration) {
+        List<Pending<T, R>> batch = null;
+        lock.lock();
+        try {
+            // A size-triggered flush may have already taken the batch this timer was armed for
+            if (generation == scheduledGeneration && !pending.isEmpty()) {
+                batch = takePending();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (batch != null) {
+            dispatch(batch);
+        }
+    }
+
+    private List<Pending<T, R>> takePending() {
+        List<Pending<T, R>> batch = pending;
+        pending = new ArrayList<>(maxSize);
+        generation++;
+        if (lingerTask != null) {
+            lingerTask.cancel(false);
+            lingerTask = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(List<Pending<T, R>> batch) {
+        List<T> items = new ArrayList<>(batch.size());
+        for (Pending<T, R> entry : batch) {
+            items.add(entry.item());
+        }
+
+        CompletableFuture<List<R>> results;
+        try {
+            results = flusher.apply(items);
+        } catch (RuntimeException e) {
+            results = CompletableFuture.failedFuture(e);
+        }
+
+        results.whenComplete((values, error) -> {
+            if (error == null && values.size() != batch.size()) {
+                error = new IllegalStateException(
+                        "Expected " + batch.size() + " results but got " + values.size());
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                if (error != null) {
+                    batch.get(i).result().completeExceptionally(error);
+                } else {
+                    batch.get(i).result().complete(values.get(i));
+                }
+            }
+        });
+    }
+
+    private record Pending<T, R>(T item, CompletableFuture<R> result) {
+    }
+}
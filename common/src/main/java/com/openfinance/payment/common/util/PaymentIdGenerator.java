@@ -1,29 +1,117 @@
 package com.openfinance.payment.common.util;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Generates unique payment IDs in the format: PAY-YYYY-NNNNNN
- * Example: PAY-2025-000001
+ * Generates unique payment IDs in the format: PAY-YYYY-NNNNNNNNNNNNNNNNNNN
+ * Example: PAY-2025-0249609741926404097
+ *
+ * The digits are a Snowflake-style 63-bit number: milliseconds since 2024-01-01 (41 bits,
+ * good for 69 years), the node ID (10 bits) and a per-millisecond sequence (12 bits).
+ * Nodes with distinct IDs never collide, and a restarted node continues from the clock
+ * rather than from 1. The number is zero-padded to 19 digits so IDs sort by creation time.
+ *
+ * Generation is lock-free. When a node issues more than 4096 IDs in a millisecond, or its
+ * clock steps back, it keeps counting from the last ID it issued instead of waiting for the
+ * clock; the IDs stay unique and ordered and the clock catches up later.
  */
-public class PaymentIdGenerator {
+public final class PaymentIdGenerator {
 
-    private static final AtomicLong counter = new AtomicLong(1);
-    private static final DateTimeFormatter YEAR_FORMATTER = DateTimeFormatter.ofPattern("yyyy");
+    public static final int NODE_ID_BITS = 10;
+    public static final int MAX_NODE_ID = (1 << NODE_ID_BITS) - 1;
 
-    private PaymentIdGenerator() {
-        // Utility class
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private static final byte[] PREFIX = "PAY-".getBytes(StandardCharsets.US_ASCII);
+    private static final int DIGITS = 19;
+    private static final int LENGTH = PREFIX.length + 4 + 1 + DIGITS;
+
+    private final long nodeBits;
+    private final Clock clock;
+
+    /**
+     * Millisecond offset and sequence of the last ID issued, packed as {@code offset << 12 | sequence}
+     */
+    private final AtomicLong last = new AtomicLong();
+
+    /**
+     * Year of the current IDs and the millisecond range it covers; replaced once a year
+     */
+    private volatile Year year;
+
+    public PaymentIdGenerator(int nodeId) {
+        this(nodeId, Clock.systemDefaultZone());
+    }
+
+    public PaymentIdGenerator(int nodeId, Clock clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+        this.year = Year.containing(clock.millis(), clock.getZone());
     }
 
-    public static String generate() {
-        String year = LocalDateTime.now().format(YEAR_FORMATTER);
-        long sequence = counter.getAndIncrement();
-        return String.format("PAY-%s-%06d", year, sequence);
+    public String generate() {
+        long state = nextState();
+        long offset = state >>> SEQUENCE_BITS;
+        long id = offset << (NODE_ID_BITS + SEQUENCE_BITS) | nodeBits | (state & SEQUENCE_MASK);
+        return render(year(EPOCH_MILLIS + offset), id);
     }
 
-    public static void reset() {
-        counter.set(1);
+    private long nextState() {
+        while (true) {
+            long previous = last.get();
+            long now = (clock.millis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+            // A full sequence carries into the millisecond field, i.e. borrows the next millisecond
+            long next = now > previous ? now : previous + 1;
+            if (last.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+
+    private Year year(long millis) {
+        Year current = year;
+        if (millis >= current.startMillis && millis < current.endMillis) {
+            return current;
+        }
+        current = Year.containing(millis, clock.getZone());
+        year = current;
+        return current;
+    }
+
+    private static String render(Year year, long id) {
+        byte[] bytes = new byte[LENGTH];
+        System.arraycopy(year.prefix, 0, bytes, 0, year.prefix.length);
+        for (int i = LENGTH - 1; i >= LENGTH - DIGITS; i--) {
+            bytes[i] = (byte) ('0' + id % 10);
+            id /= 10;
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private record Year(byte[] prefix, long startMillis, long endMillis) {
+
+        static Year containing(long millis, ZoneId zone) {
+            ZonedDateTime start = Instant.ofEpochMilli(millis).atZone(zone)
+                    .withDayOfYear(1).toLocalDate().atStartOfDay(zone);
+            byte[] prefix = new byte[PREFIX.length + 5];
+            System.arraycopy(PREFIX, 0, prefix, 0, PREFIX.length);
+            int value = start.getYear();
+            for (int i = PREFIX.length + 3; i >= PREFIX.length; i--) {
+                prefix[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            prefix[PREFIX.length + 4] = '-';
+            return new Year(prefix, start.toInstant().toEpochMilli(), start.plusYears(1).toInstant().toEpochMilli());
+        }
     }
 }
@@ -0,0 +1,248 @@
+package com.openfinance.payment.common.util;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for large numbers of timers with coarse (tick) precision.
+ *
+ * Each level has {@code wheelSize} slots; a slot on level {@code i} spans
+ * {@code wheelSize^i} ticks. Timers are placed on the lowest level that can hold
+ * their deadline and cascade down as the wheel turns, so schedule and cancel are
+ * O(1) and expiry costs O(1) per tick plus the timers that fire.
+ *
+ * Not thread-safe: callers must serialize access.
+ */
+public final class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final int levels;
+    private final long maxDelta;
+    private final Bucket<T>[][] wheels;
+
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        if (wheelSize < 2 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of two");
+        }
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        if (levels < 1 || bits * levels > 62) {
+            throw new IllegalArgumentException("levels out of range");
+        }
+
+        this.tickMillis = tickMillis;
+        this.mask = wheelSize - 1;
+        this.levels = levels;
+        this.maxDelta = (1L << (bits * levels)) - 1;
+        this.currentTick = startMillis / tickMillis;
+        this.wheels = new Bucket[levels][wheelSize];
+        for (int level = 0; level < levels; level++) {
+            for (int slot = 0; slot < wheelSize; slot++) {
+                wheels[level][slot] = new Bucket<>();
+            }
+        }
+    }
+
+    /**
+     * Schedules a timer. Deadlines in the past fire on the next tick.
+     */
+    public Timeout<T> schedule(T payload, long deadlineMillis) {
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        Timeout<T> timeout = new Timeout<>(this, payload, Math.max(deadlineTick, currentTick + 1));
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Turns the wheel up to {@code nowMillis}, handing every expired payload to {@code onExpire}
+     * @return number of timers that fired
+     */
+    public int advanceTo(long nowMillis, Consumer<? super T> onExpire) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        int expired = 0;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            expired += expire(wheels[0][(int) (currentTick & mask)], onExpire);
+        }
+        return expired;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long tickMillis() {
+        return tickMillis;
+    }
+
+    public long currentTimeMillis() {
+        return currentTick * tickMillis;
+    }
+
+    private void place(Timeout<T> timeout) {
+        long delta = timeout.deadlineTick - currentTick;
+        long placementTick = delta > maxDelta ? currentTick + maxDelta : timeout.deadlineTick;
+        long clampedDelta = placementTick - currentTick;
+
+        int level = 0;
+        while (level < levels - 1 && clampedDelta >= (1L << (bits * (level + 1)))) {
+            level++;
+        }
+        int slot = (int) ((placementTick >>> (bits * level)) & mask);
+        wheels[level][slot].append(timeout);
+    }
+
+    private void cascade() {
+        for (int level = 1; level < levels; level++) {
+            long levelMask = (1L << (bits * level)) - 1;
+            if ((currentTick & levelMask) != 0) {
+                return;
+            }
+            Bucket<T> bucket = wheels[level][(int) ((currentTick >>> (bits * level)) & mask)];
+            Timeout<T> timeout = bucket.drain();
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                timeout.next = null;
+                if (!timeout.cancelled) {
+                    place(timeout);
+                }
+                timeout = next;
+            }
+        }
+    }
+
+    private int expire(Bucket<T> bucket, Consumer<? super T> onExpire) {
+        int expired = 0;
+        Timeout<T> timeout = bucket.drain();
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            timeout.next = null;
+            if (!timeout.cancelled) {
+                timeout.expired = true;
+                size--;
+                expired++;
+                onExpire.accept(timeout.payload);
+            }
+            timeout = next;
+        }
+        return expired;
+    }
+
+    /**
+     * Handle to a scheduled timer
+     */
+    public static final class Timeout<T> {
+
+        private final TimingWheel<T> wheel;
+        private final T payload;
+        private final long deadlineTick;
+        private Bucket<T> bucket;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+        private boolean expired;
+        private boolean cancelled;
+
+        private Timeout(TimingWheel<T> wheel, T payload, long deadlineTick) {
+            this.wheel = wheel;
+            this.payload = payload;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T payload() {
+            return payload;
+        }
+
+        public long deadlineMillis() {
+            return deadlineTick * wheel.tickMillis;
+        }
+
+        public boolean isExpired() {
+            return expired;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Removes the timer from the wheel
+         * @return false if it had already fired or been cancelled
+         */
+        public boolean cancel() {
+            if (expired || cancelled) {
+                return false;
+            }
+            cancelled = true;
+            if (bucket != null) {
+                // Otherwise it is mid-expiry in a drained slot and will be skipped there
+                bucket.remove(this);
+            }
+            wheel.size--;
+            return true;
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list of timers sharing a slot
+     */
+    private static final class Bucket<T> {
+
+        private Timeout<T> head;
+        private Timeout<T> tail;
+
+        void append(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void remove(Timeout<T> timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        /**
+         * Detaches all timers and returns the first; the rest follow through {@code next}
+         */
+        Timeout<T> drain() {
+            Timeout<T> first = head;
+            for (Timeout<T> t = first; t != null; t = t.next) {
+                t.prev = null;
+                t.bucket = null;
+            }
+            head = null;
+            tail = null;
+            return first;
+        }
+    }
+}
@@ -3,61 +3,89 @@ package com.openfinance.payment.common.validator;
 /**
  * Validator for Brazilian CNPJ (Cadastro Nacional da Pessoa Jurídica)
  * CNPJ format: 14 digits with 2 check digits
+ *
+ * Characters other than ASCII digits are ignored, so formatted input such as
+ * {@code 11.222.333/0001-81} is accepted. Validation is a single pass over the input
+ * and allocates nothing.
  */
 public class CNPJValidator {
 
+    private static final int LENGTH = 14;
+    private static final long REPUNIT = 11_111_111_111_111L;
+
     private CNPJValidator() {
         // Utility class
     }
 
-    public static boolean isValid(String cnpj) {
-        if (cnpj == null || cnpj.isEmpty()) {
+    public static boolean isValid(CharSequence cnpj) {
+        if (cnpj == null) {
             return false;
         }
+        long digits = 0;
+        int count = 0;
+        for (int i = 0, length = cnpj.length(); i < length; i++) {
+            char c = cnpj.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++count > LENGTH) {
+                    return false;
+                }
+                digits = digits * 10 + (c - '0');
+            }
+        }
+        return count == LENGTH && hasValidCheckDigits(digits);
+    }
 
-        // Remove non-digits
-        String cleanCnpj = cnpj.replaceAll("\\D", "");
-
-        // Check length
-        if (cleanCnpj.length() != 14) {
+    /**
+     * Validates {@code length} bytes of ASCII or UTF-8 text starting at {@code offset},
+     * e.g. a field of a request body, without decoding it into a String
+     */
+    public static boolean isValid(byte[] cnpj, int offset, int length) {
+        if (cnpj == null) {
             return false;
         }
+        long digits = 0;
+        int count = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            byte b = cnpj[i];
+            if (b >= '0' && b <= '9') {
+                if (++count > LENGTH) {
+                    return false;
+                }
+                digits = digits * 10 + (b - '0');
+            }
+        }
+        return count == LENGTH && hasValidCheckDigits(digits);
+    }
 
-        // Check for known invalid CNPJs (all same digits)
-        if (cleanCnpj.matches("(\\d)\\1{13}")) {
+    /**
+     * @param digits the 14 digits as a number, the second check digit last
+     */
+    private static boolean hasValidCheckDigits(long digits) {
+        // Known invalid CNPJs: all digits the same
+        if (digits % REPUNIT == 0) {
             return false;
         }
 
-        // Validate check digits
-        try {
-            // Calculate first check digit
-            int[] weights1 = {5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2};
-            int sum = 0;
-            for (int i = 0; i < 12; i++) {
-                sum += Character.getNumericValue(cleanCnpj.charAt(i)) * weights1[i];
-            }
-            int firstCheckDigit = sum % 11;
-            firstCheckDigit = (firstCheckDigit < 2) ? 0 : 11 - firstCheckDigit;
-
-            // Verify first check digit
-            if (firstCheckDigit != Character.getNumericValue(cleanCnpj.charAt(12))) {
-                return false;
-            }
+        int secondCheckDigit = (int) (digits % 10);
+        int firstCheckDigit = (int) (digits / 10 % 10);
+        long base = digits / 100;
 
-            // Calculate second check digit
-            int[] weights2 = {6, 5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2};
-            sum = 0;
-            for (int i = 0; i < 13; i++) {
-                sum += Character.getNumericValue(cleanCnpj.charAt(i)) * weights2[i];
-            }
-            int secondCheckDigit = sum % 11;
-            secondCheckDigit = (secondCheckDigit < 2) ? 0 : 11 - secondCheckDigit;
+        // Walk the 12 base digits right to left. Weights cycle 2..9 from the right; the
+        // second check digit's weights are shifted by one to make room for the first check digit
+        int sum1 = 0;
+        int sum2 = firstCheckDigit * 2;
+        for (int position = 0; position < 12; position++) {
+            int digit = (int) (base % 10);
+            base /= 10;
+            sum1 += digit * (2 + position % 8);
+            sum2 += digit * (2 + (position + 1) % 8);
+        }
 
-            // Verify second check digit
-            return secondCheckDigit == Character.getNumericValue(cleanCnpj.charAt(13));
+        return firstCheckDigit == checkDigit(sum1) && secondCheckDigit == checkDigit(sum2);
+    }
 
-        } catch (Exception e) {
-            return false;
-        }
+    private static int checkDigit(int sum) {
+        int remainder = sum % 11;
+        return remainder < 2 ? 0 : 11 - remainder;
     }
 }
@@ -3,63 +3,89 @@ package com.openfinance.payment.common.validator;
 /**
  * Validator for Brazilian CPF (Cadastro de Pessoas Físicas)
  * CPF format: 11 digits with 2 check digits
+ *
+ * Characters other than ASCII digits are ignored, so formatted input such as
+ * {@code 123.456.789-09} is accepted. Validation is a single pass over the input
+ * and allocates nothing.
  */
 public class CPFValidator {
 
+    private static final int LENGTH = 11;
+    private static final long REPUNIT = 11_111_111_111L;
+
     private CPFValidator() {
         // Utility class
     }
 
-    public static boolean isValid(String cpf) {
-        if (cpf == null || cpf.isEmpty()) {
+    public static boolean isValid(CharSequence cpf) {
+        if (cpf == null) {
             return false;
         }
+        long digits = 0;
+        int count = 0;
+        for (int i = 0, length = cpf.length(); i < length; i++) {
+            char c = cpf.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++count > LENGTH) {
+                    return false;
+                }
+                digits = digits * 10 + (c - '0');
+            }
+        }
+        return count == LENGTH && hasValidCheckDigits(digits);
+    }
 
-        // Remove non-digits
-        String cleanCpf = cpf.replaceAll("\\D", "");
-
-        // Check length
-        if (cleanCpf.length() != 11) {
+    /**
+     * Validates {@code length} bytes of ASCII or UTF-8 text starting at {@code offset},
+     * e.g. a field of a request body, without decoding it into a String
+     */
+    public static boolean isValid(byte[] cpf, int offset, int length) {
+        if (cpf == null) {
             return false;
         }
+        long digits = 0;
+        int count = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            byte b = cpf[i];
+            if (b >= '0' && b <= '9') {
+                if (++count > LENGTH) {
+                    return false;
+                }
+                digits = digits * 10 + (b - '0');
+            }
+        }
+        return count == LENGTH && hasValidCheckDigits(digits);
+    }
 
-        // Check for known invalid CPFs (all same digits)
-        if (cleanCpf.matches("(\\d)\\1{10}")) {
+    /**
+     * @param digits the 11 digits as a number, the second check digit last
+     */
+    private static boolean hasValidCheckDigits(long digits) {
+        // Known invalid CPFs: all digits the same
+        if (digits % REPUNIT == 0) {
             return false;
         }
 
-        // Validate check digits
-        try {
-            // Calculate first check digit
-            int sum = 0;
-            for (int i = 0; i < 9; i++) {
-                sum += Character.getNumericValue(cleanCpf.charAt(i)) * (10 - i);
-            }
-            int firstCheckDigit = 11 - (sum % 11);
-            if (firstCheckDigit >= 10) {
-                firstCheckDigit = 0;
-            }
-
-            // Verify first check digit
-            if (firstCheckDigit != Character.getNumericValue(cleanCpf.charAt(9))) {
-                return false;
-            }
+        int secondCheckDigit = (int) (digits % 10);
+        int firstCheckDigit = (int) (digits / 10 % 10);
+        long base = digits / 100;
 
-            // Calculate second check digit
-            sum = 0;
-            for (int i = 0; i < 10; i++) {
-                sum += Character.getNumericValue(cleanCpf.charAt(i)) * (11 - i);
-            }
-            int secondCheckDigit = 11 - (sum % 11);
-            if (secondCheckDigit >= 10) {
-                secondCheckDigit = 0;
-            }
+        // Walk the 9 base digits right to left: weights 2..10 for the first check digit,
+        // 3..11 for the second, which also weighs the first check digit by 2
+        int sum1 = 0;
+        int sum2 = firstCheckDigit * 2;
+        for (int weight = 2; weight <= 10; weight++) {
+            int digit = (int) (base % 10);
+            base /= 10;
+            sum1 += digit * weight;
+            sum2 += digit * (weight + 1);
+        }
 
-            // Verify second check digit
-            return secondCheckDigit == Character.getNumericValue(cleanCpf.charAt(10));
+        return firstCheckDigit == checkDigit(sum1) && secondCheckDigit == checkDigit(sum2);
+    }
 
-        } catch (Exception e) {
-            return false;
-        }
+    private static int checkDigit(int sum) {
+        int checkDigit = 11 - (sum % 11);
+        return checkDigit >= 10 ? 0 : checkDigit;
     }
 }
@@ -1,24 +1,15 @@
 package com.openfinance.payment.common.validator;
 
-import java.util.regex.Pattern;
-
 /**
  * Validator for Brazilian PIX keys
  * Supported types: EMAIL, CPF, CNPJ, PHONE, RANDOM
+ *
+ * Each key type is checked by a single hand-written scan that allocates nothing. The rules
+ * are those of the regular expressions previously used, noted on each method.
  */
 public class PixKeyValidator {
 
-    private static final Pattern EMAIL_PATTERN = Pattern.compile(
-            "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$"
-    );
-
-    private static final Pattern PHONE_PATTERN = Pattern.compile(
-            "^\\+55\\d{10,11}$"
-    );
-
-    private static final Pattern RANDOM_KEY_PATTERN = Pattern.compile(
-            "^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$"
-    );
+    private static final int RANDOM_KEY_LENGTH = 36;
 
     private PixKeyValidator() {
         // Utility class
@@ -29,7 +20,9 @@ public class PixKeyValidator {
             return false;
         }
 
-        return switch (pixKeyType.toUpperCase()) {
+        // Clients almost always send the canonical upper-case type; only normalize when needed
+        String type = isUpperCaseAscii(pixKeyType) ? pixKeyType : pixKeyType.toUpperCase();
+        return switch (type) {
             case "EMAIL" -> isValidEmail(pixKey);
             case "CPF" -> CPFValidator.isValid(pixKey);
             case "CNPJ" -> CNPJValidator.isValid(pixKey);
@@ -39,24 +32,106 @@ public class PixKeyValidator {
         };
     }
 
+    /**
+     * {@code ^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\.[A-Za-z]{2,}$}: the top-level domain is
+     * whatever follows the last dot of the domain
+     */
     private static boolean isValidEmail(String email) {
-        return EMAIL_PATTERN.matcher(email).matches();
+        int length = email.length();
+        int at = -1;
+        int lastDot = -1;
+        for (int i = 0; i < length; i++) {
+            char c = email.charAt(i);
+            if (c == '@') {
+                if (at >= 0 || i == 0) {
+                    return false;
+                }
+                at = i;
+            } else if (c == '.') {
+                if (at >= 0) {
+                    lastDot = i;
+                }
+            } else if (c == '+' || c == '_') {
+                // Only allowed before the @
+                if (at >= 0) {
+                    return false;
+                }
+            } else if (c != '-' && !isAsciiLetter(c) && !isAsciiDigit(c)) {
+                return false;
+            }
+        }
+
+        // Non-empty domain name before the last dot, and a top-level domain of 2+ letters
+        if (at < 0 || lastDot < at + 2 || length - lastDot - 1 < 2) {
+            return false;
+        }
+        for (int i = lastDot + 1; i < length; i++) {
+            if (!isAsciiLetter(email.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
+    /**
+     * Brazilian phone: 55 + DDD (2 digits) + number (8 or 9 digits), with or without +.
+     * Characters other than digits are ignored, as {@code replaceAll("\\D", "")} used to remove them.
+     */
     private static boolean isValidPhone(String phone) {
-        // Remove non-digits for validation
-        String cleanPhone = phone.replaceAll("\\D", "");
+        int digits = 0;
+        for (int i = 0, length = phone.length(); i < length; i++) {
+            char c = phone.charAt(i);
+            if (isAsciiDigit(c)) {
+                // Country code 55 first
+                if (digits < 2 && c != '5') {
+                    return false;
+                }
+                if (++digits > 13) {
+                    return false;
+                }
+            }
+        }
+        return digits >= 12;
+    }
 
-        // Brazilian phone: +55 + DDD (2 digits) + number (8 or 9 digits)
-        if (cleanPhone.length() >= 12 && cleanPhone.startsWith("55")) {
-            return PHONE_PATTERN.matcher("+" + cleanPhone).matches();
+    /**
+     * UUID in 8-4-4-4-12 hex form, either case
+     */
+    private static boolean isValidRandomKey(String randomKey) {
+        if (randomKey.length() != RANDOM_KEY_LENGTH) {
+            return false;
         }
+        for (int i = 0; i < RANDOM_KEY_LENGTH; i++) {
+            char c = randomKey.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (!isAsciiDigit(c) && !((c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'))) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        // Also accept format without +
-        return cleanPhone.length() >= 12 && cleanPhone.length() <= 13 && cleanPhone.startsWith("55");
+    /**
+     * True when {@code toUpperCase} would return an equal string in any locale
+     */
+    private static boolean isUpperCaseAscii(String value) {
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80 || (c >= 'a' && c <= 'z')) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    private static boolean isValidRandomKey(String randomKey) {
-        return RANDOM_KEY_PATTERN.matcher(randomKey.toLowerCase()).matches();
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
     }
 }
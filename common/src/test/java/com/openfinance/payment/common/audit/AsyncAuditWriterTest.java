@@ -0,0 +1,99 @@
+package com.openfinance.payment.common.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openfinance.payment.common.entity.AuditLog;
+import com.openfinance.payment.common.entity.PaymentStatus;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Async Audit Writer Tests")
+class AsyncAuditWriterTest {
+
+    private final HikariDataSource dataSource = dataSource();
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Never started, so the buffer only empties through the caller's own writes
+    private final AsyncAuditWriter writer = new AsyncAuditWriter(jdbcTemplate, transactionManager, new ObjectMapper(),
+            meterRegistry, 2, 500, Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofSeconds(1));
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE SEQUENCE audit_log_id_seq INCREMENT BY 50");
+        jdbcTemplate.execute("CREATE TABLE audit_log (id BIGINT PRIMARY KEY, payment_id UUID NOT NULL, "
+                + "event_type VARCHAR(50) NOT NULL, old_status VARCHAR(20), new_status VARCHAR(20), "
+                + "metadata jsonb, created_at TIMESTAMP NOT NULL)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("Should persist an event written after commit when the buffer is full")
+    void shouldPersistOverflowAfterCommit() {
+        UUID overflowPaymentId = UUID.randomUUID();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            writer.write(event(UUID.randomUUID()));
+            writer.write(event(UUID.randomUUID()));
+            writer.write(event(overflowPaymentId));
+        });
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM audit_log WHERE payment_id = ?", Integer.class, overflowPaymentId))
+                .isEqualTo(1);
+        assertThat(meterRegistry.counter("audit.backpressure").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("audit.dropped").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should count an overflow event it cannot write as dropped")
+    void shouldCountFailedOverflowAsDropped() {
+        jdbcTemplate.execute("DROP TABLE audit_log");
+
+        writer.write(event(UUID.randomUUID()));
+        writer.write(event(UUID.randomUUID()));
+        writer.write(event(UUID.randomUUID()));
+
+        assertThat(meterRegistry.counter("audit.dropped").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("audit.flush.failures").count()).isEqualTo(1);
+    }
+
+    /**
+     * Pooled without auto-commit, so writes left uncommitted on a connection are rolled back when it returns to the pool
+     */
+    private static HikariDataSource dataSource() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:audit-" + UUID.randomUUID()
+                + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;INIT=CREATE DOMAIN IF NOT EXISTS jsonb AS JSON");
+        config.setAutoCommit(false);
+        return new HikariDataSource(config);
+    }
+
+    private static AuditLog event(UUID paymentId) {
+        return AuditLog.builder()
+                .paymentId(paymentId)
+                .eventType(AuditLog.EventType.STATUS_CHANGED)
+                .oldStatus(PaymentStatus.PENDING)
+                .newStatus(PaymentStatus.PROCESSING)
+                .metadata(Map.of("reason", "test"))
+                .build();
+    }
+}
@@ -0,0 +1,132 @@
+package com.openfinance.payment.common.bank;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Bank Call Guard Tests")
+class BankCallGuardTest {
+
+    private static final String UNAVAILABLE = "Bank system temporarily unavailable";
+
+    private final CircuitBreaker circuitBreaker = CircuitBreaker.of("bank", CircuitBreakerConfig.custom()
+            .slidingWindowSize(4)
+            .minimumNumberOfCalls(4)
+            .failureRateThreshold(50)
+            .waitDurationInOpenState(Duration.ofHours(1))
+            .automaticTransitionFromOpenToHalfOpenEnabled(true)
+            .build());
+    private final Bulkhead bulkhead = Bulkhead.of("bank", BulkheadConfig.custom()
+            .maxConcurrentCalls(2)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+    private final BankCallGuard guard = new BankCallGuard(circuitBreaker, bulkhead, Duration.ofSeconds(5));
+
+    @Test
+    @DisplayName("Should open on unavailable responses but not on declined payments")
+    void shouldOpenOnlyOnUnavailableResponses() {
+        for (int i = 0; i < 4; i++) {
+            call("Insufficient funds");
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        // The caller still gets the bank's answer; two of the last four calls failing opens the circuit
+        assertThat(call(UNAVAILABLE)).isCompletedWithValue(UNAVAILABLE);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        call(UNAVAILABLE);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(guard.isCallPermitted()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should fail fast without calling the bank while the circuit is open")
+    void shouldFailFastWhenOpen() {
+        circuitBreaker.transitionToOpenState();
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> result = guard.call(() -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("ok");
+        }, UNAVAILABLE::equals);
+
+        assertThat(calls).hasValue(0);
+        assertThat(result).isCompletedExceptionally();
+        assertThat(result.handle((value, error) -> error).join()).isInstanceOf(CallNotPermittedException.class);
+        assertThat(BankCallGuard.isRejection(result.handle((value, error) -> error).join())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should reject calls over the bulkhead limit and admit more as calls complete")
+    void shouldRejectOverBulkheadLimit() {
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> second = new CompletableFuture<>();
+        guard.call(() -> first, UNAVAILABLE::equals);
+        guard.call(() -> second, UNAVAILABLE::equals);
+
+        CompletableFuture<String> third = call("ok");
+        assertThat(third.handle((value, error) -> error).join()).isInstanceOf(BulkheadFullException.class);
+
+        first.complete("ok");
+        assertThat(call("ok")).isCompletedWithValue("ok");
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should notify when the circuit lets calls through again")
+    void shouldNotifyWhenCallsPermitted() {
+        AtomicInteger notified = new AtomicInteger();
+        guard.onCallsPermitted(notified::incrementAndGet);
+
+        circuitBreaker.transitionToOpenState();
+        assertThat(notified).hasValue(0);
+
+        circuitBreaker.transitionToHalfOpenState();
+        assertThat(notified).hasValue(1);
+        assertThat(guard.isCallPermitted()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should count down the trial calls left while half-open")
+    void shouldReportRemainingHalfOpenCalls() {
+        CircuitBreaker probing = CircuitBreaker.of("probing", CircuitBreakerConfig.custom()
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .build());
+        BankCallGuard probingGuard = new BankCallGuard(probing, Bulkhead.ofDefaults("probing"), Duration.ofSeconds(5));
+        assertThat(probingGuard.permittedCalls()).isEqualTo(Integer.MAX_VALUE);
+
+        probing.transitionToOpenState();
+        assertThat(probingGuard.permittedCalls()).isZero();
+
+        probing.transitionToHalfOpenState();
+        assertThat(probingGuard.permittedCalls()).isEqualTo(3);
+
+        CompletableFuture<String> inFlight = new CompletableFuture<>();
+        probingGuard.call(() -> inFlight, UNAVAILABLE::equals);
+        probingGuard.call(() -> CompletableFuture.completedFuture("ok"), UNAVAILABLE::equals);
+        assertThat(probingGuard.permittedCalls()).isEqualTo(1);
+
+        probingGuard.call(() -> CompletableFuture.completedFuture("ok"), UNAVAILABLE::equals);
+        assertThat(probingGuard.permittedCalls()).isZero();
+        assertThat(probingGuard.isCallPermitted()).isFalse();
+
+        inFlight.complete("ok");
+        assertThat(probing.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(probingGuard.isCallPermitted()).isTrue();
+    }
+
+    private CompletableFuture<String> call(String response) {
+        return guard.call(() -> CompletableFuture.completedFuture(response), UNAVAILABLE::equals);
+    }
+}
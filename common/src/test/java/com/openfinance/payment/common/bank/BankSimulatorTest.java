@@ -0,0 +1,97 @@
+package com.openfinance.payment.common.bank;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Bank Simulator Tests")
+class BankSimulatorTest {
+
+    @Test
+    @DisplayName("Should fail exactly the configured fraction of calls, spread evenly, in deterministic mode")
+    void shouldSpreadFailuresEvenly() {
+        BankSimulatorSettings settings = BankSimulatorSettings.deterministic(
+                Duration.ofMillis(5), 0.75, "Timeout", "Insufficient funds");
+
+        List<Long> failedCalls = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        for (long n = 0; n < 1000; n++) {
+            BankSimulator.Outcome outcome = BankSimulator.deterministicOutcome(settings, Duration.ZERO, n);
+            if (!outcome.success()) {
+                failedCalls.add(n);
+                errors.add(outcome.errorMessage());
+            }
+        }
+
+        assertThat(failedCalls).hasSize(250);
+        assertThat(failedCalls).startsWith(3L, 7L, 11L, 15L);
+        assertThat(errors).startsWith("Timeout", "Insufficient funds", "Timeout", "Insufficient funds");
+    }
+
+    @Test
+    @DisplayName("Should reproduce the configured error weights in deterministic mode")
+    void shouldHonourErrorWeightsWhenDeterministic() {
+        BankSimulatorSettings settings = BankSimulatorSettings.deterministic(Duration.ofMillis(5), 0.5);
+        settings.getErrors().add(new BankSimulatorSettings.ErrorWeight("Timeout", 3));
+        settings.getErrors().add(new BankSimulatorSettings.ErrorWeight("Insufficient funds", 1));
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (long n = 0; n < 800; n++) {
+            BankSimulator.Outcome outcome = BankSimulator.deterministicOutcome(settings, Duration.ZERO, n);
+            if (!outcome.success()) {
+                counts.merge(outcome.errorMessage(), 1, Integer::sum);
+            }
+        }
+
+        assertThat(counts).containsEntry("Timeout", 300).containsEntry("Insufficient funds", 100);
+    }
+
+    @Test
+    @DisplayName("Should never fail with a success rate of 1 in deterministic mode")
+    void shouldNeverFailAtFullSuccessRate() {
+        BankSimulatorSettings settings = BankSimulatorSettings.deterministic(Duration.ofMillis(2), 1.0);
+
+        for (long n = 0; n < 10_000; n++) {
+            assertThat(BankSimulator.deterministicOutcome(settings, Duration.ZERO, n).success()).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Should use the midpoint and median instead of sampling latency in deterministic mode")
+    void shouldUseFixedLatencies() {
+        BankSimulatorSettings settings = BankSimulatorSettings.uniform(
+                Duration.ofMillis(10), Duration.ofMillis(30), 1.0);
+        settings.setDeterministic(true);
+        assertThat(BankSimulator.sampleLatency(settings)).isEqualTo(Duration.ofMillis(20));
+
+        settings.setDistribution(BankSimulatorSettings.LatencyDistribution.LOG_NORMAL);
+        settings.setMedianLatency(Duration.ofMillis(15));
+        assertThat(BankSimulator.sampleLatency(settings)).isEqualTo(Duration.ofMillis(15));
+    }
+
+    @Test
+    @DisplayName("Should give two simulators with the same settings the same outcomes")
+    void shouldRepeatOutcomesAcrossRuns() throws Exception {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        try {
+            BankSimulatorSettings settings = BankSimulatorSettings.deterministic(Duration.ZERO, 0.9, "Timeout");
+            BankSimulator first = new BankSimulator(settings, timer);
+            BankSimulator second = new BankSimulator(settings, timer);
+
+            for (int i = 0; i < 100; i++) {
+                assertThat(first.call().get()).isEqualTo(second.call().get());
+            }
+        } finally {
+            timer.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.openfinance.payment.common.metrics;
+
+import com.openfinance.payment.common.entity.Payment;
+import com.openfinance.payment.common.entity.PaymentStatus;
+import com.openfinance.payment.common.entity.PaymentType;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Payment Lifecycle Metrics Tests")
+class PaymentLifecycleMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PaymentLifecycleMetrics metrics = new PaymentLifecycleMetrics(registry);
+
+    @Test
+    @DisplayName("Should record time since creation under the payment's type and outcome")
+    void shouldRecordByTypeAndOutcome() {
+        metrics.recordSettled(payment(PaymentType.PIX, PaymentStatus.SUCCESS, LocalDateTime.now().minusSeconds(3)));
+
+        Timer pixSuccess = timer("PIX", "SUCCESS");
+        assertThat(pixSuccess.count()).isEqualTo(1);
+        assertThat(pixSuccess.totalTime(TimeUnit.SECONDS)).isBetween(2.9, 10.0);
+        assertThat(timer("PIX", "FAILED").count()).isZero();
+        assertThat(timer("TED", "SUCCESS").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should ignore payments that are not in a terminal status")
+    void shouldIgnoreNonTerminal() {
+        metrics.recordSettled(payment(PaymentType.PIX, PaymentStatus.PENDING, LocalDateTime.now()));
+        metrics.recordSettled(payment(PaymentType.PIX, PaymentStatus.PROCESSING, LocalDateTime.now()));
+
+        assertThat(registry.find("payments.lifecycle.duration").timers())
+                .allSatisfy(timer -> assertThat(timer.count()).isZero());
+    }
+
+    private Timer timer(String type, String outcome) {
+        return registry.get("payments.lifecycle.duration").tag("type", type).tag("outcome", outcome).timer();
+    }
+
+    private static Payment payment(PaymentType type, PaymentStatus status, LocalDateTime createdAt) {
+        Payment payment = Payment.builder().type(type).status(status).build();
+        payment.setCreatedAt(createdAt);
+        return payment;
+    }
+}
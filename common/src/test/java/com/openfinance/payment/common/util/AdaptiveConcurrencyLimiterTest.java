@@ -0,0 +1,203 @@
+package com.openfinance.payment.common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Adaptive Concurrency Limiter Tests")
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final Duration MAX_WAIT = Duration.ofSeconds(10);
+
+    @Test
+    @DisplayName("Should hold calls over the limit and start them in order as calls complete")
+    void shouldQueueCallsOverTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 1.5, 0.9, MAX_WAIT);
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(limiter.submit(() -> {
+                CompletableFuture<String> call = new CompletableFuture<>();
+                calls.add(call);
+                return call;
+            }, value -> false));
+        }
+
+        assertThat(calls).hasSize(2);
+        assertThat(limiter.inFlight()).isEqualTo(2);
+        assertThat(limiter.waiting()).isEqualTo(2);
+
+        calls.get(0).complete("first");
+        assertThat(results.get(0)).isCompletedWithValue("first");
+        assertThat(calls).hasSize(3);
+
+        calls.get(1).completeExceptionally(new IllegalStateException("bank down"));
+        assertThat(results.get(1)).isCompletedExceptionally();
+        assertThat(limiter.inFlight()).isLessThanOrEqualTo(limiter.limit());
+    }
+
+    @Test
+    @DisplayName("Should never start a waiting call the caller has already given up on")
+    void shouldSkipAbandonedWaiters() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 10, 1.5, 0.9, MAX_WAIT);
+        CompletableFuture<String> first = new CompletableFuture<>();
+        AtomicInteger started = new AtomicInteger();
+        limiter.submit(() -> first, value -> false);
+        CompletableFuture<String> timedOut = limiter.submit(() -> {
+            started.incrementAndGet();
+            return CompletableFuture.completedFuture("late");
+        }, value -> false).orTimeout(1, TimeUnit.MILLISECONDS);
+        CompletableFuture<String> cancelled = limiter.submit(() -> {
+            started.incrementAndGet();
+            return CompletableFuture.completedFuture("late");
+        }, value -> false);
+        cancelled.cancel(false);
+
+        assertThat(timedOut).failsWithin(Duration.ofSeconds(5));
+        first.complete("first");
+
+        assertThat(started).hasValue(0);
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(limiter.waiting()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should fail a call that waits longer than the maximum wait without starting it")
+    void shouldExpireCallsWaitingTooLong() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 10, 1.5, 0.9, Duration.ofMillis(20));
+        CompletableFuture<String> first = new CompletableFuture<>();
+        AtomicInteger started = new AtomicInteger();
+        limiter.submit(() -> first, value -> false);
+        CompletableFuture<String> waiting = limiter.submit(() -> {
+            started.incrementAndGet();
+            return CompletableFuture.completedFuture("late");
+        }, value -> false);
+
+        assertThatThrownBy(() -> waiting.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(AdaptiveConcurrencyLimiter.WaitTimeoutException.class)
+                .cause().isInstanceOf(TimeoutException.class);
+        assertThat(limiter.waiting()).isZero();
+
+        first.complete("first");
+        assertThat(started).hasValue(0);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should free the slot of a rejected call without lowering the limit")
+    void shouldIgnoreRejectedCalls() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 1.5, 0.9, MAX_WAIT);
+
+        for (int i = 0; i < 50; i++) {
+            CompletableFuture<String> result = limiter.submit(
+                    () -> CompletableFuture.failedFuture(new IllegalStateException("circuit open")),
+                    value -> false, IllegalStateException.class::isInstance);
+            assertThat(result).isCompletedExceptionally();
+        }
+
+        assertThat(limiter.limit()).isEqualTo(10);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should raise the limit while latency holds steady under load")
+    void shouldGrowWhileLatencyIsSteady() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 1.5, 0.9, MAX_WAIT);
+
+        for (int i = 0; i < 200; i++) {
+            limiter.update(20 * MS, false, limiter.limit(), limiter.probe());
+        }
+
+        assertThat(limiter.limit()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Should not raise the limit when calls do not use it")
+    void shouldNotGrowWhenUnderused() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 1, 100, 1.5, 0.9, MAX_WAIT);
+
+        for (int i = 0; i < 200; i++) {
+            limiter.update(20 * MS, false, 5, limiter.probe());
+        }
+
+        assertThat(limiter.limit()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Should cut the limit by the backoff ratio when a call fails")
+    void shouldBackOffOnErrors() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 1, 100, 1.5, 0.9, MAX_WAIT);
+
+        limiter.update(20 * MS, true, 50, limiter.probe());
+        assertThat(limiter.limit()).isEqualTo(45);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.update(20 * MS, true, 50, limiter.probe());
+        }
+        assertThat(limiter.limit()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should settle near the service's capacity when extra calls queue in the service")
+    void shouldSettleNearCapacity() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 500, 1.5, 0.9, MAX_WAIT);
+
+        // 32 calls are served in parallel in 20 ms; more queue and take proportionally longer
+        for (int i = 0; i < 2_500; i++) {
+            limiter.update(queueingLatency(limiter.limit(), 32, 20), false, limiter.limit(), limiter.probe());
+        }
+
+        assertThat(limiter.limit()).isBetween(32, 80);
+    }
+
+    @Test
+    @DisplayName("Should follow the service when it becomes slower and when it recovers")
+    void shouldFollowLatencyProfileChanges() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 500, 1.5, 0.9, MAX_WAIT);
+        for (int i = 0; i < 2_500; i++) {
+            limiter.update(queueingLatency(limiter.limit(), 32, 20), false, limiter.limit(), limiter.probe());
+        }
+        int healthyLimit = limiter.limit();
+
+        // Degraded: 8 parallel calls of 100 ms
+        for (int i = 0; i < 3_000; i++) {
+            limiter.update(queueingLatency(limiter.limit(), 8, 100), false, limiter.limit(), limiter.probe());
+        }
+        assertThat(limiter.limit()).isBetween(8, 20).isLessThan(healthyLimit);
+
+        for (int i = 0; i < 3_000; i++) {
+            limiter.update(queueingLatency(limiter.limit(), 32, 20), false, limiter.limit(), limiter.probe());
+        }
+        assertThat(limiter.limit()).isBetween(32, 80);
+    }
+
+    @Test
+    @DisplayName("Should reject inconsistent settings")
+    void shouldRejectInvalidSettings() {
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(0, 1, 10, 1.5, 0.9, MAX_WAIT))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(20, 1, 10, 1.5, 0.9, MAX_WAIT))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(5, 1, 10, 0.5, 0.9, MAX_WAIT))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(5, 1, 10, 1.5, 1.0, MAX_WAIT))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(5, 1, 10, 1.5, 0.9, Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long queueingLatency(int inFlight, int capacity, long serviceMillis) {
+        return (long) (serviceMillis * MS * Math.max(1.0, inFlight / (double) capacity));
+    }
+}
@@ -0,0 +1,88 @@
+package com.openfinance.payment.common.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Micro Batcher Tests")
+class MicroBatcherTest {
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+    private final List<List<Integer>> flushed = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        timer.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should flush as soon as the batch is full")
+    void shouldFlushWhenFull() {
+        MicroBatcher<Integer, String> batcher = new MicroBatcher<>(3, Duration.ofHours(1), timer, this::echo);
+
+        CompletableFuture<String> first = batcher.submit(1);
+        batcher.submit(2);
+        assertThat(flushed).isEmpty();
+
+        CompletableFuture<String> third = batcher.submit(3);
+        assertThat(flushed).containsExactly(List.of(1, 2, 3));
+        assertThat(first.join()).isEqualTo("r1");
+        assertThat(third.join()).isEqualTo("r3");
+    }
+
+    @Test
+    @DisplayName("Should flush a partial batch after the linger time")
+    void shouldFlushAfterLinger() throws Exception {
+        MicroBatcher<Integer, String> batcher = new MicroBatcher<>(100, Duration.ofMillis(20), timer, this::echo);
+
+        CompletableFuture<String> result = batcher.submit(7);
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("r7");
+        assertThat(flushed).containsExactly(List.of(7));
+    }
+
+    @Test
+    @DisplayName("Should fail every item of a batch whose flush fails")
+    void shouldFailWholeBatch() {
+        MicroBatcher<Integer, String> batcher = new MicroBatcher<>(2, Duration.ofHours(1), timer,
+                items -> CompletableFuture.failedFuture(new IllegalStateException("bank down")));
+
+        CompletableFuture<String> first = batcher.submit(1);
+        CompletableFuture<String> second = batcher.submit(2);
+
+        assertThat(first).isCompletedExceptionally();
+        assertThat(second).isCompletedExceptionally();
+    }
+
+    @Test
+    @DisplayName("Should flush pending items on close and reject new ones")
+    void shouldFlushOnClose() {
+        MicroBatcher<Integer, String> batcher = new MicroBatcher<>(100, Duration.ofHours(1), timer, this::echo);
+        CompletableFuture<String> pending = batcher.submit(1);
+
+        batcher.close();
+
+        assertThat(pending.join()).isEqualTo("r1");
+        assertThat(batcher.submit(2)).isCompletedExceptionally();
+    }
+
+    private CompletableFuture<List<String>> echo(List<Integer> items) {
+        flushed.add(items);
+        List<String> results = new ArrayList<>();
+        for (Integer item : items) {
+            results.add("r" + item);
+        }
+        return CompletableFuture.completedFuture(results);
+    }
+}
@@ -0,0 +1,178 @@
+package com.openfinance.payment.common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Payment ID Generator Tests")
+class PaymentIdGeneratorTest {
+
+    @Test
+    @DisplayName("Should keep the PAY-YYYY- prefix with 19 digits")
+    void shouldGenerateExpectedFormat() {
+        PaymentIdGenerator generator = new PaymentIdGenerator(1, fixedClock("2025-11-19T19:00:00Z"));
+
+        String id = generator.generate();
+
+        assertThat(id).matches("PAY-2025-\\d{19}");
+        assertThat(id).isEqualTo("PAY-2025-0249609741926404096");
+    }
+
+    @Test
+    @DisplayName("Should generate IDs in creation order")
+    void shouldGenerateOrderedIds() {
+        MutableClock clock = new MutableClock(Instant.parse("2025-06-01T12:00:00Z"));
+        PaymentIdGenerator generator = new PaymentIdGenerator(7, clock);
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(generator.generate());
+            if (i % 100 == 0) {
+                clock.advance(1);
+            }
+        }
+
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Should keep IDs unique when the sequence overflows or the clock steps back")
+    void shouldStayUniqueWithoutClockProgress() {
+        MutableClock clock = new MutableClock(Instant.parse("2025-06-01T12:00:00Z"));
+        PaymentIdGenerator generator = new PaymentIdGenerator(7, clock);
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(generator.generate());
+        }
+        clock.advance(-5_000);
+        for (int i = 0; i < 1_000; i++) {
+            ids.add(generator.generate());
+        }
+
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Should roll the year prefix over at midnight in the clock's zone")
+    void shouldRollYearOver() {
+        ZoneId zone = ZoneId.of("America/Sao_Paulo");
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-01T02:59:59.999Z"), zone);
+        PaymentIdGenerator generator = new PaymentIdGenerator(3, clock);
+
+        assertThat(generator.generate()).startsWith("PAY-2025-");
+        clock.advance(1);
+        assertThat(generator.generate()).startsWith("PAY-2026-");
+    }
+
+    @Test
+    @DisplayName("Should give different nodes different IDs for the same millisecond")
+    void shouldSeparateNodes() {
+        Clock clock = fixedClock("2025-11-19T19:00:00Z");
+
+        assertThat(new PaymentIdGenerator(1, clock).generate())
+                .isNotEqualTo(new PaymentIdGenerator(2, clock).generate());
+    }
+
+    @Test
+    @DisplayName("Should reject node IDs outside 0-1023")
+    void shouldRejectInvalidNodeIds() {
+        assertThatThrownBy(() -> new PaymentIdGenerator(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new PaymentIdGenerator(PaymentIdGenerator.MAX_NODE_ID + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should generate unique IDs across threads and nodes")
+    void shouldGenerateUniqueIdsConcurrently() throws Exception {
+        int nodes = 4;
+        int threadsPerNode = 8;
+        int idsPerThread = 50_000;
+        Set<String> ids = ConcurrentHashMap.newKeySet(nodes * threadsPerNode * idsPerThread);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<Integer>> duplicates = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(nodes * threadsPerNode)) {
+            for (int node = 0; node < nodes; node++) {
+                PaymentIdGenerator generator = new PaymentIdGenerator(node);
+                for (int t = 0; t < threadsPerNode; t++) {
+                    duplicates.add(executor.submit(() -> {
+                        start.await();
+                        int count = 0;
+                        for (int i = 0; i < idsPerThread; i++) {
+                            if (!ids.add(generator.generate())) {
+                                count++;
+                            }
+                        }
+                        return count;
+                    }));
+                }
+            }
+            start.countDown();
+        }
+
+        for (Future<Integer> future : duplicates) {
+            assertThat(future.get()).isZero();
+        }
+        assertThat(ids).hasSize(nodes * threadsPerNode * idsPerThread);
+    }
+
+    private static Clock fixedClock(String instant) {
+        return Clock.fixed(Instant.parse(instant), ZoneOffset.UTC);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private final ZoneId zone;
+        private long millis;
+
+        MutableClock(Instant start) {
+            this(start, ZoneOffset.UTC);
+        }
+
+        MutableClock(Instant start, ZoneId zone) {
+            this.millis = start.toEpochMilli();
+            this.zone = zone;
+        }
+
+        void advance(long deltaMillis) {
+            millis += deltaMillis;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new MutableClock(instant(), zone);
+        }
+    }
+}
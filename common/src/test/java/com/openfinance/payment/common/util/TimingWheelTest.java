@@ -0,0 +1,104 @@
+package com.openfinance.payment.common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Timing Wheel Tests")
+class TimingWheelTest {
+
+    @Test
+    @DisplayName("Should fire timer on its deadline tick")
+    void shouldFireOnDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 3, 0);
+        List<String> fired = new ArrayList<>();
+        wheel.schedule("retry", 2_000);
+
+        wheel.advanceTo(1_990, fired::add);
+        assertThat(fired).isEmpty();
+
+        wheel.advanceTo(2_000, fired::add);
+        assertThat(fired).containsExactly("retry");
+        assertThat(wheel.isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should fire past deadlines on the next tick")
+    void shouldFirePastDeadlinesOnNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 3, 1_000);
+        List<String> fired = new ArrayList<>();
+        wheel.schedule("late", 500);
+
+        wheel.advanceTo(1_010, fired::add);
+        assertThat(fired).containsExactly("late");
+    }
+
+    @Test
+    @DisplayName("Should not fire cancelled timers")
+    void shouldNotFireCancelledTimers() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 3, 0);
+        List<String> fired = new ArrayList<>();
+        TimingWheel.Timeout<String> cancelled = wheel.schedule("cancelled", 5_000);
+        wheel.schedule("kept", 5_000);
+
+        assertThat(cancelled.cancel()).isTrue();
+        assertThat(cancelled.cancel()).isFalse();
+        assertThat(wheel.size()).isEqualTo(1);
+
+        wheel.advanceTo(10_000, fired::add);
+        assertThat(fired).containsExactly("kept");
+    }
+
+    @Test
+    @DisplayName("Should fire deadlines beyond the wheel range after re-cascading")
+    void shouldHandleDeadlinesBeyondRange() {
+        // 8^2 ticks of 10ms = 640ms range
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 2, 0);
+        List<String> fired = new ArrayList<>();
+        wheel.schedule("far", 5_000);
+
+        wheel.advanceTo(4_990, fired::add);
+        assertThat(fired).isEmpty();
+
+        wheel.advanceTo(5_000, fired::add);
+        assertThat(fired).containsExactly("far");
+    }
+
+    @Test
+    @DisplayName("Should fire every timer exactly once, never early")
+    void shouldFireEveryTimerOnce() {
+        Random random = new Random(42);
+        TimingWheel<Long> wheel = new TimingWheel<>(10, 16, 3, 0);
+        int timers = 10_000;
+        for (int i = 0; i < timers; i++) {
+            long deadline = random.nextInt(600_000);
+            wheel.schedule(deadline, deadline);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        long now = 0;
+        while (!wheel.isEmpty()) {
+            now += random.nextInt(250);
+            long current = now;
+            wheel.advanceTo(now, deadline -> {
+                assertThat(deadline).isLessThanOrEqualTo(current);
+                fired.add(deadline);
+            });
+        }
+
+        assertThat(fired).hasSize(timers);
+    }
+
+    @Test
+    @DisplayName("Should reject wheel sizes that are not powers of two")
+    void shouldRejectInvalidWheelSize() {
+        assertThatThrownBy(() -> new TimingWheel<>(10, 10, 3, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
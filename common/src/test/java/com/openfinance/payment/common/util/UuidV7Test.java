@@ -0,0 +1,66 @@
+package com.openfinance.payment.common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("UUIDv7 Tests")
+class UuidV7Test {
+
+    @Test
+    @DisplayName("Should set version 7 and the RFC variant")
+    void shouldSetVersionAndVariant() {
+        UUID uuid = UuidV7.generate();
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should encode the creation millisecond")
+    void shouldEncodeTimestamp() {
+        long millis = 1_763_578_800_123L;
+
+        UUID uuid = UuidV7.generate(millis);
+
+        assertThat(UuidV7.timestamp(uuid)).isEqualTo(millis);
+        assertThat(uuid.toString()).startsWith("019a9d");
+    }
+
+    @Test
+    @DisplayName("Should order UUIDs from different milliseconds by time, as Postgres compares them")
+    void shouldOrderByTime() {
+        List<String> uuids = new ArrayList<>();
+        for (long millis = 1_700_000_000_000L; millis < 1_700_000_001_000L; millis++) {
+            uuids.add(UuidV7.generate(millis).toString());
+        }
+
+        assertThat(uuids).isSorted();
+    }
+
+    @Test
+    @DisplayName("Should generate unique UUIDs within one millisecond")
+    void shouldBeUniqueWithinMillisecond() {
+        Set<UUID> uuids = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            uuids.add(UuidV7.generate(1_700_000_000_000L));
+        }
+
+        assertThat(uuids).hasSize(100_000);
+    }
+
+    @Test
+    @DisplayName("Should reject timestamps of other UUID versions")
+    void shouldRejectOtherVersions() {
+        assertThatThrownBy(() -> UuidV7.timestamp(UUID.randomUUID()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
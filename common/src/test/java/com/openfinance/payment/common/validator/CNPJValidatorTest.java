@@ -5,6 +5,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.nio.charset.StandardCharsets;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DisplayName("CNPJ Validator Tests")
@@ -61,4 +63,13 @@ class CNPJValidatorTest {
         assertThat(CNPJValidator.isValid("1122233300018A")).isFalse();
         assertThat(CNPJValidator.isValid("ABC22333000181")).isFalse();
     }
+
+    @Test
+    @DisplayName("Should validate CNPJ from a byte range or a CharSequence")
+    void shouldValidateBytesAndCharSequences() {
+        byte[] body = "{\"document\":\"11.222.333/0001-81\"}".getBytes(StandardCharsets.UTF_8);
+        assertThat(CNPJValidator.isValid(body, 13, 18)).isTrue();
+        assertThat(CNPJValidator.isValid(body, 13, 17)).isFalse();
+        assertThat(CNPJValidator.isValid(new StringBuilder("11222333000181"))).isTrue();
+    }
 }
@@ -5,6 +5,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.nio.charset.StandardCharsets;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DisplayName("CPF Validator Tests")
@@ -61,4 +63,13 @@ class CPFValidatorTest {
         assertThat(CPFValidator.isValid("1234567890A")).isFalse();
         assertThat(CPFValidator.isValid("ABC45678909")).isFalse();
     }
+
+    @Test
+    @DisplayName("Should validate CPF from a byte range or a CharSequence")
+    void shouldValidateBytesAndCharSequences() {
+        byte[] body = "{\"document\":\"123.456.789-09\"}".getBytes(StandardCharsets.UTF_8);
+        assertThat(CPFValidator.isValid(body, 13, 14)).isTrue();
+        assertThat(CPFValidator.isValid(body, 13, 13)).isFalse();
+        assertThat(CPFValidator.isValid(new StringBuilder("12345678909"))).isTrue();
+    }
 }
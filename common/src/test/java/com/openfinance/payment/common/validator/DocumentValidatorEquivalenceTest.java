@@ -0,0 +1,160 @@
+package com.openfinance.payment.common.validator;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the single-pass CPF/CNPJ validators against the regex-based implementation they replaced
+ */
+@DisplayName("CPF/CNPJ Validator Equivalence Tests")
+class DocumentValidatorEquivalenceTest {
+
+    private static final String ALPHABET = "0123456789.-/ aZ٣é😀";
+
+    @Test
+    @DisplayName("Should agree on every check digit pair for 20k CPF and CNPJ bases")
+    void shouldAgreeOnAllCheckDigits() {
+        SplittableRandom random = new SplittableRandom(19);
+        int valid = 0;
+        for (int i = 0; i < 20_000; i++) {
+            String cpfBase = String.format("%09d", random.nextInt(1_000_000_000));
+            String cnpjBase = String.format("%012d", random.nextLong(1_000_000_000_000L));
+            for (int checkDigits = 0; checkDigits < 100; checkDigits++) {
+                String suffix = String.format("%02d", checkDigits);
+                valid += assertCpfAgrees(cpfBase + suffix) ? 1 : 0;
+                valid += assertCnpjAgrees(cnpjBase + suffix) ? 1 : 0;
+            }
+        }
+        // Exactly one check digit pair is right for each base that is not all one digit
+        assertThat(valid).isEqualTo(40_000);
+    }
+
+    @Test
+    @DisplayName("Should agree on documents made of a single repeated digit")
+    void shouldAgreeOnRepeatedDigits() {
+        for (char digit = '0'; digit <= '9'; digit++) {
+            assertCpfAgrees(String.valueOf(digit).repeat(11));
+            assertCnpjAgrees(String.valueOf(digit).repeat(14));
+        }
+    }
+
+    @Test
+    @DisplayName("Should agree when any character is inserted into or replaces one of a valid document")
+    void shouldAgreeOnSingleCharacterMutations() {
+        for (String document : new String[]{"12345678909", "11144477735", "11222333000181", "11444777000161"}) {
+            for (int position = 0; position <= document.length(); position++) {
+                for (int i = 0; i < ALPHABET.length(); i++) {
+                    String inserted = document.substring(0, position) + ALPHABET.charAt(i) + document.substring(position);
+                    assertCpfAgrees(inserted);
+                    assertCnpjAgrees(inserted);
+                    if (position < document.length()) {
+                        String replaced = document.substring(0, position) + ALPHABET.charAt(i)
+                                + document.substring(position + 1);
+                        assertCpfAgrees(replaced);
+                        assertCnpjAgrees(replaced);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should agree on 1M random strings of digits and formatting characters")
+    void shouldAgreeOnRandomStrings() {
+        SplittableRandom random = new SplittableRandom(42);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 1_000_000; i++) {
+            builder.setLength(0);
+            int length = random.nextInt(20);
+            for (int j = 0; j < length; j++) {
+                builder.append(random.nextInt(4) == 0
+                        ? ALPHABET.charAt(random.nextInt(ALPHABET.length()))
+                        : (char) ('0' + random.nextInt(10)));
+            }
+            String input = builder.toString();
+            assertCpfAgrees(input);
+            assertCnpjAgrees(input);
+        }
+    }
+
+    private static boolean assertCpfAgrees(String input) {
+        boolean expected = legacyCpfIsValid(input);
+        assertThat(CPFValidator.isValid(input)).as("CPF %s", input).isEqualTo(expected);
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        assertThat(CPFValidator.isValid(bytes, 0, bytes.length)).as("CPF bytes %s", input)
+                .isEqualTo(expected);
+        return expected;
+    }
+
+    private static boolean assertCnpjAgrees(String input) {
+        boolean expected = legacyCnpjIsValid(input);
+        assertThat(CNPJValidator.isValid(input)).as("CNPJ %s", input).isEqualTo(expected);
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        assertThat(CNPJValidator.isValid(bytes, 0, bytes.length)).as("CNPJ bytes %s", input)
+                .isEqualTo(expected);
+        return expected;
+    }
+
+    private static boolean legacyCpfIsValid(String cpf) {
+        if (cpf == null || cpf.isEmpty()) {
+            return false;
+        }
+        String cleanCpf = cpf.replaceAll("\\D", "");
+        if (cleanCpf.length() != 11 || cleanCpf.matches("(\\d)\\1{10}")) {
+            return false;
+        }
+        int sum = 0;
+        for (int i = 0; i < 9; i++) {
+            sum += Character.getNumericValue(cleanCpf.charAt(i)) * (10 - i);
+        }
+        int firstCheckDigit = 11 - (sum % 11);
+        if (firstCheckDigit >= 10) {
+            firstCheckDigit = 0;
+        }
+        if (firstCheckDigit != Character.getNumericValue(cleanCpf.charAt(9))) {
+            return false;
+        }
+        sum = 0;
+        for (int i = 0; i < 10; i++) {
+            sum += Character.getNumericValue(cleanCpf.charAt(i)) * (11 - i);
+        }
+        int secondCheckDigit = 11 - (sum % 11);
+        if (secondCheckDigit >= 10) {
+            secondCheckDigit = 0;
+        }
+        return secondCheckDigit == Character.getNumericValue(cleanCpf.charAt(10));
+    }
+
+    private static boolean legacyCnpjIsValid(String cnpj) {
+        if (cnpj == null || cnpj.isEmpty()) {
+            return false;
+        }
+        String cleanCnpj = cnpj.replaceAll("\\D", "");
+        if (cleanCnpj.length() != 14 || cleanCnpj.matches("(\\d)\\1{13}")) {
+            return false;
+        }
+        int[] weights1 = {5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2};
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += Character.getNumericValue(cleanCnpj.charAt(i)) * weights1[i];
+        }
+        int firstCheckDigit = sum % 11;
+        firstCheckDigit = (firstCheckDigit < 2) ? 0 : 11 - firstCheckDigit;
+        if (firstCheckDigit != Character.getNumericValue(cleanCnpj.charAt(12))) {
+            return false;
+        }
+        int[] weights2 = {6, 5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2};
+        sum = 0;
+        for (int i = 0; i < 13; i++) {
+            sum += Character.getNumericValue(cleanCnpj.charAt(i)) * weights2[i];
+        }
+        int secondCheckDigit = sum % 11;
+        secondCheckDigit = (secondCheckDigit < 2) ? 0 : 11 - secondCheckDigit;
+        return secondCheckDigit == Character.getNumericValue(cleanCnpj.charAt(13));
+    }
+}
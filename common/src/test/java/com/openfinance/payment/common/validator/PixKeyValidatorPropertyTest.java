@@ -0,0 +1,127 @@
+package com.openfinance.payment.common.validator;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property tests: the hand-written PIX key scans must accept exactly what the regex-based
+ * implementation they replaced accepted. Inputs are seeded random strings drawn from alphabets
+ * aimed at each key type, and random edits of valid keys, checked under every key type.
+ */
+@DisplayName("PIX Key Validator Property Tests")
+class PixKeyValidatorPropertyTest {
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile(
+            "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$"
+    );
+    private static final Pattern PHONE_PATTERN = Pattern.compile(
+            "^\\+55\\d{10,11}$"
+    );
+    private static final Pattern RANDOM_KEY_PATTERN = Pattern.compile(
+            "^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$"
+    );
+
+    private static final String[] ALPHABETS = {
+            "abcXYZ019+_.-@",
+            "0123456789+-() .a٣",
+            "0123456789abcdefABCDEFg-",
+            "abc@.-\n\té😀",
+    };
+
+    private static final String[] VALID_KEYS = {
+            "user@example.com",
+            "a.b+c_d@sub-domain.example.com.br",
+            "+5511987654321",
+            "(55) 11 98765-4321",
+            "123e4567-e89b-12d3-a456-426614174000",
+            "550E8400-E29B-41D4-A716-446655440000",
+    };
+
+    private static final String[] TYPES = {
+            "EMAIL", "PHONE", "RANDOM", "CPF", "CNPJ",
+            "email", "Phone", "rAnDoM", "EMAİL", "emaıl", "UNKNOWN",
+    };
+
+    @Test
+    @DisplayName("Should agree with the regexes on random strings")
+    void shouldAgreeOnRandomStrings() {
+        SplittableRandom random = new SplittableRandom(20);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 500_000; i++) {
+            String alphabet = ALPHABETS[random.nextInt(ALPHABETS.length)];
+            builder.setLength(0);
+            int length = random.nextInt(40);
+            for (int j = 0; j < length; j++) {
+                builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            assertAgrees(builder.toString(), TYPES[random.nextInt(TYPES.length)]);
+        }
+    }
+
+    @Test
+    @DisplayName("Should agree with the regexes on random edits of valid keys")
+    void shouldAgreeOnEditedValidKeys() {
+        SplittableRandom random = new SplittableRandom(2020);
+        for (int i = 0; i < 500_000; i++) {
+            StringBuilder key = new StringBuilder(VALID_KEYS[random.nextInt(VALID_KEYS.length)]);
+            String alphabet = ALPHABETS[random.nextInt(ALPHABETS.length)];
+            int edits = random.nextInt(4);
+            for (int e = 0; e < edits && !key.isEmpty(); e++) {
+                int position = random.nextInt(key.length());
+                char c = alphabet.charAt(random.nextInt(alphabet.length()));
+                switch (random.nextInt(3)) {
+                    case 0 -> key.insert(position, c);
+                    case 1 -> key.setCharAt(position, c);
+                    default -> key.deleteCharAt(position);
+                }
+            }
+            for (String type : TYPES) {
+                assertAgrees(key.toString(), type);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should accept every valid key under its own type")
+    void shouldAcceptValidKeys() {
+        assertThat(PixKeyValidator.isValid(VALID_KEYS[0], "EMAIL")).isTrue();
+        assertThat(PixKeyValidator.isValid(VALID_KEYS[1], "email")).isTrue();
+        assertThat(PixKeyValidator.isValid(VALID_KEYS[2], "PHONE")).isTrue();
+        assertThat(PixKeyValidator.isValid(VALID_KEYS[3], "PHONE")).isTrue();
+        assertThat(PixKeyValidator.isValid(VALID_KEYS[4], "RANDOM")).isTrue();
+        assertThat(PixKeyValidator.isValid(VALID_KEYS[5], "RANDOM")).isTrue();
+    }
+
+    private static void assertAgrees(String pixKey, String pixKeyType) {
+        assertThat(PixKeyValidator.isValid(pixKey, pixKeyType))
+                .as("%s key '%s'", pixKeyType, pixKey)
+                .isEqualTo(legacyIsValid(pixKey, pixKeyType));
+    }
+
+    private static boolean legacyIsValid(String pixKey, String pixKeyType) {
+        if (pixKey == null || pixKey.isEmpty() || pixKeyType == null || pixKeyType.isEmpty()) {
+            return false;
+        }
+        return switch (pixKeyType.toUpperCase()) {
+            case "EMAIL" -> EMAIL_PATTERN.matcher(pixKey).matches();
+            case "CPF" -> CPFValidator.isValid(pixKey);
+            case "CNPJ" -> CNPJValidator.isValid(pixKey);
+            case "PHONE" -> legacyIsValidPhone(pixKey);
+            case "RANDOM" -> RANDOM_KEY_PATTERN.matcher(pixKey.toLowerCase()).matches();
+            default -> false;
+        };
+    }
+
+    private static boolean legacyIsValidPhone(String phone) {
+        String cleanPhone = phone.replaceAll("\\D", "");
+        if (cleanPhone.length() >= 12 && cleanPhone.startsWith("55")) {
+            return PHONE_PATTERN.matcher("+" + cleanPhone).matches();
+        }
+        return cleanPhone.length() >= 12 && cleanPhone.length() <= 13 && cleanPhone.startsWith("55");
+    }
+}
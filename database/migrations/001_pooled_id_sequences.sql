@@ -0,0 +1,22 @@
+-- Switch payment_queue and audit_log from BIGSERIAL identity inserts to pooled sequences.
+-- Hibernate allocates ids in blocks of 50 (allocationSize on the entities), which lets it
+-- batch inserts; the sequence INCREMENT must match or the services refuse to start.
+--
+-- Run once against databases created from the schema.sql before this change:
+--   psql -h localhost -p 5433 -U admin -d payment_processor -f database/migrations/001_pooled_id_sequences.sql
+
+BEGIN;
+
+-- Ids now come only from the application; a column default drawing from the same
+-- sequence would hand out values inside blocks Hibernate has already reserved
+ALTER TABLE payment_queue ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE audit_log ALTER COLUMN id DROP DEFAULT;
+
+ALTER SEQUENCE payment_queue_id_seq INCREMENT BY 50;
+ALTER SEQUENCE audit_log_id_seq INCREMENT BY 50;
+
+-- Hibernate uses [value - 49, value] from each nextval, so start the first block past existing ids
+SELECT setval('payment_queue_id_seq', COALESCE((SELECT MAX(id) FROM payment_queue), 0) + 50, false);
+SELECT setval('audit_log_id_seq', COALESCE((SELECT MAX(id) FROM audit_log), 0) + 50, false);
+
+COMMIT;
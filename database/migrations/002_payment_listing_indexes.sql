@@ -0,0 +1,14 @@
+-- Composite indexes for keyset pagination of GET /api/v1/payments on (created_at, id).
+-- They replace the single-column status and created_at indexes, which they cover as prefixes.
+--
+-- CONCURRENTLY keeps the table writable while the indexes build, so this script must not
+-- run inside a transaction:
+--   psql -h localhost -p 5433 -U admin -d payment_processor -f database/migrations/002_payment_listing_indexes.sql
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_payments_created_at_id
+    ON payments(created_at DESC, id DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_payments_status_created_at_id
+    ON payments(status, created_at DESC, id DESC);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_payments_status;
+DROP INDEX CONCURRENTLY IF EXISTS idx_payments_created_at;
@@ -0,0 +1,12 @@
+-- Index for the payment detail timeline: one payment's audit rows in created_at order, with the
+-- timeline columns included so GET /api/v1/payments/{paymentId} can use an index-only scan.
+-- It replaces the plain payment_id index, which it covers as a prefix.
+--
+-- CONCURRENTLY keeps the table writable while the index builds, so this script must not
+-- run inside a transaction:
+--   psql -h localhost -p 5433 -U admin -d payment_processor -f database/migrations/003_audit_log_timeline_index.sql
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_audit_log_payment_timeline
+    ON audit_log(payment_id, created_at) INCLUDE (event_type, new_status);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_audit_log_payment_id;
@@ -0,0 +1,24 @@
+-- Add the optimistic lock version on payments and the lease columns on payment_queue.
+-- Hibernate's ddl-auto would add payments.version as a nullable column, leaving existing rows
+-- with a NULL version that breaks the version checks, so databases created before these
+-- columns need this script. It also repairs a version column already added that way.
+--
+-- CONCURRENTLY keeps payment_queue writable while the index builds, so this script must not
+-- run inside a transaction:
+--   psql -h localhost -p 5433 -U admin -d payment_processor -f database/migrations/004_payment_version_and_queue_leases.sql
+
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+UPDATE payments SET version = 0 WHERE version IS NULL;
+ALTER TABLE payments ALTER COLUMN version SET DEFAULT 0;
+ALTER TABLE payments ALTER COLUMN version SET NOT NULL;
+
+ALTER TABLE payment_queue ADD COLUMN IF NOT EXISTS lease_owner VARCHAR(100);
+ALTER TABLE payment_queue ADD COLUMN IF NOT EXISTS lease_expires_at TIMESTAMP;
+
+-- Ready items, as scanned by the SKIP LOCKED claim
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_payment_queue_ready
+    ON payment_queue(next_retry_at) WHERE retry_count < max_retries;
+
+COMMENT ON COLUMN payments.version IS 'Optimistic lock version, bumped on every update';
+COMMENT ON COLUMN payment_queue.lease_owner IS 'Processing node currently holding this item';
+COMMENT ON COLUMN payment_queue.lease_expires_at IS 'After this time the item may be reclaimed by another node';
@@ -6,6 +6,7 @@ CREATE EXTENSION IF NOT EXISTS "uuid-ossp";
 
 -- Payments table
 CREATE TABLE IF NOT EXISTS payments (
+    -- Assigned by the application as a time-ordered UUIDv7; the default only serves manual inserts
     id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
     payment_id VARCHAR(50) UNIQUE NOT NULL,
     idempotency_key UUID UNIQUE,
@@ -22,33 +23,43 @@ CREATE TABLE IF NOT EXISTS payments (
     failure_reason VARCHAR(500),
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     processed_at TIMESTAMP,
-    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
 -- Create indexes for payments
-CREATE INDEX IF NOT EXISTS idx_payments_status ON payments(status);
-CREATE INDEX IF NOT EXISTS idx_payments_created_at ON payments(created_at);
+-- Listing order (created_at, id) for keyset pagination, with and without the status filter;
+-- the status index also serves plain status lookups
+CREATE INDEX IF NOT EXISTS idx_payments_created_at_id ON payments(created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_payments_status_created_at_id ON payments(status, created_at DESC, id DESC);
 CREATE INDEX IF NOT EXISTS idx_payments_payment_id ON payments(payment_id);
 CREATE INDEX IF NOT EXISTS idx_payments_idempotency_key ON payments(idempotency_key);
 
 -- Payment queue table
+CREATE SEQUENCE IF NOT EXISTS payment_queue_id_seq INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS payment_queue (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     payment_id UUID NOT NULL REFERENCES payments(id) ON DELETE CASCADE,
     retry_count INT DEFAULT 0 NOT NULL,
     max_retries INT DEFAULT 3 NOT NULL,
     next_retry_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     last_error VARCHAR(1000),
+    lease_owner VARCHAR(100),
+    lease_expires_at TIMESTAMP,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
 -- Create indexes for payment_queue
 CREATE INDEX IF NOT EXISTS idx_payment_queue_next_retry ON payment_queue(next_retry_at);
 CREATE INDEX IF NOT EXISTS idx_payment_queue_payment_id ON payment_queue(payment_id);
+CREATE INDEX IF NOT EXISTS idx_payment_queue_ready ON payment_queue(next_retry_at) WHERE retry_count < max_retries;
 
 -- Audit log table
+CREATE SEQUENCE IF NOT EXISTS audit_log_id_seq INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS audit_log (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     payment_id UUID NOT NULL REFERENCES payments(id) ON DELETE CASCADE,
     event_type VARCHAR(50) NOT NULL CHECK (event_type IN ('CREATED', 'STATUS_CHANGED', 'RECONCILED', 'RETRY_ATTEMPTED', 'FAILED')),
     old_status VARCHAR(20),
@@ -58,7 +69,8 @@ CREATE TABLE IF NOT EXISTS audit_log (
 );
 
 -- Create indexes for audit_log
-CREATE INDEX IF NOT EXISTS idx_audit_log_payment_id ON audit_log(payment_id);
+-- A payment's timeline in order, without sorting or visiting the heap for the timeline columns
+CREATE INDEX IF NOT EXISTS idx_audit_log_payment_timeline ON audit_log(payment_id, created_at) INCLUDE (event_type, new_status);
 CREATE INDEX IF NOT EXISTS idx_audit_log_created_at ON audit_log(created_at);
 CREATE INDEX IF NOT EXISTS idx_audit_log_event_type ON audit_log(event_type);
 
@@ -81,5 +93,10 @@ COMMENT ON TABLE payment_queue IS 'Queue for async payment processing with retry
 COMMENT ON TABLE audit_log IS 'Immutable audit trail of all payment events';
 
 COMMENT ON COLUMN payments.idempotency_key IS 'Unique key to prevent duplicate payments';
+COMMENT ON COLUMN payments.version IS 'Optimistic lock version, bumped on every update';
+COMMENT ON COLUMN payment_queue.id IS 'Assigned by the application from payment_queue_id_seq in blocks of 50';
 COMMENT ON COLUMN payment_queue.next_retry_at IS 'Next time this payment should be retried';
+COMMENT ON COLUMN payment_queue.lease_owner IS 'Processing node currently holding this item';
+COMMENT ON COLUMN payment_queue.lease_expires_at IS 'After this time the item may be reclaimed by another node';
+COMMENT ON COLUMN audit_log.id IS 'Assigned by the application from audit_log_id_seq in blocks of 50';
 COMMENT ON COLUMN audit_log.metadata IS 'Additional context stored as JSON';
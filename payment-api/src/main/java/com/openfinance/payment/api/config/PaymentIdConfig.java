@@ -0,0 +1,32 @@
+package com.openfinance.payment.api.config;
+
+import com.openfinance.payment.common.util.PaymentIdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Payment ID generation. Every payment-api replica needs its own {@code payment.id.node-id}
+ * (0-1023), assigned by the deployment; two replicas sharing one could hand out the same IDs.
+ * Startup fails without it unless {@code payment.id.single-node} declares that only one
+ * replica runs, which then uses node 0.
+ */
+@Configuration
+@Slf4j
+public class PaymentIdConfig {
+
+    @Bean
+    public PaymentIdGenerator paymentIdGenerator(@Value("${payment.id.node-id:}") String nodeId,
+                                                 @Value("${payment.id.single-node:false}") boolean singleNode) {
+        if (!nodeId.isBlank()) {
+            return new PaymentIdGenerator(Integer.parseInt(nodeId.trim()));
+        }
+        if (!singleNode) {
+            throw new IllegalStateException("payment.id.node-id (PAYMENT_NODE_ID) must be set to a node ID "
+                    + "unique to this replica, or payment.id.single-node to true when only one replica runs");
+        }
+        log.info("payment.id.node-id is not set; single node, using node ID 0");
+        return new PaymentIdGenerator(0);
+    }
+}
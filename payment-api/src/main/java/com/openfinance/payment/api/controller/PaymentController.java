@@ -1,19 +1,40 @@
 package com.openfinance.payment.api.controller;
 
+import com.openfinance.payment.api.events.PaymentEventsService;
+import com.openfinance.payment.api.exception.InvalidCursorException;
+import com.openfinance.payment.api.exception.InvalidExportException;
+import com.openfinance.payment.api.exception.InvalidPaymentException;
+import com.openfinance.payment.api.export.ExportFormat;
+import com.openfinance.payment.api.export.PaymentExportFilter;
+import com.openfinance.payment.api.export.PaymentExportService;
+import com.openfinance.payment.api.idempotency.IdempotencyService;
+import com.openfinance.payment.api.service.PaymentBatchService;
 import com.openfinance.payment.api.service.PaymentService;
+import com.openfinance.payment.common.dto.BatchPaymentRequest;
+import com.openfinance.payment.common.dto.BatchPaymentResponse;
+import com.openfinance.payment.common.dto.CursorPageResponse;
 import com.openfinance.payment.common.dto.PageResponse;
 import com.openfinance.payment.common.dto.PaymentRequest;
 import com.openfinance.payment.common.dto.PaymentResponse;
+import com.openfinance.payment.common.entity.PaymentStatus;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @RestController
@@ -22,7 +43,14 @@ import java.util.UUID;
 @Slf4j
 public class PaymentController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+    private static final int MAX_WAIT_SECONDS = 120;
+
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
+    private final PaymentBatchService batchService;
+    private final PaymentExportService exportService;
+    private final PaymentEventsService eventsService;
 
     @PostMapping
     public ResponseEntity<PaymentResponse> createPayment(
@@ -33,11 +61,83 @@ public class PaymentController {
                 request.getType(), request.getAmount());
 
         UUID idempotencyKey = idempotencyKeyHeader != null ? UUID.fromString(idempotencyKeyHeader) : null;
-        PaymentResponse response = paymentService.createPayment(request, idempotencyKey);
+        PaymentResponse response = idempotencyService.createPayment(request, idempotencyKey);
 
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<BatchPaymentResponse> createPayments(@Valid @RequestBody BatchPaymentRequest request) {
+        log.info("Received batch payment request: items={}", request.getItems().size());
+        BatchPaymentResponse response = batchService.createPayments(request);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Streams every matching payment as NDJSON or CSV without paging
+     * @param from inclusive lower bound on createdAt
+     * @param to   exclusive upper bound on createdAt
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "false") boolean includeEvents) {
+
+        log.info("Exporting payments: format={}, status={}, from={}, to={}, includeEvents={}",
+                format, status, from, to, includeEvents);
+
+        ExportFormat exportFormat = ExportFormat.from(format);
+        PaymentStatus paymentStatus = null;
+        if (status != null && !status.isEmpty()) {
+            try {
+                paymentStatus = PaymentStatus.valueOf(status.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new InvalidExportException("Unknown status: " + status);
+            }
+        }
+        PaymentExportFilter filter = new PaymentExportFilter(paymentStatus, from, to, includeEvents);
+
+        StreamingResponseBody body = out -> exportService.export(filter, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=payments." + exportFormat.extension())
+                .body(body);
+    }
+
+    /**
+     * Long poll: answers as soon as the payment is terminal, or with its current state
+     * after {@code timeout} seconds
+     */
+    @GetMapping(value = "/{paymentId}", params = "waitFor")
+    public DeferredResult<PaymentResponse> awaitPayment(
+            @PathVariable String paymentId,
+            @RequestParam String waitFor,
+            @RequestParam(defaultValue = "30") int timeout) {
+
+        if (!"terminal".equals(waitFor)) {
+            throw new InvalidPaymentException("waitFor must be 'terminal'");
+        }
+        if (timeout < 1 || timeout > MAX_WAIT_SECONDS) {
+            throw new InvalidPaymentException("timeout must be between 1 and " + MAX_WAIT_SECONDS + " seconds");
+        }
+
+        log.debug("Waiting for payment to settle: {}, timeout={}s", paymentId, timeout);
+        return eventsService.awaitTerminal(paymentId, Duration.ofSeconds(timeout));
+    }
+
+    /**
+     * Server-Sent Events: a {@code status} event with the current status, then one per change,
+     * ending after a terminal status
+     */
+    @GetMapping(value = "/{paymentId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPaymentEvents(@PathVariable String paymentId) {
+        log.debug("Streaming payment events: {}", paymentId);
+        return eventsService.streamEvents(paymentId);
+    }
+
     @GetMapping("/{paymentId}")
     public ResponseEntity<PaymentResponse> getPayment(@PathVariable String paymentId) {
         log.info("Fetching payment: {}", paymentId);
@@ -64,4 +164,24 @@ public class PaymentController {
 
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Keyset mode, selected by the {@code cursor} parameter (empty for the first page).
+     * Always newest first; skips the count and stays fast at any depth.
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageResponse<PaymentResponse>> listPaymentsByCursor(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        log.info("Listing payments by cursor: status={}, size={}", status, size);
+
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new InvalidCursorException("Size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+
+        CursorPageResponse<PaymentResponse> response = paymentService.listPayments(status, cursor, size);
+        return ResponseEntity.ok(response);
+    }
 }
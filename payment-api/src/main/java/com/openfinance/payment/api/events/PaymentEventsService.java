@@ -0,0 +1,214 @@
+package com.openfinance.payment.api.events;
+
+import com.openfinance.payment.api.service.PaymentService;
+import com.openfinance.payment.common.dto.PaymentResponse;
+import com.openfinance.payment.common.entity.PaymentStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes payment status changes to clients instead of having them poll.
+ *
+ * Both the SSE stream and the long poll subscribe to the {@link PaymentStatusHub} before
+ * reading the current status, so a change that commits in between is delivered rather
+ * than lost. Waiting clients hold no request thread, only their connection.
+ */
+@Service
+@Slf4j
+public class PaymentEventsService {
+
+    private final PaymentService paymentService;
+    private final PaymentStatusHub hub;
+    private final Duration streamTimeout;
+    private final Set<StatusStream> streams = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("payment-events-heartbeat").daemon(true).factory());
+
+    public PaymentEventsService(PaymentService paymentService,
+                                PaymentStatusHub hub,
+                                @Value("${payment.events.stream-timeout:30m}") Duration streamTimeout,
+                                @Value("${payment.events.heartbeat:15s}") Duration heartbeatInterval) {
+        this.paymentService = paymentService;
+        this.hub = hub;
+        this.streamTimeout = streamTimeout;
+
+        // Keeps proxies from closing idle streams and finds clients that went away
+        long interval = heartbeatInterval.toMillis();
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeats, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * SSE stream that sends the current status, then every change, and completes once the
+     * payment is terminal
+     */
+    public SseEmitter streamEvents(String paymentId) {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        StatusStream stream = new StatusStream(paymentId, emitter);
+        PaymentStatusHub.Subscription subscription = hub.subscribe(paymentId, stream::send);
+
+        PaymentResponse current;
+        try {
+            current = paymentService.getPaymentById(paymentId);
+        } catch (RuntimeException e) {
+            subscription.close();
+            throw e;
+        }
+
+        streams.add(stream);
+        Runnable cleanup = () -> {
+            subscription.close();
+            streams.remove(stream);
+        };
+        emitter.onCompletion(cleanup);
+        emitter.onTimeout(cleanup);
+        emitter.onError(error -> cleanup.run());
+
+        stream.sendInitial(PaymentStatus.valueOf(current.getStatus()));
+        return emitter;
+    }
+
+    /**
+     * Completes with the payment details once it is terminal, or with its current details
+     * when {@code timeout} passes first
+     */
+    public DeferredResult<PaymentResponse> awaitTerminal(String paymentId, Duration timeout) {
+        DeferredResult<PaymentResponse> result = new DeferredResult<>(timeout.toMillis());
+        PaymentStatusHub.Subscription subscription = hub.subscribe(paymentId, status -> {
+            if (isTerminal(status)) {
+                complete(result, paymentId);
+            }
+        });
+
+        PaymentResponse current;
+        try {
+            current = paymentService.getPaymentById(paymentId);
+        } catch (RuntimeException e) {
+            subscription.close();
+            throw e;
+        }
+
+        result.onCompletion(subscription::close);
+        result.onTimeout(() -> complete(result, paymentId));
+
+        if (isTerminal(PaymentStatus.valueOf(current.getStatus()))) {
+            result.setResult(current);
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        streams.forEach(stream -> stream.emitter.complete());
+    }
+
+    private void complete(DeferredResult<PaymentResponse> result, String paymentId) {
+        if (result.isSetOrExpired()) {
+            return;
+        }
+        try {
+            result.setResult(paymentService.getPaymentById(paymentId));
+        } catch (RuntimeException e) {
+            result.setErrorResult(e);
+        }
+    }
+
+    /**
+     * Each write goes through the hub's virtual threads, so one stalled client does not hold
+     * up the heartbeats of the others
+     */
+    private void sendHeartbeats() {
+        for (StatusStream stream : streams) {
+            hub.dispatch(stream::sendHeartbeat);
+        }
+    }
+
+    static boolean isTerminal(PaymentStatus status) {
+        return status == PaymentStatus.SUCCESS
+                || status == PaymentStatus.FAILED
+                || status == PaymentStatus.CANCELLED;
+    }
+
+    /**
+     * One client's stream; drops repeated statuses and anything after a terminal one.
+     * Writes are serialized with a lock rather than a monitor, so a virtual thread blocked
+     * on a slow client does not pin its carrier.
+     */
+    private static final class StatusStream {
+
+        private final String paymentId;
+        private final SseEmitter emitter;
+        private final ReentrantLock lock = new ReentrantLock();
+        private PaymentStatus lastSent;
+
+        StatusStream(String paymentId, SseEmitter emitter) {
+            this.paymentId = paymentId;
+            this.emitter = emitter;
+        }
+
+        /**
+         * Skipped if a notification got here first: it is at least as recent as our read
+         */
+        void sendInitial(PaymentStatus status) {
+            lock.lock();
+            try {
+                if (lastSent == null) {
+                    send(status);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void send(PaymentStatus status) {
+            lock.lock();
+            try {
+                if (status == lastSent || (lastSent != null && isTerminal(lastSent))) {
+                    return;
+                }
+                lastSent = status;
+                emitter.send(SseEmitter.event()
+                        .name("status")
+                        .data(Map.of("paymentId", paymentId, "status", status.name()), MediaType.APPLICATION_JSON));
+                if (isTerminal(status)) {
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Skipped while another write is in progress, which keeps the connection busy anyway
+         */
+        void sendHeartbeat() {
+            if (!lock.tryLock()) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().comment("keepalive"));
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
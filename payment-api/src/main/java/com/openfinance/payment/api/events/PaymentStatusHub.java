@@ -0,0 +1,149 @@
+package com.openfinance.payment.api.events;
+
+import com.openfinance.payment.common.entity.PaymentStatus;
+import com.openfinance.payment.common.repository.PaymentRepository;
+import com.openfinance.payment.common.repository.PaymentStatusView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Fans status-change notifications out to the clients waiting on a payment.
+ *
+ * Subscriptions are indexed by payment id, so a notification costs one map lookup no
+ * matter how many clients are connected. Callbacks run on virtual threads because they
+ * write to client connections, which can block, and must not stall the listener.
+ */
+@Component
+@Slf4j
+public class PaymentStatusHub {
+
+    private static final int RESYNC_CHUNK_SIZE = 1000;
+
+    private final ConcurrentHashMap<String, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriptionCount = new AtomicInteger();
+    private final ExecutorService dispatcher = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("payment-status-", 0).factory());
+    private final PaymentRepository paymentRepository;
+    private final Counter deliveredCounter;
+
+    public PaymentStatusHub(PaymentRepository paymentRepository, MeterRegistry meterRegistry) {
+        this.paymentRepository = paymentRepository;
+
+        Gauge.builder("payments.status.subscriptions", subscriptionCount, AtomicInteger::get)
+                .description("Clients waiting for payment status changes")
+                .register(meterRegistry);
+
+        this.deliveredCounter = Counter.builder("payments.status.deliveries")
+                .description("Status changes delivered to waiting clients")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param listener called with every status the payment moves to, possibly more than once
+     */
+    public Subscription subscribe(String paymentId, Consumer<PaymentStatus> listener) {
+        Subscription subscription = new Subscription(paymentId, listener);
+        subscriptions.compute(paymentId, (id, set) -> {
+            Set<Subscription> subscribers = set != null ? set : ConcurrentHashMap.newKeySet();
+            subscribers.add(subscription);
+            return subscribers;
+        });
+        subscriptionCount.incrementAndGet();
+        return subscription;
+    }
+
+    public void publish(String paymentId, PaymentStatus status) {
+        Set<Subscription> subscribers = subscriptions.get(paymentId);
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscription subscription : subscribers) {
+            deliveredCounter.increment();
+            dispatcher.execute(() -> subscription.deliver(status));
+        }
+    }
+
+    /**
+     * Runs a write to a client connection on the hub's virtual threads
+     */
+    void dispatch(Runnable task) {
+        dispatcher.execute(task);
+    }
+
+    /**
+     * Republishes the current status of every watched payment, for notifications that may
+     * have been missed while the listener was disconnected
+     */
+    public void resync() {
+        List<String> paymentIds = new ArrayList<>(subscriptions.keySet());
+        for (int from = 0; from < paymentIds.size(); from += RESYNC_CHUNK_SIZE) {
+            List<String> chunk = paymentIds.subList(from, Math.min(from + RESYNC_CHUNK_SIZE, paymentIds.size()));
+            for (PaymentStatusView view : paymentRepository.findStatusesByPaymentIdIn(chunk)) {
+                publish(view.paymentId(), view.status());
+            }
+        }
+        if (!paymentIds.isEmpty()) {
+            log.info("Resynced status of {} watched payments", paymentIds.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.paymentId, (id, set) -> {
+            set.remove(subscription);
+            return set.isEmpty() ? null : set;
+        });
+        subscriptionCount.decrementAndGet();
+    }
+
+    public final class Subscription implements AutoCloseable {
+
+        private final String paymentId;
+        private final Consumer<PaymentStatus> listener;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscription(String paymentId, Consumer<PaymentStatus> listener) {
+            this.paymentId = paymentId;
+            this.listener = listener;
+        }
+
+        private void deliver(PaymentStatus status) {
+            if (closed.get()) {
+                return;
+            }
+            try {
+                listener.accept(status);
+            } catch (RuntimeException e) {
+                log.debug("Status listener failed: paymentId={}", paymentId, e);
+            }
+        }
+
+        /**
+         * Idempotent; safe to call from completion, timeout and error callbacks alike
+         */
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                unsubscribe(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.openfinance.payment.api.events;
+
+import com.openfinance.payment.common.entity.PaymentStatus;
+import com.openfinance.payment.common.notification.PostgresNotifier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Holds a dedicated Postgres connection listening on the payment status channel and
+ * hands every status change to the {@link PaymentStatusHub}. One connection per node
+ * serves all subscribed clients; the connection is opened outside the Hikari pool.
+ */
+@Component
+@ConditionalOnProperty(prefix = "payment.notifications", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class PaymentStatusListener {
+
+    private static final int RECEIVE_TIMEOUT_MS = 10_000;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final PaymentStatusHub hub;
+    private final Duration reconnectBackoff;
+    private final Counter notificationsCounter;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread listenerThread;
+
+    public PaymentStatusListener(DataSourceProperties dataSourceProperties,
+                                 PaymentStatusHub hub,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${payment.events.reconnect-backoff:5s}") Duration reconnectBackoff) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.hub = hub;
+        this.reconnectBackoff = reconnectBackoff;
+
+        this.notificationsCounter = Counter.builder("payments.status.notifications")
+                .description("Payment status notifications received from Postgres")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        listenerThread = Thread.ofPlatform()
+                .name("payment-status-listener")
+                .daemon(true)
+                .start(this::listen);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        listenerThread.interrupt();
+        closeQuietly(connection);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection listenConnection = openConnection()) {
+                connection = listenConnection;
+                try (Statement statement = listenConnection.createStatement()) {
+                    statement.execute("LISTEN " + PostgresNotifier.PAYMENT_STATUS_CHANNEL);
+                }
+                log.info("Listening for status notifications: channel={}", PostgresNotifier.PAYMENT_STATUS_CHANNEL);
+
+                // Catch up on changes made while we were not listening
+                hub.resync();
+
+                PGConnection pgConnection = listenConnection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(RECEIVE_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    notificationsCounter.increment(notifications.length);
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter());
+                    }
+                }
+
+            } catch (SQLException | RuntimeException e) {
+                // RuntimeException: e.g. the resync query failed; reconnect rather than lose the thread
+                if (!running) {
+                    break;
+                }
+                log.warn("Status notification listener disconnected, reconnecting in {}: {}",
+                        reconnectBackoff, e.getMessage());
+                try {
+                    Thread.sleep(reconnectBackoff.toMillis());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            } finally {
+                connection = null;
+            }
+        }
+        log.info("Status notification listener stopped");
+    }
+
+    private void dispatch(String payload) {
+        int separator = payload.lastIndexOf(':');
+        if (separator < 0) {
+            log.warn("Ignoring malformed status notification: {}", payload);
+            return;
+        }
+        try {
+            hub.publish(payload.substring(0, separator), PaymentStatus.valueOf(payload.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring status notification with unknown status: {}", payload);
+        }
+    }
+
+    private Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword()
+        );
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Error closing listener connection", e);
+        }
+    }
+}
@@ -1,13 +1,20 @@
 package com.openfinance.payment.api.exception;
 
+import com.openfinance.payment.common.dto.PaymentResponse;
 import lombok.Getter;
 
 @Getter
 public class DuplicatePaymentException extends RuntimeException {
     private final String existingPaymentId;
+    private final PaymentResponse originalResponse;
 
     public DuplicatePaymentException(String message, String existingPaymentId) {
+        this(message, existingPaymentId, null);
+    }
+
+    public DuplicatePaymentException(String message, String existingPaymentId, PaymentResponse originalResponse) {
         super(message);
         this.existingPaymentId = existingPaymentId;
+        this.originalResponse = originalResponse;
     }
 }
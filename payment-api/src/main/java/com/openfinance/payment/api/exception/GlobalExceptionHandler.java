@@ -26,6 +26,7 @@ public class GlobalExceptionHandler {
                 .error("DUPLICATE_REQUEST")
                 .message(ex.getMessage())
                 .existingPaymentId(ex.getExistingPaymentId())
+                .originalResponse(ex.getOriginalResponse())
                 .path(request.getRequestURI())
                 .build();
 
@@ -50,6 +51,24 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursor(
+            InvalidCursorException ex, HttpServletRequest request) {
+        log.warn("Invalid cursor: {}", ex.getMessage());
+
+        ErrorResponse error = ErrorResponse.of("INVALID_CURSOR", ex.getMessage(), request.getRequestURI());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(InvalidExportException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidExport(
+            InvalidExportException ex, HttpServletRequest request) {
+        log.warn("Invalid export request: {}", ex.getMessage());
+
+        ErrorResponse error = ErrorResponse.of("INVALID_EXPORT", ex.getMessage(), request.getRequestURI());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationErrors(
             MethodArgumentNotValidException ex, HttpServletRequest request) {
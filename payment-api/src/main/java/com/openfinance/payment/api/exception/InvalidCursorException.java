@@ -0,0 +1,7 @@
+package com.openfinance.payment.api.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
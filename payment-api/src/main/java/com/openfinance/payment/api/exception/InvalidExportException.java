@@ -0,0 +1,7 @@
+package com.openfinance.payment.api.exception;
+
+public class InvalidExportException extends RuntimeException {
+    public InvalidExportException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,89 @@
+package com.openfinance.payment.api.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * RFC 4180 CSV. With events, each event is a row that repeats its payment's columns;
+ * a payment without events still gets one row with empty event columns.
+ */
+class CsvExportWriter extends ExportWriter {
+
+    private final Writer writer;
+
+    CsvExportWriter(Writer writer, boolean includeEvents) {
+        super(includeEvents);
+        this.writer = writer;
+    }
+
+    @Override
+    void start() throws IOException {
+        for (int i = 0; i < ExportColumn.PAYMENT.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(ExportColumn.PAYMENT.get(i).field());
+        }
+        if (includeEvents) {
+            for (ExportColumn column : ExportColumn.EVENT) {
+                writer.write(',');
+                writer.write(column.field());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    protected void write(ResultSet rs, boolean newPayment) throws SQLException, IOException {
+        int index = FIRST_PAYMENT_COLUMN;
+        for (ExportColumn column : ExportColumn.PAYMENT) {
+            if (index > FIRST_PAYMENT_COLUMN) {
+                writer.write(',');
+            }
+            writeValue(column.text(rs, index++));
+        }
+        if (includeEvents) {
+            for (ExportColumn column : ExportColumn.EVENT) {
+                writer.write(',');
+                writeValue(column.text(rs, index++));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    void finish() throws IOException {
+        writer.flush();
+    }
+
+    private void writeValue(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (!needsQuoting(value)) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private static boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,63 @@
+package com.openfinance.payment.api.export;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Column of the export query and the field name it is written under
+ */
+record ExportColumn(String sql, String field, Kind kind) {
+
+    enum Kind {
+        TEXT,
+        NUMBER,
+        TIMESTAMP,
+        JSON
+    }
+
+    static final List<ExportColumn> PAYMENT = List.of(
+            new ExportColumn("p.payment_id", "paymentId", Kind.TEXT),
+            new ExportColumn("p.type", "type", Kind.TEXT),
+            new ExportColumn("p.status", "status", Kind.TEXT),
+            new ExportColumn("p.amount", "amount", Kind.NUMBER),
+            new ExportColumn("p.currency", "currency", Kind.TEXT),
+            new ExportColumn("p.sender_document", "senderDocument", Kind.TEXT),
+            new ExportColumn("p.sender_bank_code", "senderBankCode", Kind.TEXT),
+            new ExportColumn("p.sender_account", "senderAccount", Kind.TEXT),
+            new ExportColumn("p.receiver_pix_key", "receiverPixKey", Kind.TEXT),
+            new ExportColumn("p.receiver_pix_key_type", "receiverPixKeyType", Kind.TEXT),
+            new ExportColumn("p.confirmation_code", "confirmationCode", Kind.TEXT),
+            new ExportColumn("p.failure_reason", "failureReason", Kind.TEXT),
+            new ExportColumn("p.created_at", "createdAt", Kind.TIMESTAMP),
+            new ExportColumn("p.processed_at", "processedAt", Kind.TIMESTAMP),
+            new ExportColumn("p.updated_at", "updatedAt", Kind.TIMESTAMP)
+    );
+
+    static final List<ExportColumn> EVENT = List.of(
+            new ExportColumn("a.event_type", "eventType", Kind.TEXT),
+            new ExportColumn("a.old_status", "oldStatus", Kind.TEXT),
+            new ExportColumn("a.new_status", "newStatus", Kind.TEXT),
+            new ExportColumn("a.metadata", "metadata", Kind.JSON),
+            new ExportColumn("a.created_at", "eventCreatedAt", Kind.TIMESTAMP)
+    );
+
+    /**
+     * Value as text, or null for SQL NULL
+     */
+    String text(ResultSet rs, int index) throws SQLException {
+        return switch (kind) {
+            case NUMBER -> {
+                BigDecimal value = rs.getBigDecimal(index);
+                yield value != null ? value.toPlainString() : null;
+            }
+            case TIMESTAMP -> {
+                LocalDateTime value = rs.getObject(index, LocalDateTime.class);
+                yield value != null ? value.toString() : null;
+            }
+            default -> rs.getString(index);
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package com.openfinance.payment.api.export;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Writes export rows as they come off the cursor. Rows arrive ordered by payment, so
+ * events of one payment are contiguous and nothing has to be held back.
+ *
+ * Result set layout: payment id, then {@link ExportColumn#PAYMENT}, then
+ * {@link ExportColumn#EVENT} when events are included.
+ */
+abstract class ExportWriter {
+
+    static final int FIRST_PAYMENT_COLUMN = 2;
+    static final int FIRST_EVENT_COLUMN = FIRST_PAYMENT_COLUMN + ExportColumn.PAYMENT.size();
+
+    protected final boolean includeEvents;
+
+    private Object currentPaymentId;
+    private long payments;
+
+    protected ExportWriter(boolean includeEvents) {
+        this.includeEvents = includeEvents;
+    }
+
+    final void row(ResultSet rs) throws SQLException, IOException {
+        Object paymentId = rs.getObject(1);
+        boolean newPayment = !paymentId.equals(currentPaymentId);
+        if (newPayment) {
+            currentPaymentId = paymentId;
+            payments++;
+        }
+        write(rs, newPayment);
+    }
+
+    final long payments() {
+        return payments;
+    }
+
+    /**
+     * Writes the header, if the format has one
+     */
+    abstract void start() throws IOException;
+
+    /**
+     * @param newPayment first row of a payment; later rows of the same payment carry its other events
+     */
+    protected abstract void write(ResultSet rs, boolean newPayment) throws SQLException, IOException;
+
+    /**
+     * Completes the last record and flushes
+     */
+    abstract void finish() throws IOException;
+}
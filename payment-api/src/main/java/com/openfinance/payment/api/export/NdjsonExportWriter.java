@@ -0,0 +1,86 @@
+package com.openfinance.payment.api.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * One JSON object per payment and line; events go into an {@code events} array
+ */
+class NdjsonExportWriter extends ExportWriter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactoryBuilder()
+            .rootValueSeparator((String) null)
+            .build();
+
+    private final JsonGenerator generator;
+    private boolean open;
+
+    NdjsonExportWriter(Writer writer, boolean includeEvents) throws IOException {
+        super(includeEvents);
+        this.generator = JSON_FACTORY.createGenerator(writer);
+    }
+
+    @Override
+    void start() {
+    }
+
+    @Override
+    protected void write(ResultSet rs, boolean newPayment) throws SQLException, IOException {
+        if (newPayment) {
+            endPayment();
+            generator.writeStartObject();
+            writeFields(rs, ExportColumn.PAYMENT, FIRST_PAYMENT_COLUMN);
+            if (includeEvents) {
+                generator.writeArrayFieldStart("events");
+            }
+            open = true;
+        }
+        // A payment without events comes back from the outer join with null event columns
+        if (includeEvents && rs.getString(FIRST_EVENT_COLUMN) != null) {
+            generator.writeStartObject();
+            writeFields(rs, ExportColumn.EVENT, FIRST_EVENT_COLUMN);
+            generator.writeEndObject();
+        }
+    }
+
+    @Override
+    void finish() throws IOException {
+        endPayment();
+        generator.flush();
+    }
+
+    private void endPayment() throws IOException {
+        if (!open) {
+            return;
+        }
+        if (includeEvents) {
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+        open = false;
+    }
+
+    private void writeFields(ResultSet rs, Iterable<ExportColumn> columns, int firstIndex)
+            throws SQLException, IOException {
+        int index = firstIndex;
+        for (ExportColumn column : columns) {
+            String value = column.text(rs, index++);
+            if (value == null) {
+                continue;
+            }
+            generator.writeFieldName(column.field());
+            switch (column.kind()) {
+                case NUMBER -> generator.writeNumber(value);
+                case JSON -> generator.writeRawValue(value);
+                default -> generator.writeString(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.openfinance.payment.api.export;
+
+import com.openfinance.payment.common.entity.PaymentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * @param status        only payments in this status, or null for all
+ * @param from          inclusive lower bound on created_at, or null
+ * @param to            exclusive upper bound on created_at, or null
+ * @param includeEvents also export each payment's audit_log events
+ */
+public record PaymentExportFilter(PaymentStatus status, LocalDateTime from, LocalDateTime to,
+                                  boolean includeEvents) {
+}
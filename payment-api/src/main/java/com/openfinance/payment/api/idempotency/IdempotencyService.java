@@ -0,0 +1,181 @@
+package com.openfinance.payment.api.idempotency;
+
+import com.openfinance.payment.api.exception.DuplicatePaymentException;
+import com.openfinance.payment.api.service.PaymentService;
+import com.openfinance.payment.common.dto.PaymentRequest;
+import com.openfinance.payment.common.dto.PaymentResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Creates payments at most once per idempotency key.
+ *
+ * The key is reserved in the {@link IdempotencyStore} before any database work, so
+ * duplicates are answered from the store with the original response and new keys skip
+ * the lookup by idempotency key. The unique constraint on {@code payments.idempotency_key}
+ * still catches keys whose store entry has expired. If the store is unavailable, requests
+ * fall back to the database lookup.
+ *
+ * Batch requests reserve each item's key through {@link #reserveAll} and settle it with
+ * {@link #complete} or {@link #release}, so a key behaves the same in a batch as in a single request.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private final IdempotencyStore store;
+    private final PaymentService paymentService;
+    private final Duration reservationTtl;
+    private final Duration responseTtl;
+    private final Counter cacheHitsCounter;
+    private final Counter fallbackCounter;
+
+    public IdempotencyService(IdempotencyStore store,
+                              PaymentService paymentService,
+                              MeterRegistry meterRegistry,
+                              @Value("${payment.idempotency.reservation-ttl:30s}") Duration reservationTtl,
+                              @Value("${payment.idempotency.response-ttl:24h}") Duration responseTtl) {
+        this.store = store;
+        this.paymentService = paymentService;
+        this.reservationTtl = reservationTtl;
+        this.responseTtl = responseTtl;
+
+        this.cacheHitsCounter = Counter.builder("payments.idempotency.hits")
+                .description("Duplicate requests answered from the idempotency store")
+                .register(meterRegistry);
+
+        this.fallbackCounter = Counter.builder("payments.idempotency.fallbacks")
+                .description("Requests checked against the database because the idempotency store failed")
+                .register(meterRegistry);
+    }
+
+    public PaymentResponse createPayment(PaymentRequest request, UUID idempotencyKey) {
+        if (idempotencyKey == null) {
+            return paymentService.createPayment(request, null);
+        }
+
+        IdempotencyStore.Reservation reservation;
+        try {
+            reservation = store.reserve(idempotencyKey, reservationTtl);
+        } catch (RuntimeException e) {
+            fallbackCounter.increment();
+            log.warn("Idempotency store unavailable, checking database instead: {}", e.getMessage());
+            return paymentService.createPayment(request, idempotencyKey);
+        }
+
+        switch (reservation.status()) {
+            case COMPLETED -> {
+                cacheHitsCounter.increment();
+                log.warn("Duplicate payment request detected with idempotency key: {}", idempotencyKey);
+                throw new DuplicatePaymentException(
+                        "Payment already exists with this idempotency key",
+                        reservation.response().getPaymentId(),
+                        reservation.response()
+                );
+            }
+            case IN_PROGRESS -> throw new DuplicatePaymentException(
+                    "A request with this idempotency key is still being processed",
+                    null
+            );
+            default -> {
+                return createReserved(request, idempotencyKey);
+            }
+        }
+    }
+
+    /**
+     * Reserves every key of a batch, as {@link #createPayment} does for a single request
+     * @return the reservation per key, or null if the store is unavailable and the caller should
+     *         check the keys against the database instead
+     */
+    public Map<UUID, IdempotencyStore.Reservation> reserveAll(Collection<UUID> idempotencyKeys) {
+        Map<UUID, IdempotencyStore.Reservation> reservations = new HashMap<>();
+        try {
+            for (UUID idempotencyKey : idempotencyKeys) {
+                reservations.put(idempotencyKey, store.reserve(idempotencyKey, reservationTtl));
+            }
+        } catch (RuntimeException e) {
+            fallbackCounter.increment();
+            log.warn("Idempotency store unavailable, checking database instead: {}", e.getMessage());
+            reservations.forEach((idempotencyKey, reservation) -> {
+                if (reservation.status() == IdempotencyStore.Status.RESERVED) {
+                    releaseQuietly(idempotencyKey);
+                }
+            });
+            return null;
+        }
+
+        long hits = reservations.values().stream()
+                .filter(reservation -> reservation.status() == IdempotencyStore.Status.COMPLETED)
+                .count();
+        cacheHitsCounter.increment(hits);
+        return reservations;
+    }
+
+    /**
+     * Records the response for a key reserved with {@link #reserveAll}
+     */
+    public void complete(UUID idempotencyKey, PaymentResponse response) {
+        completeQuietly(idempotencyKey, response);
+    }
+
+    /**
+     * Frees a key reserved with {@link #reserveAll} whose item was not created
+     */
+    public void release(UUID idempotencyKey) {
+        releaseQuietly(idempotencyKey);
+    }
+
+    private PaymentResponse createReserved(PaymentRequest request, UUID idempotencyKey) {
+        PaymentResponse response;
+        try {
+            response = paymentService.createPayment(request, idempotencyKey, false);
+        } catch (DataIntegrityViolationException e) {
+            // Created before the store entry expired - report it like any other duplicate
+            PaymentResponse existing = paymentService.findByIdempotencyKey(idempotencyKey).orElse(null);
+            if (existing == null) {
+                releaseQuietly(idempotencyKey);
+                throw e;
+            }
+            completeQuietly(idempotencyKey, existing);
+            throw new DuplicatePaymentException(
+                    "Payment already exists with this idempotency key",
+                    existing.getPaymentId(),
+                    existing
+            );
+        } catch (RuntimeException e) {
+            releaseQuietly(idempotencyKey);
+            throw e;
+        }
+
+        completeQuietly(idempotencyKey, response);
+        return response;
+    }
+
+    private void completeQuietly(UUID idempotencyKey, PaymentResponse response) {
+        try {
+            store.complete(idempotencyKey, response, responseTtl);
+        } catch (RuntimeException e) {
+            // The payment row is the source of truth; duplicates fall through to the unique constraint
+            log.warn("Could not cache response for idempotency key {}: {}", idempotencyKey, e.getMessage());
+        }
+    }
+
+    private void releaseQuietly(UUID idempotencyKey) {
+        try {
+            store.release(idempotencyKey);
+        } catch (RuntimeException e) {
+            log.warn("Could not release idempotency key {}: {}", idempotencyKey, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.openfinance.payment.api.idempotency;
+
+import com.openfinance.payment.common.dto.PaymentResponse;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Fast first line of idempotency checks in front of the payments table.
+ * Implementations may throw when unavailable; callers then fall back to the database.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Atomically reserves the key unless it is already reserved or completed
+     */
+    Reservation reserve(UUID idempotencyKey, Duration ttl);
+
+    /**
+     * Replaces the reservation with the finished response
+     */
+    void complete(UUID idempotencyKey, PaymentResponse response, Duration ttl);
+
+    /**
+     * Drops a reservation whose request failed, so the client can retry
+     */
+    void release(UUID idempotencyKey);
+
+    enum Status {
+        RESERVED,
+        IN_PROGRESS,
+        COMPLETED
+    }
+
+    record Reservation(Status status, PaymentResponse response) {
+
+        static final Reservation RESERVED = new Reservation(Status.RESERVED, null);
+        static final Reservation IN_PROGRESS = new Reservation(Status.IN_PROGRESS, null);
+
+        static Reservation completed(PaymentResponse response) {
+            return new Reservation(Status.COMPLETED, response);
+        }
+    }
+}
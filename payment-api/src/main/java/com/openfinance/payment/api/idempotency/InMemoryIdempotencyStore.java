@@ -0,0 +1,51 @@
+package com.openfinance.payment.api.idempotency;
+
+import com.openfinance.payment.common.dto.PaymentResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-node stand-in for {@link RedisIdempotencyStore}, used in tests and local runs without Redis.
+ * Same reserve/complete semantics, including expiry.
+ */
+@Component
+@ConditionalOnProperty(prefix = "payment.idempotency", name = "store", havingValue = "memory")
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public Reservation reserve(UUID idempotencyKey, Duration ttl) {
+        long now = System.nanoTime();
+        Entry reservation = new Entry(null, now + ttl.toNanos());
+        Entry current = entries.compute(idempotencyKey,
+                (key, existing) -> existing == null || existing.isExpired(now) ? reservation : existing);
+
+        if (current == reservation) {
+            return Reservation.RESERVED;
+        }
+        return current.response() == null ? Reservation.IN_PROGRESS : Reservation.completed(current.response());
+    }
+
+    @Override
+    public void complete(UUID idempotencyKey, PaymentResponse response, Duration ttl) {
+        entries.put(idempotencyKey, new Entry(response, System.nanoTime() + ttl.toNanos()));
+    }
+
+    @Override
+    public void release(UUID idempotencyKey) {
+        entries.remove(idempotencyKey);
+    }
+
+    private record Entry(PaymentResponse response, long expiresAtNanos) {
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.openfinance.payment.api.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openfinance.payment.common.dto.PaymentResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Reserves keys with {@code SET NX PX} and keeps the finished response as JSON under the same key.
+ * A new key costs one round trip to reserve; a duplicate costs one more to read the response.
+ */
+@Component
+@ConditionalOnProperty(prefix = "payment.idempotency", name = "store", havingValue = "redis", matchIfMissing = true)
+public class RedisIdempotencyStore implements IdempotencyStore {
+
+    private static final String KEY_PREFIX = "idempotency:payment:";
+    private static final String IN_PROGRESS_MARKER = "IN_PROGRESS";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    public RedisIdempotencyStore(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Reservation reserve(UUID idempotencyKey, Duration ttl) {
+        String key = KEY_PREFIX + idempotencyKey;
+        Boolean reserved = redisTemplate.opsForValue().setIfAbsent(key, IN_PROGRESS_MARKER, ttl);
+        if (Boolean.TRUE.equals(reserved)) {
+            return Reservation.RESERVED;
+        }
+
+        String value = redisTemplate.opsForValue().get(key);
+        if (value == null || IN_PROGRESS_MARKER.equals(value)) {
+            // Null means the entry expired between the two calls; the client's retry will reserve it
+            return Reservation.IN_PROGRESS;
+        }
+        return Reservation.completed(fromJson(value));
+    }
+
+    @Override
+    public void complete(UUID idempotencyKey, PaymentResponse response, Duration ttl) {
+        redisTemplate.opsForValue().set(KEY_PREFIX + idempotencyKey, toJson(response), ttl);
+    }
+
+    @Override
+    public void release(UUID idempotencyKey) {
+        redisTemplate.delete(KEY_PREFIX + idempotencyKey);
+    }
+
+    private String toJson(PaymentResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize payment response", e);
+        }
+    }
+
+    private PaymentResponse fromJson(String value) {
+        try {
+            return objectMapper.readValue(value, PaymentResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read cached payment response", e);
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.openfinance.payment.api.service;
+
+import com.openfinance.payment.api.exception.DuplicatePaymentException;
+import com.openfinance.payment.api.exception.InvalidPaymentException;
+import com.openfinance.payment.api.idempotency.IdempotencyService;
+import com.openfinance.payment.api.idempotency.IdempotencyStore;
+import com.openfinance.payment.common.dto.BatchPaymentRequest;
+import com.openfinance.payment.common.dto.BatchPaymentResponse;
+import com.openfinance.payment.common.dto.BatchPaymentResponse.ItemResult;
+import com.openfinance.payment.common.dto.BatchPaymentResponse.Outcome;
+import com.openfinance.payment.common.dto.PaymentRequest;
+import com.openfinance.payment.common.dto.PaymentResponse;
+import com.openfinance.payment.common.entity.AuditLog;
+import com.openfinance.payment.common.entity.Payment;
+import com.openfinance.payment.common.entity.PaymentQueue;
+import com.openfinance.payment.common.entity.PaymentStatus;
+import com.openfinance.payment.common.notification.PostgresNotifier;
+import com.openfinance.payment.common.repository.PaymentQueueRepository;
+import com.openfinance.payment.common.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Creates many payments in one request.
+ *
+ * Items are validated in parallel and their idempotency keys are reserved in the
+ * {@link IdempotencyService}'s store, like single requests, so a duplicate is answered
+ * with the original response whichever endpoint created it. Keys the store does not know
+ * are checked with a single query, and the new payments, queue items and audit rows are
+ * inserted in one transaction so Hibernate can send them as JDBC batches. Invalid and
+ * duplicate items are reported per item without failing the rest of the batch.
+ */
+@Service
+@Slf4j
+public class PaymentBatchService {
+
+    private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
+    private final PaymentRepository paymentRepository;
+    private final PaymentQueueRepository queueRepository;
+    private final PostgresNotifier notifier;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxSize;
+    private final Counter paymentsCreatedCounter;
+    private final Counter fallbackCounter;
+    private final DistributionSummary batchSize;
+
+    public PaymentBatchService(PaymentService paymentService,
+                               IdempotencyService idempotencyService,
+                               PaymentRepository paymentRepository,
+                               PaymentQueueRepository queueRepository,
+                               PostgresNotifier notifier,
+                               Validator validator,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${payment.batch.max-size:1000}") int maxSize) {
+        this.paymentService = paymentService;
+        this.idempotencyService = idempotencyService;
+        this.paymentRepository = paymentRepository;
+        this.queueRepository = queueRepository;
+        this.notifier = notifier;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.maxSize = maxSize;
+
+        this.paymentsCreatedCounter = Counter.builder("payments.created")
+                .description("Total payments created")
+                .register(meterRegistry);
+
+        this.fallbackCounter = Counter.builder("payments.batch.fallbacks")
+                .description("Batches retried item by item after an idempotency key conflict")
+                .register(meterRegistry);
+
+        this.batchSize = DistributionSummary.builder("payments.batch.size")
+                .description("Items per batch payment request")
+                .register(meterRegistry);
+    }
+
+    public BatchPaymentResponse createPayments(BatchPaymentRequest request) {
+        List<BatchPaymentRequest.Item> items = request.getItems();
+        if (items.size() > maxSize) {
+            throw new InvalidPaymentException("Batch cannot exceed " + maxSize + " payments");
+        }
+        batchSize.record(items.size());
+
+        int count = items.size();
+        ItemResult[] results = new ItemResult[count];
+        UUID[] keys = new UUID[count];
+
+        // Validation is CPU-bound and independent per item
+        IntStream.range(0, count).parallel()
+                .forEach(i -> results[i] = validate(i, items.get(i), keys));
+
+        // Repeated keys inside the batch get the result of the key's first occurrence, whatever it
+        // was; only keys whose first occurrence is valid go on to be reserved and created
+        Map<UUID, Integer> firstByKey = new HashMap<>();
+        Map<UUID, Integer> seen = new HashMap<>();
+        int[] repeatOf = new int[count];
+        Arrays.fill(repeatOf, -1);
+        for (int i = 0; i < count; i++) {
+            if (keys[i] == null) {
+                continue;
+            }
+            Integer first = seen.putIfAbsent(keys[i], i);
+            if (first != null) {
+                if (results[i] == null) {
+                    repeatOf[i] = first;
+                }
+            } else if (results[i] == null) {
+                firstByKey.put(keys[i], i);
+            }
+        }
+
+        Set<UUID> reserved = reserve(firstByKey, keys, results);
+        try {
+            createPending(items, keys, results, repeatOf, firstByKey);
+        } catch (RuntimeException e) {
+            reserved.forEach(idempotencyService::release);
+            throw e;
+        }
+
+        // Settle every reservation the way a single request would
+        for (UUID key : reserved) {
+            ItemResult result = results[firstByKey.get(key)];
+            if (result.getPayment() != null) {
+                idempotencyService.complete(key, result.getPayment());
+            } else {
+                idempotencyService.release(key);
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (repeatOf[i] >= 0) {
+                results[i] = repeat(i, keys[i], results[repeatOf[i]]);
+            }
+        }
+
+        return summarize(results);
+    }
+
+    /**
+     * Answers keys the store already holds and reserves the rest
+     * @return the keys reserved by this batch, which must be completed or released
+     */
+    private Set<UUID> reserve(Map<UUID, Integer> firstByKey, UUID[] keys, ItemResult[] results) {
+        if (firstByKey.isEmpty()) {
+            return Set.of();
+        }
+        Map<UUID, IdempotencyStore.Reservation> reservations = idempotencyService.reserveAll(firstByKey.keySet());
+        if (reservations == null) {
+            return Set.of();
+        }
+
+        Set<UUID> reserved = new HashSet<>();
+        reservations.forEach((key, reservation) -> {
+            int index = firstByKey.get(key);
+            switch (reservation.status()) {
+                case COMPLETED -> results[index] = duplicate(index, keys[index], reservation.response());
+                case IN_PROGRESS -> results[index] = inProgress(index, keys[index]);
+                default -> reserved.add(key);
+            }
+        });
+        return reserved;
+    }
+
+    private void createPending(List<BatchPaymentRequest.Item> items, UUID[] keys, ItemResult[] results,
+                               int[] repeatOf, Map<UUID, Integer> firstByKey) {
+        // One lookup for keys with no answer in the store: expired entries, or every key if the store is down
+        List<UUID> unresolved = firstByKey.entrySet().stream()
+                .filter(entry -> results[entry.getValue()] == null)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (!unresolved.isEmpty()) {
+            for (Payment existing : paymentRepository.findByIdempotencyKeyIn(unresolved)) {
+                int index = firstByKey.get(existing.getIdempotencyKey());
+                results[index] = duplicate(index, keys[index], PaymentResponse.from(existing));
+            }
+        }
+
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (results[i] == null && repeatOf[i] < 0) {
+                pending.add(i);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<PaymentResponse> created = transactionTemplate.execute(status -> persist(items, keys, pending));
+            for (int j = 0; j < pending.size(); j++) {
+                int index = pending.get(j);
+                results[index] = created(index, keys[index], created.get(j));
+            }
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request took one of the keys; give each item its own transaction
+            log.warn("Idempotency key conflict in batch of {}, retrying item by item", pending.size());
+            fallbackCounter.increment();
+            createOneByOne(items, keys, pending, results);
+        }
+    }
+
+    private ItemResult validate(int index, BatchPaymentRequest.Item item, UUID[] keys) {
+        String key = item != null ? item.getIdempotencyKey() : null;
+        if (key != null) {
+            try {
+                keys[index] = UUID.fromString(key);
+            } catch (IllegalArgumentException e) {
+                return invalid(index, key, "Idempotency key must be a UUID", null);
+            }
+        }
+
+        if (item == null || item.getPayment() == null) {
+            return invalid(index, key, "Payment is required", null);
+        }
+
+        Set<ConstraintViolation<PaymentRequest>> violations = validator.validate(item.getPayment());
+        if (!violations.isEmpty()) {
+            Map<String, String> errors = new HashMap<>();
+            violations.forEach(v -> errors.put(v.getPropertyPath().toString(), v.getMessage()));
+            return invalid(index, key, "Invalid request parameters", errors);
+        }
+
+        try {
+            paymentService.validatePayment(item.getPayment());
+        } catch (InvalidPaymentException e) {
+            return invalid(index, key, e.getMessage(), null);
+        }
+        return null;
+    }
+
+    private List<PaymentResponse> persist(List<BatchPaymentRequest.Item> items, UUID[] keys, List<Integer> pending) {
+        List<Payment> payments = new ArrayList<>(pending.size());
+        for (int index : pending) {
+            payments.add(paymentService.newPayment(items.get(index).getPayment(), keys[index]));
+        }
+        payments = paymentRepository.saveAll(payments);
+
+        List<PaymentQueue> queueItems = new ArrayList<>(payments.size());
+        for (Payment payment : payments) {
+            queueItems.add(paymentService.newQueueItem(payment));
+            paymentService.createAuditLog(payment.getId(), AuditLog.EventType.CREATED, null, PaymentStatus.PENDING);
+        }
+        queueRepository.saveAll(queueItems);
+
+        // Inserts reach the database at flush; surface key conflicts here rather than at commit
+        paymentRepository.flush();
+
+        // One wakeup is enough: an idle node claims a whole batch per poll
+        notifier.notify(PostgresNotifier.PAYMENT_QUEUE_CHANNEL, payments.get(0).getId().toString());
+        paymentsCreatedCounter.increment(payments.size());
+        log.info("Created {} payments in batch", payments.size());
+
+        return payments.stream().map(PaymentResponse::from).toList();
+    }
+
+    private void createOneByOne(List<BatchPaymentRequest.Item> items, UUID[] keys, List<Integer> pending,
+                                ItemResult[] results) {
+        for (int index : pending) {
+            UUID key = keys[index];
+            try {
+                PaymentResponse response = paymentService.createPayment(items.get(index).getPayment(), key);
+                results[index] = created(index, key, response);
+            } catch (DuplicatePaymentException | DataIntegrityViolationException e) {
+                results[index] = duplicate(index, key, paymentService.findByIdempotencyKey(key).orElse(null));
+            } catch (RuntimeException e) {
+                log.error("Failed to create payment {} of batch", index, e);
+                results[index] = ItemResult.builder()
+                        .index(index)
+                        .idempotencyKey(keyString(key))
+                        .outcome(Outcome.FAILED)
+                        .error("INTERNAL_SERVER_ERROR")
+                        .message("An unexpected error occurred")
+                        .build();
+            }
+        }
+    }
+
+    private BatchPaymentResponse summarize(ItemResult[] results) {
+        int created = 0;
+        int duplicates = 0;
+        for (ItemResult result : results) {
+            if (result.getOutcome() == Outcome.CREATED) {
+                created++;
+            } else if (result.getOutcome() == Outcome.DUPLICATE) {
+                duplicates++;
+            }
+        }
+        return BatchPaymentResponse.builder()
+                .total(results.length)
+                .created(created)
+                .duplicates(duplicates)
+                .failed(results.length - created - duplicates)
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    private static ItemResult created(int index, UUID key, PaymentResponse payment) {
+        return ItemResult.builder()
+                .index(index)
+                .idempotencyKey(keyString(key))
+                .outcome(Outcome.CREATED)
+                .payment(payment)
+                .build();
+    }
+
+    private static ItemResult duplicate(int index, UUID key, PaymentResponse original) {
+        return ItemResult.builder()
+                .index(index)
+                .idempotencyKey(keyString(key))
+                .outcome(Outcome.DUPLICATE)
+                .payment(original)
+                .existingPaymentId(original != null ? original.getPaymentId() : null)
+                .error("DUPLICATE_REQUEST")
+                .message("Payment already exists with this idempotency key")
+                .build();
+    }
+
+    /**
+     * A later item with the same key as {@code first}: a duplicate of the payment the first one
+     * created, otherwise the same answer the first one got
+     */
+    private static ItemResult repeat(int index, UUID key, ItemResult first) {
+        if (first.getOutcome() == Outcome.CREATED) {
+            return duplicate(index, key, first.getPayment());
+        }
+        return first.toBuilder().index(index).build();
+    }
+
+    private static ItemResult inProgress(int index, UUID key) {
+        return ItemResult.builder()
+                .index(index)
+                .idempotencyKey(keyString(key))
+                .outcome(Outcome.DUPLICATE)
+                .error("DUPLICATE_REQUEST")
+                .message("A request with this idempotency key is still being processed")
+                .build();
+    }
+
+    private static ItemResult invalid(int index, String key, String message, Map<String, String> errors) {
+        return ItemResult.builder()
+                .index(index)
+                .idempotencyKey(key)
+                .outcome(Outcome.INVALID)
+                .error(errors != null ? "VALIDATION_ERROR" : "INVALID_PAYMENT")
+                .message(message)
+                .validationErrors(errors)
+                .build();
+    }
+
+    private static String keyString(UUID key) {
+        return key != null ? key.toString() : null;
+    }
+}
@@ -0,0 +1,69 @@
+package com.openfinance.payment.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openfinance.payment.common.dto.PaymentResponse;
+import com.openfinance.payment.common.entity.PaymentStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of payment details for payments that have settled.
+ *
+ * Only SUCCESS and FAILED payments are cached, and only once their timeline already shows
+ * that status, since with asynchronous audit writes the last event can land after the
+ * payment row. Later reconciliation checks may still add events to a settled payment, so
+ * entries expire after {@code payment.detail-cache.ttl}.
+ */
+@Component
+public class PaymentDetailCache {
+
+    private final Cache<String, PaymentResponse> cache;
+
+    public PaymentDetailCache(MeterRegistry meterRegistry,
+                              @Value("${payment.detail-cache.enabled:true}") boolean enabled,
+                              @Value("${payment.detail-cache.max-size:100000}") long maxSize,
+                              @Value("${payment.detail-cache.ttl:10m}") Duration ttl) {
+        if (enabled) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfterWrite(ttl)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "payment.details");
+        } else {
+            this.cache = null;
+        }
+    }
+
+    public PaymentResponse get(String paymentId, Function<String, PaymentResponse> loader) {
+        if (cache == null) {
+            return loader.apply(paymentId);
+        }
+        PaymentResponse cached = cache.getIfPresent(paymentId);
+        if (cached != null) {
+            return cached;
+        }
+        PaymentResponse loaded = loader.apply(paymentId);
+        if (isSettled(loaded)) {
+            cache.put(paymentId, loaded);
+        }
+        return loaded;
+    }
+
+    static boolean isSettled(PaymentResponse response) {
+        String status = response.getStatus();
+        if (!PaymentStatus.SUCCESS.name().equals(status) && !PaymentStatus.FAILED.name().equals(status)) {
+            return false;
+        }
+        List<PaymentResponse.TimelineEvent> timeline = response.getTimeline();
+        return timeline != null && !timeline.isEmpty()
+                && status.equals(timeline.get(timeline.size() - 1).getStatus());
+    }
+}
@@ -3,11 +3,14 @@ package com.openfinance.payment.api.service;
 import com.openfinance.payment.api.exception.DuplicatePaymentException;
 import com.openfinance.payment.api.exception.InvalidPaymentException;
 import com.openfinance.payment.api.exception.PaymentNotFoundException;
+import com.openfinance.payment.common.audit.AuditWriter;
+import com.openfinance.payment.common.dto.CursorPageResponse;
 import com.openfinance.payment.common.dto.PageResponse;
 import com.openfinance.payment.common.dto.PaymentRequest;
 import com.openfinance.payment.common.dto.PaymentResponse;
 import com.openfinance.payment.common.entity.*;
-import com.openfinance.payment.common.repository.AuditLogRepository;
+import com.openfinance.payment.common.notification.PostgresNotifier;
+import com.openfinance.payment.common.repository.PaymentDetailRow;
 import com.openfinance.payment.common.repository.PaymentQueueRepository;
 import com.openfinance.payment.common.repository.PaymentRepository;
 import com.openfinance.payment.common.util.PaymentIdGenerator;
@@ -18,6 +21,7 @@ import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -32,16 +36,25 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final PaymentQueueRepository queueRepository;
-    private final AuditLogRepository auditLogRepository;
+    private final AuditWriter auditWriter;
+    private final PostgresNotifier notifier;
+    private final PaymentDetailCache detailCache;
+    private final PaymentIdGenerator idGenerator;
     private final Counter paymentsCreatedCounter;
 
     public PaymentService(PaymentRepository paymentRepository,
                           PaymentQueueRepository queueRepository,
-                          AuditLogRepository auditLogRepository,
+                          AuditWriter auditWriter,
+                          PostgresNotifier notifier,
+                          PaymentDetailCache detailCache,
+                          PaymentIdGenerator idGenerator,
                           MeterRegistry meterRegistry) {
         this.paymentRepository = paymentRepository;
         this.queueRepository = queueRepository;
-        this.auditLogRepository = auditLogRepository;
+        this.auditWriter = auditWriter;
+        this.notifier = notifier;
+        this.detailCache = detailCache;
+        this.idGenerator = idGenerator;
         this.paymentsCreatedCounter = Counter.builder("payments.created")
                 .description("Total payments created")
                 .register(meterRegistry);
@@ -49,10 +62,19 @@ public class PaymentService {
 
     @Transactional
     public PaymentResponse createPayment(PaymentRequest request, UUID idempotencyKey) {
+        return createPayment(request, idempotencyKey, true);
+    }
+
+    /**
+     * @param checkExisting look the idempotency key up first; callers that already reserved
+     *                      the key elsewhere can skip it and rely on the unique constraint
+     */
+    @Transactional
+    public PaymentResponse createPayment(PaymentRequest request, UUID idempotencyKey, boolean checkExisting) {
         log.info("Creating payment with idempotency key: {}", idempotencyKey);
 
         // Check idempotency
-        if (idempotencyKey != null) {
+        if (idempotencyKey != null && checkExisting) {
             Optional<Payment> existing = paymentRepository.findByIdempotencyKey(idempotencyKey);
             if (existing.isPresent()) {
                 log.warn("Duplicate payment request detected with idempotency key: {}", idempotencyKey);
@@ -67,31 +89,14 @@ public class PaymentService {
         validatePayment(request);
 
         // Create payment entity
-        Payment payment = Payment.builder()
-                .paymentId(PaymentIdGenerator.generate())
-                .idempotencyKey(idempotencyKey)
-                .type(PaymentType.valueOf(request.getType()))
-                .amount(request.getAmount())
-                .currency(request.getCurrency())
-                .status(PaymentStatus.PENDING)
-                .senderDocument(request.getSender().getDocument())
-                .senderBankCode(request.getSender().getBankCode())
-                .senderAccount(request.getSender().getAccount())
-                .receiverPixKey(request.getReceiver().getPixKey())
-                .receiverPixKeyType(request.getReceiver().getPixKeyType())
-                .build();
-
-        payment = paymentRepository.save(payment);
+        Payment payment = paymentRepository.save(newPayment(request, idempotencyKey));
         log.info("Payment created with ID: {}", payment.getPaymentId());
 
         // Add to processing queue
-        PaymentQueue queueItem = PaymentQueue.builder()
-                .paymentId(payment.getId())
-                .retryCount(0)
-                .maxRetries(3)
-                .nextRetryAt(LocalDateTime.now())
-                .build();
-        queueRepository.save(queueItem);
+        queueRepository.save(newQueueItem(payment));
+
+        // Wake up processing nodes once this transaction commits
+        notifier.notify(PostgresNotifier.PAYMENT_QUEUE_CHANNEL, payment.getId().toString());
 
         // Create audit log
         createAuditLog(payment.getId(), AuditLog.EventType.CREATED, null, PaymentStatus.PENDING);
@@ -99,29 +104,51 @@ public class PaymentService {
         // Increment metrics
         paymentsCreatedCounter.increment();
 
-        return toPaymentResponse(payment);
+        return PaymentResponse.from(payment);
     }
 
     @Transactional(readOnly = true)
+    public Optional<PaymentResponse> findByIdempotencyKey(UUID idempotencyKey) {
+        return paymentRepository.findByIdempotencyKey(idempotencyKey).map(PaymentResponse::from);
+    }
+
+    /**
+     * Not transactional: a cache hit should not take a connection, and a miss is a single query
+     */
     public PaymentResponse getPaymentById(String paymentId) {
-        Payment payment = paymentRepository.findByPaymentId(paymentId)
-                .orElseThrow(() -> new PaymentNotFoundException("Payment not found: " + paymentId));
-
-        PaymentResponse response = toPaymentResponse(payment);
-
-        // Add timeline from audit logs
-        List<AuditLog> auditLogs = auditLogRepository.findByPaymentIdOrderByCreatedAtAsc(payment.getId());
-        List<PaymentResponse.TimelineEvent> timeline = auditLogs.stream()
-                .filter(log -> log.getNewStatus() != null)
-                .map(log -> PaymentResponse.TimelineEvent.builder()
-                        .status(log.getNewStatus().name())
-                        .timestamp(log.getCreatedAt())
-                        .description(log.getEventType().name())
-                        .build())
-                .collect(Collectors.toList());
+        return detailCache.get(paymentId, this::loadPaymentDetail);
+    }
+
+    private PaymentResponse loadPaymentDetail(String paymentId) {
+        List<PaymentDetailRow> rows = paymentRepository.findDetailRows(paymentId);
+        if (rows.isEmpty()) {
+            throw new PaymentNotFoundException("Payment not found: " + paymentId);
+        }
 
-        response.setTimeline(timeline);
-        return response;
+        List<PaymentResponse.TimelineEvent> timeline = new ArrayList<>(rows.size());
+        for (PaymentDetailRow row : rows) {
+            if (row.eventStatus() != null) {
+                timeline.add(PaymentResponse.TimelineEvent.builder()
+                        .status(row.eventStatus().name())
+                        .timestamp(row.eventAt())
+                        .description(row.eventType().name())
+                        .build());
+            }
+        }
+
+        PaymentDetailRow payment = rows.get(0);
+        return PaymentResponse.builder()
+                .paymentId(payment.paymentId())
+                .status(payment.status().name())
+                .amount(payment.amount())
+                .currency(payment.currency())
+                .confirmationCode(payment.confirmationCode())
+                .failureReason(payment.failureReason())
+                .createdAt(payment.createdAt())
+                .processedAt(payment.processedAt())
+                .estimatedCompletion(payment.createdAt().plusSeconds(30))
+                .timeline(timeline)
+                .build();
     }
 
     @Transactional(readOnly = true)
@@ -136,7 +163,7 @@ public class PaymentService {
         }
 
         List<PaymentResponse> content = paymentPage.getContent().stream()
-                .map(this::toPaymentResponse)
+                .map(PaymentResponse::from)
                 .collect(Collectors.toList());
 
         return PageResponse.<PaymentResponse>builder()
@@ -150,7 +177,71 @@ public class PaymentService {
                 .build();
     }
 
-    private void validatePayment(PaymentRequest request) {
+    /**
+     * Keyset pagination, newest first
+     * @param cursor {@code nextCursor} of the previous page, or null/empty for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<PaymentResponse> listPayments(String status, String cursor, int size) {
+        PageRequest limit = PageRequest.ofSize(size + 1);
+        PaymentCursor after = cursor != null && !cursor.isEmpty() ? PaymentCursor.decode(cursor) : null;
+
+        List<Payment> payments;
+        if (status != null && !status.isEmpty()) {
+            PaymentStatus paymentStatus = PaymentStatus.valueOf(status.toUpperCase());
+            payments = after == null
+                    ? paymentRepository.findFirstPageByStatus(paymentStatus, limit)
+                    : paymentRepository.findPageAfterByStatus(paymentStatus, after.createdAt(), after.id(), limit);
+        } else {
+            payments = after == null
+                    ? paymentRepository.findFirstPage(limit)
+                    : paymentRepository.findPageAfter(after.createdAt(), after.id(), limit);
+        }
+
+        // The extra row only tells us whether another page exists
+        boolean hasMore = payments.size() > size;
+        if (hasMore) {
+            payments = payments.subList(0, size);
+        }
+
+        List<PaymentResponse> content = payments.stream()
+                .map(PaymentResponse::from)
+                .collect(Collectors.toList());
+
+        return CursorPageResponse.<PaymentResponse>builder()
+                .content(content)
+                .size(size)
+                .nextCursor(hasMore ? PaymentCursor.after(payments.get(payments.size() - 1)).encode() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    Payment newPayment(PaymentRequest request, UUID idempotencyKey) {
+        return Payment.builder()
+                .paymentId(idGenerator.generate())
+                .idempotencyKey(idempotencyKey)
+                .type(PaymentType.valueOf(request.getType()))
+                .amount(request.getAmount())
+                .currency(request.getCurrency())
+                .status(PaymentStatus.PENDING)
+                .senderDocument(request.getSender().getDocument())
+                .senderBankCode(request.getSender().getBankCode())
+                .senderAccount(request.getSender().getAccount())
+                .receiverPixKey(request.getReceiver().getPixKey())
+                .receiverPixKeyType(request.getReceiver().getPixKeyType())
+                .build();
+    }
+
+    PaymentQueue newQueueItem(Payment payment) {
+        return PaymentQueue.builder()
+                .paymentId(payment.getId())
+                .retryCount(0)
+                .maxRetries(3)
+                .nextRetryAt(LocalDateTime.now())
+                .build();
+    }
+
+    void validatePayment(PaymentRequest request) {
         // Validate sender document (CPF or CNPJ)
         String document = request.getSender().getDocument();
         if (document.length() == 11) {
@@ -175,8 +266,8 @@ public class PaymentService {
         }
     }
 
-    private void createAuditLog(UUID paymentId, AuditLog.EventType eventType,
-                                PaymentStatus oldStatus, PaymentStatus newStatus) {
+    void createAuditLog(UUID paymentId, AuditLog.EventType eventType,
+                        PaymentStatus oldStatus, PaymentStatus newStatus) {
         AuditLog auditLog = AuditLog.builder()
                 .paymentId(paymentId)
                 .eventType(eventType)
@@ -184,20 +275,6 @@ public class PaymentService {
                 .newStatus(newStatus)
                 .metadata(new HashMap<>())
                 .build();
-        auditLogRepository.save(auditLog);
-    }
-
-    private PaymentResponse toPaymentResponse(Payment payment) {
-        return PaymentResponse.builder()
-                .paymentId(payment.getPaymentId())
-                .status(payment.getStatus().name())
-                .amount(payment.getAmount())
-                .currency(payment.getCurrency())
-                .confirmationCode(payment.getConfirmationCode())
-                .failureReason(payment.getFailureReason())
-                .createdAt(payment.getCreatedAt())
-                .processedAt(payment.getProcessedAt())
-                .estimatedCompletion(payment.getCreatedAt().plusSeconds(30))
-                .build();
+        auditWriter.write(auditLog);
     }
 }
@@ -1,10 +1,13 @@
 package com.openfinance.payment.api.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openfinance.payment.common.dto.BatchPaymentRequest;
 import com.openfinance.payment.common.dto.PaymentRequest;
 import com.openfinance.payment.common.entity.Payment;
 import com.openfinance.payment.common.entity.PaymentStatus;
 import com.openfinance.payment.common.repository.PaymentRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,9 +18,13 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -41,6 +48,9 @@ class PaymentControllerIntegrationTest {
     @Autowired
     private PaymentRepository paymentRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     @BeforeEach
     void setUp() {
         paymentRepository.deleteAll();
@@ -122,6 +132,209 @@ class PaymentControllerIntegrationTest {
         assertThat(paymentRepository.count()).isEqualTo(1);
     }
 
+    @Test
+    @WithMockUser
+    @DisplayName("Should return the original response for a duplicate request")
+    void shouldReturnOriginalResponseForDuplicate() throws Exception {
+        PaymentRequest request = PaymentRequest.builder()
+                .type("PIX")
+                .amount(new BigDecimal("75.00"))
+                .currency("BRL")
+                .sender(PaymentRequest.Sender.builder()
+                        .document("12345678909")
+                        .bankCode("001")
+                        .account("12345-6")
+                        .build())
+                .receiver(PaymentRequest.Receiver.builder()
+                        .pixKey("user@example.com")
+                        .pixKeyType("EMAIL")
+                        .build())
+                .build();
+
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        String created = mockMvc.perform(post("/api/v1/payments")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String paymentId = objectMapper.readTree(created).get("paymentId").asText();
+
+        mockMvc.perform(post("/api/v1/payments")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.existingPaymentId", is(paymentId)))
+                .andExpect(jsonPath("$.originalResponse.paymentId", is(paymentId)))
+                .andExpect(jsonPath("$.originalResponse.status", is("PENDING")))
+                .andExpect(jsonPath("$.originalResponse.amount", is(75.00)));
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("Should create a batch of payments with per-item results")
+    void shouldCreateBatchWithPerItemResults() throws Exception {
+        PaymentRequest valid = PaymentRequest.builder()
+                .type("PIX")
+                .amount(new BigDecimal("50.00"))
+                .currency("BRL")
+                .sender(PaymentRequest.Sender.builder()
+                        .document("12345678909")
+                        .bankCode("001")
+                        .account("12345-6")
+                        .build())
+                .receiver(PaymentRequest.Receiver.builder()
+                        .pixKey("user@example.com")
+                        .pixKeyType("EMAIL")
+                        .build())
+                .build();
+        PaymentRequest invalidCpf = PaymentRequest.builder()
+                .type("PIX")
+                .amount(new BigDecimal("50.00"))
+                .currency("BRL")
+                .sender(PaymentRequest.Sender.builder()
+                        .document("11111111111")
+                        .bankCode("001")
+                        .account("12345-6")
+                        .build())
+                .receiver(valid.getReceiver())
+                .build();
+
+        String repeatedKey = UUID.randomUUID().toString();
+        BatchPaymentRequest batch = BatchPaymentRequest.builder()
+                .items(List.of(
+                        new BatchPaymentRequest.Item(repeatedKey, valid),
+                        new BatchPaymentRequest.Item(UUID.randomUUID().toString(), invalidCpf),
+                        new BatchPaymentRequest.Item(repeatedKey, valid),
+                        new BatchPaymentRequest.Item(UUID.randomUUID().toString(), valid)))
+                .build();
+
+        mockMvc.perform(post("/api/v1/payments/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(4)))
+                .andExpect(jsonPath("$.created", is(2)))
+                .andExpect(jsonPath("$.duplicates", is(1)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.results[0].outcome", is("CREATED")))
+                .andExpect(jsonPath("$.results[1].outcome", is("INVALID")))
+                .andExpect(jsonPath("$.results[2].outcome", is("DUPLICATE")))
+                .andExpect(jsonPath("$.results[2].existingPaymentId", notNullValue()))
+                .andExpect(jsonPath("$.results[3].outcome", is("CREATED")));
+
+        assertThat(paymentRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("Should give a repeated batch key the result of its first, invalid occurrence")
+    void shouldMirrorInvalidFirstOccurrenceInBatch() throws Exception {
+        PaymentRequest valid = PaymentRequest.builder()
+                .type("PIX")
+                .amount(new BigDecimal("50.00"))
+                .currency("BRL")
+                .sender(PaymentRequest.Sender.builder()
+                        .document("12345678909")
+                        .bankCode("001")
+                        .account("12345-6")
+                        .build())
+                .receiver(PaymentRequest.Receiver.builder()
+                        .pixKey("user@example.com")
+                        .pixKeyType("EMAIL")
+                        .build())
+                .build();
+        PaymentRequest invalidCpf = PaymentRequest.builder()
+                .type("PIX")
+                .amount(new BigDecimal("50.00"))
+                .currency("BRL")
+                .sender(PaymentRequest.Sender.builder()
+                        .document("11111111111")
+                        .bankCode("001")
+                        .account("12345-6")
+                        .build())
+                .receiver(valid.getReceiver())
+                .build();
+
+        String repeatedKey = UUID.randomUUID().toString();
+        BatchPaymentRequest batch = BatchPaymentRequest.builder()
+                .items(List.of(
+                        new BatchPaymentRequest.Item(repeatedKey, invalidCpf),
+                        new BatchPaymentRequest.Item(repeatedKey, valid)))
+                .build();
+
+        mockMvc.perform(post("/api/v1/payments/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(0)))
+                .andExpect(jsonPath("$.failed", is(2)))
+                .andExpect(jsonPath("$.results[0].outcome", is("INVALID")))
+                .andExpect(jsonPath("$.results[1].index", is(1)))
+                .andExpect(jsonPath("$.results[1].outcome", is("INVALID")))
+                .andExpect(jsonPath("$.results[1].error", is("INVALID_PAYMENT")))
+                .andExpect(jsonPath("$.results[1].idempotencyKey", is(repeatedKey)));
+
+        assertThat(paymentRepository.count()).isZero();
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("Should share idempotency keys between single and batch requests")
+    void shouldShareIdempotencyKeysWithBatch() throws Exception {
+        PaymentRequest request = PaymentRequest.builder()
+                .type("PIX")
+                .amount(new BigDecimal("30.00"))
+                .currency("BRL")
+                .sender(PaymentRequest.Sender.builder()
+                        .document("12345678909")
+                        .bankCode("001")
+                        .account("12345-6")
+                        .build())
+                .receiver(PaymentRequest.Receiver.builder()
+                        .pixKey("user@example.com")
+                        .pixKeyType("EMAIL")
+                        .build())
+                .build();
+
+        String singleKey = UUID.randomUUID().toString();
+        String created = mockMvc.perform(post("/api/v1/payments")
+                        .header("Idempotency-Key", singleKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String singlePaymentId = objectMapper.readTree(created).get("paymentId").asText();
+
+        String batchKey = UUID.randomUUID().toString();
+        String batchResult = mockMvc.perform(post("/api/v1/payments/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(BatchPaymentRequest.builder()
+                                .items(List.of(
+                                        new BatchPaymentRequest.Item(singleKey, request),
+                                        new BatchPaymentRequest.Item(batchKey, request)))
+                                .build())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].outcome", is("DUPLICATE")))
+                .andExpect(jsonPath("$.results[0].existingPaymentId", is(singlePaymentId)))
+                .andExpect(jsonPath("$.results[1].outcome", is("CREATED")))
+                .andReturn().getResponse().getContentAsString();
+        String batchPaymentId = objectMapper.readTree(batchResult).at("/results/1/payment/paymentId").asText();
+
+        // A single request replays the response stored by the batch
+        mockMvc.perform(post("/api/v1/payments")
+                        .header("Idempotency-Key", batchKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.existingPaymentId", is(batchPaymentId)))
+                .andExpect(jsonPath("$.originalResponse.paymentId", is(batchPaymentId)));
+
+        assertThat(paymentRepository.count()).isEqualTo(2);
+    }
+
     @Test
     @WithMockUser
     @DisplayName("Should validate payment request")
@@ -166,6 +379,72 @@ class PaymentControllerIntegrationTest {
                 .andExpect(jsonPath("$.confirmationCode", is("E12345678202511191900001234567890")));
     }
 
+    @Test
+    @WithMockUser
+    @DisplayName("Should include the status timeline in payment details")
+    void shouldIncludeTimelineInPaymentDetails() throws Exception {
+        PaymentRequest request = PaymentRequest.builder()
+                .type("PIX")
+                .amount(new BigDecimal("80.00"))
+                .currency("BRL")
+                .sender(PaymentRequest.Sender.builder()
+                        .document("12345678909")
+                        .bankCode("001")
+                        .account("12345-6")
+                        .build())
+                .receiver(PaymentRequest.Receiver.builder()
+                        .pixKey("user@example.com")
+                        .pixKeyType("EMAIL")
+                        .build())
+                .build();
+
+        String created = mockMvc.perform(post("/api/v1/payments")
+                        .header("Idempotency-Key", UUID.randomUUID().toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String paymentId = objectMapper.readTree(created).get("paymentId").asText();
+
+        mockMvc.perform(get("/api/v1/payments/{paymentId}", paymentId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("PENDING")))
+                .andExpect(jsonPath("$.amount", is(80.00)))
+                .andExpect(jsonPath("$.timeline", hasSize(1)))
+                .andExpect(jsonPath("$.timeline[0].status", is("PENDING")))
+                .andExpect(jsonPath("$.timeline[0].description", is("CREATED")));
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("Should answer a long poll at once for a terminal payment")
+    void shouldAnswerLongPollForTerminalPayment() throws Exception {
+        Payment payment = Payment.builder()
+                .paymentId("PAY-2025-WAIT001")
+                .idempotencyKey(UUID.randomUUID())
+                .type(com.openfinance.payment.common.entity.PaymentType.PIX)
+                .amount(new BigDecimal("60.00"))
+                .currency("BRL")
+                .status(PaymentStatus.FAILED)
+                .senderDocument("12345678909")
+                .senderBankCode("001")
+                .receiverPixKey("test@example.com")
+                .receiverPixKeyType("EMAIL")
+                .build();
+        paymentRepository.save(payment);
+
+        MvcResult pending = mockMvc.perform(get("/api/v1/payments/{paymentId}", "PAY-2025-WAIT001")
+                        .param("waitFor", "terminal")
+                        .param("timeout", "5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.paymentId", is("PAY-2025-WAIT001")))
+                .andExpect(jsonPath("$.status", is("FAILED")));
+    }
+
     @Test
     @WithMockUser
     @DisplayName("Should return 404 for non-existent payment")
@@ -207,6 +486,59 @@ class PaymentControllerIntegrationTest {
                 .andExpect(jsonPath("$.totalPages", is(2)));
     }
 
+    @Test
+    @WithMockUser
+    @DisplayName("Should page through payments with a cursor")
+    void shouldPageThroughPaymentsWithCursor() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            Payment payment = Payment.builder()
+                    .paymentId("PAY-2025-CURSOR" + i)
+                    .idempotencyKey(UUID.randomUUID())
+                    .type(com.openfinance.payment.common.entity.PaymentType.PIX)
+                    .amount(new BigDecimal("100.00"))
+                    .currency("BRL")
+                    .status(PaymentStatus.PENDING)
+                    .senderDocument("12345678909")
+                    .senderBankCode("001")
+                    .receiverPixKey("test@example.com")
+                    .receiverPixKeyType("EMAIL")
+                    .build();
+            paymentRepository.save(payment);
+        }
+        // Page from the stored rows, as separate requests would; the managed entities
+        // still hold created_at at a finer precision than the column
+        entityManager.flush();
+        entityManager.clear();
+
+        Set<String> seen = new HashSet<>();
+        String cursor = "";
+        int pages = 0;
+        do {
+            String body = mockMvc.perform(get("/api/v1/payments")
+                            .param("cursor", cursor)
+                            .param("size", "2"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").doesNotExist())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode page = objectMapper.readTree(body);
+            page.get("content").forEach(payment -> seen.add(payment.get("paymentId").asText()));
+            cursor = page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).hasSize(5);
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("Should reject a malformed cursor")
+    void shouldRejectMalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/payments").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("INVALID_CURSOR")));
+    }
+
     @Test
     @DisplayName("Should require authentication")
     void shouldRequireAuthentication() throws Exception {
@@ -0,0 +1,103 @@
+package com.openfinance.payment.api.events;
+
+import com.openfinance.payment.common.entity.PaymentStatus;
+import com.openfinance.payment.common.repository.PaymentRepository;
+import com.openfinance.payment.common.repository.PaymentStatusView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Payment Status Hub Tests")
+class PaymentStatusHubTest {
+
+    private PaymentRepository paymentRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentStatusHub hub;
+
+    @BeforeEach
+    void setUp() {
+        paymentRepository = mock(PaymentRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        hub = new PaymentStatusHub(paymentRepository, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should deliver status changes only to subscribers of that payment")
+    void shouldDeliverToSubscribersOfPayment() {
+        List<PaymentStatus> received = new CopyOnWriteArrayList<>();
+        AtomicInteger otherCalls = new AtomicInteger();
+        hub.subscribe("PAY-1", received::add);
+        hub.subscribe("PAY-2", status -> otherCalls.incrementAndGet());
+
+        hub.publish("PAY-1", PaymentStatus.PROCESSING);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> received.size() == 1);
+        assertThat(received).containsExactly(PaymentStatus.PROCESSING);
+        assertThat(otherCalls).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Should stop delivering after a subscription is closed")
+    void shouldStopDeliveringAfterClose() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        PaymentStatusHub.Subscription subscription = hub.subscribe("PAY-1", status -> calls.incrementAndGet());
+
+        subscription.close();
+        subscription.close();
+        hub.publish("PAY-1", PaymentStatus.SUCCESS);
+
+        Thread.sleep(100);
+        assertThat(calls).hasValue(0);
+        assertThat(meterRegistry.get("payments.status.subscriptions").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should republish current statuses of watched payments on resync")
+    void shouldRepublishOnResync() {
+        List<PaymentStatus> received = new CopyOnWriteArrayList<>();
+        hub.subscribe("PAY-1", received::add);
+        when(paymentRepository.findStatusesByPaymentIdIn(anyCollection()))
+                .thenReturn(List.of(new PaymentStatusView("PAY-1", PaymentStatus.SUCCESS)));
+
+        hub.resync();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> received.size() == 1);
+        assertThat(received).containsExactly(PaymentStatus.SUCCESS);
+    }
+
+    @Test
+    @DisplayName("Should hold 50k idle subscriptions")
+    void shouldHoldManyIdleSubscriptions() {
+        List<PaymentStatusHub.Subscription> subscriptions = new ArrayList<>();
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 50_000; i++) {
+            subscriptions.add(hub.subscribe("PAY-" + i, status -> calls.incrementAndGet()));
+        }
+        assertThat(meterRegistry.get("payments.status.subscriptions").gauge().value()).isEqualTo(50_000);
+
+        hub.publish("PAY-42", PaymentStatus.SUCCESS);
+        await().atMost(Duration.ofSeconds(5)).until(() -> calls.get() == 1);
+
+        subscriptions.forEach(PaymentStatusHub.Subscription::close);
+        assertThat(meterRegistry.get("payments.status.subscriptions").gauge().value()).isZero();
+    }
+}
@@ -0,0 +1,168 @@
+package com.openfinance.payment.api.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("Export Writer Tests")
+class ExportWriterTest {
+
+    private static final String PAYMENT_HEADER = "paymentId,type,status,amount,currency,senderDocument,"
+            + "senderBankCode,senderAccount,receiverPixKey,receiverPixKeyType,confirmationCode,failureReason,"
+            + "createdAt,processedAt,updatedAt";
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 11, 19, 19, 0);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StringWriter out = new StringWriter();
+
+    /**
+     * Current cursor row, column 1 first, read by the mocked result set
+     */
+    private Object[] row;
+    private final ResultSet rs = mock(ResultSet.class, invocation -> {
+        Object value = row[(Integer) invocation.getArgument(0) - 1];
+        return invocation.getMethod().getName().equals("getString") && value != null ? value.toString() : value;
+    });
+
+    @Test
+    @DisplayName("Should write a CSV header and one quoted, null-safe row per payment")
+    void shouldWriteCsvPayments() throws Exception {
+        CsvExportWriter writer = new CsvExportWriter(out, false);
+
+        writer.start();
+        write(writer, payment(UUID.randomUUID(), "PAY-1", "SUCCESS", null), null);
+        write(writer, payment(UUID.randomUUID(), "PAY-2", "FAILED", "Bank said \"no\", retry"), null);
+        writer.finish();
+
+        assertThat(out.toString()).isEqualTo(PAYMENT_HEADER + "\r\n"
+                + "PAY-1,PIX,SUCCESS,100.50,BRL,12345678909,001,12345-6,user@example.com,EMAIL,,,"
+                + "2025-11-19T19:00,,2025-11-19T19:00\r\n"
+                + "PAY-2,PIX,FAILED,100.50,BRL,12345678909,001,12345-6,user@example.com,EMAIL,,"
+                + "\"Bank said \"\"no\"\", retry\",2025-11-19T19:00,,2025-11-19T19:00\r\n");
+        assertThat(writer.payments()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should write one CSV row per event, and one with empty event columns for a payment without events")
+    void shouldWriteCsvEvents() throws Exception {
+        CsvExportWriter writer = new CsvExportWriter(out, true);
+        UUID first = UUID.randomUUID();
+
+        writer.start();
+        write(writer, payment(first, "PAY-1", "SUCCESS", null), event("CREATED", null, "PENDING", null));
+        write(writer, payment(first, "PAY-1", "SUCCESS", null),
+                event("STATUS_CHANGED", "PENDING", "SUCCESS", "{\"reason\":\"ok\"}"));
+        write(writer, payment(UUID.randomUUID(), "PAY-2", "PENDING", null), new Object[5]);
+        writer.finish();
+
+        String[] lines = out.toString().split("\r\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).isEqualTo(PAYMENT_HEADER + ",eventType,oldStatus,newStatus,metadata,eventCreatedAt");
+        assertThat(lines[1]).startsWith("PAY-1,").endsWith(",CREATED,,PENDING,,2025-11-19T19:00");
+        assertThat(lines[2]).startsWith("PAY-1,")
+                .endsWith(",STATUS_CHANGED,PENDING,SUCCESS,\"{\"\"reason\"\":\"\"ok\"\"}\",2025-11-19T19:00");
+        assertThat(lines[3]).startsWith("PAY-2,").endsWith(",,,,,");
+        assertThat(writer.payments()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should write one JSON object per line, without null fields")
+    void shouldWriteNdjsonPayments() throws Exception {
+        NdjsonExportWriter writer = new NdjsonExportWriter(out, false);
+
+        writer.start();
+        write(writer, payment(UUID.randomUUID(), "PAY-1", "SUCCESS", null), null);
+        write(writer, payment(UUID.randomUUID(), "PAY-2", "FAILED", "Bank said \"no\""), null);
+        writer.finish();
+
+        String[] lines = out.toString().split("\n");
+        assertThat(lines).hasSize(2);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("paymentId").asText()).isEqualTo("PAY-1");
+        assertThat(first.get("amount").isNumber()).isTrue();
+        assertThat(first.get("amount").decimalValue()).isEqualByComparingTo("100.50");
+        assertThat(first.get("createdAt").asText()).isEqualTo("2025-11-19T19:00");
+        assertThat(first.has("failureReason")).isFalse();
+        assertThat(first.has("processedAt")).isFalse();
+        assertThat(first.has("events")).isFalse();
+        assertThat(objectMapper.readTree(lines[1]).get("failureReason").asText()).isEqualTo("Bank said \"no\"");
+        assertThat(writer.payments()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should nest a payment's events in one NDJSON line, with metadata as JSON")
+    void shouldWriteNdjsonEvents() throws Exception {
+        NdjsonExportWriter writer = new NdjsonExportWriter(out, true);
+        UUID first = UUID.randomUUID();
+
+        writer.start();
+        write(writer, payment(first, "PAY-1", "SUCCESS", null), event("CREATED", null, "PENDING", null));
+        write(writer, payment(first, "PAY-1", "SUCCESS", null),
+                event("STATUS_CHANGED", "PENDING", "SUCCESS", "{\"reason\":\"ok\"}"));
+        write(writer, payment(UUID.randomUUID(), "PAY-2", "PENDING", null), new Object[5]);
+        writer.finish();
+
+        String[] lines = out.toString().split("\n");
+        assertThat(lines).hasSize(2);
+
+        JsonNode events = objectMapper.readTree(lines[0]).get("events");
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0).get("eventType").asText()).isEqualTo("CREATED");
+        assertThat(events.get(0).has("oldStatus")).isFalse();
+        assertThat(events.get(1).get("metadata").get("reason").asText()).isEqualTo("ok");
+        assertThat(events.get(1).get("eventCreatedAt").asText()).isEqualTo("2025-11-19T19:00");
+
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertThat(second.get("paymentId").asText()).isEqualTo("PAY-2");
+        assertThat(second.get("events")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should write nothing but the header for an empty export")
+    void shouldWriteEmptyExports() throws Exception {
+        CsvExportWriter csv = new CsvExportWriter(out, false);
+        csv.start();
+        csv.finish();
+        assertThat(out.toString()).isEqualTo(PAYMENT_HEADER + "\r\n");
+
+        StringWriter ndjsonOut = new StringWriter();
+        NdjsonExportWriter ndjson = new NdjsonExportWriter(ndjsonOut, true);
+        ndjson.start();
+        ndjson.finish();
+        assertThat(ndjsonOut.toString()).isEmpty();
+        assertThat(ndjson.payments()).isZero();
+    }
+
+    private void write(ExportWriter writer, Object[] payment, Object[] event) throws SQLException, IOException {
+        row = Arrays.copyOf(payment, payment.length + (event != null ? event.length : 0));
+        if (event != null) {
+            System.arraycopy(event, 0, row, payment.length, event.length);
+        }
+        writer.row(rs);
+    }
+
+    /**
+     * Row id followed by the {@link ExportColumn#PAYMENT} columns
+     */
+    private static Object[] payment(UUID id, String paymentId, String status, String failureReason) {
+        return new Object[]{id, paymentId, "PIX", status, new BigDecimal("100.50"), "BRL", "12345678909", "001",
+                "12345-6", "user@example.com", "EMAIL", null, failureReason, CREATED_AT, null, CREATED_AT};
+    }
+
+    private static Object[] event(String eventType, String oldStatus, String newStatus, String metadata) {
+        return new Object[]{eventType, oldStatus, newStatus, metadata, CREATED_AT};
+    }
+}
@@ -0,0 +1,69 @@
+package com.openfinance.payment.api.export;
+
+import com.openfinance.payment.common.entity.PaymentStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Payment Export Query Tests")
+class PaymentExportQueryTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 11, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2025, 12, 1, 0, 0);
+
+    @Test
+    @DisplayName("Should select every payment in listing order without filters")
+    void shouldSelectAllPayments() {
+        List<Object> args = new ArrayList<>();
+
+        String sql = PaymentExportService.buildQuery(new PaymentExportFilter(null, null, null, false), args);
+
+        assertThat(sql).startsWith("SELECT p.id, p.payment_id, p.type, p.status, p.amount,")
+                .endsWith("p.updated_at FROM payments p ORDER BY p.created_at, p.id")
+                .doesNotContain("WHERE", "audit_log");
+        assertThat(args).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should combine status and creation time filters with bind arguments in order")
+    void shouldFilterByStatusAndTime() {
+        List<Object> args = new ArrayList<>();
+
+        String sql = PaymentExportService.buildQuery(
+                new PaymentExportFilter(PaymentStatus.SUCCESS, FROM, TO, false), args);
+
+        assertThat(sql).endsWith(" FROM payments p WHERE p.status = ? AND p.created_at >= ? AND p.created_at < ?"
+                + " ORDER BY p.created_at, p.id");
+        assertThat(args).containsExactly("SUCCESS", FROM, TO);
+    }
+
+    @Test
+    @DisplayName("Should bind only the filters that are set")
+    void shouldFilterByOpenEndedRange() {
+        List<Object> args = new ArrayList<>();
+
+        String sql = PaymentExportService.buildQuery(new PaymentExportFilter(null, null, TO, false), args);
+
+        assertThat(sql).contains(" WHERE p.created_at < ? ORDER BY").doesNotContain("p.status = ?", ">=");
+        assertThat(args).containsExactly(TO);
+    }
+
+    @Test
+    @DisplayName("Should join events after the payment columns and keep each payment's events together")
+    void shouldJoinEvents() {
+        List<Object> args = new ArrayList<>();
+
+        String sql = PaymentExportService.buildQuery(
+                new PaymentExportFilter(PaymentStatus.FAILED, null, null, true), args);
+
+        assertThat(sql).contains("p.updated_at, a.event_type, a.old_status, a.new_status, a.metadata, a.created_at"
+                        + " FROM payments p LEFT JOIN audit_log a ON a.payment_id = p.id WHERE p.status = ?")
+                .endsWith(" ORDER BY p.created_at, p.id, a.id");
+        assertThat(args).containsExactly("FAILED");
+    }
+}
@@ -0,0 +1,164 @@
+package com.openfinance.payment.api.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openfinance.payment.common.entity.PaymentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("Payment Export Tests")
+class PaymentExportServiceTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2025, 11, 19, 19, 0);
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    @Autowired
+    private PaymentExportService exportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE audit_log, payment_queue, payments");
+    }
+
+    @Test
+    @DisplayName("Should export payments with their events as NDJSON")
+    void shouldExportNdjsonWithEvents() throws Exception {
+        insertPayments(3, "SUCCESS");
+        jdbcTemplate.update("""
+                INSERT INTO audit_log (id, payment_id, event_type, old_status, new_status, metadata, created_at)
+                SELECT nextval('audit_log_id_seq'), id, 'CREATED', NULL, 'PENDING', '{"source": "api"}'::jsonb, created_at
+                FROM payments WHERE payment_id IN ('PAY-TEST-1', 'PAY-TEST-2')
+                """);
+
+        String output = export(new PaymentExportFilter(null, null, null, true), ExportFormat.NDJSON);
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : output.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0).get("paymentId").asText()).isEqualTo("PAY-TEST-1");
+        assertThat(lines.get(0).get("amount").decimalValue()).isEqualByComparingTo("10.00");
+        assertThat(lines.get(0).get("events")).hasSize(1);
+        assertThat(lines.get(0).get("events").get(0).get("metadata").get("source").asText()).isEqualTo("api");
+        assertThat(lines.get(2).get("events")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should filter by status and date range as CSV")
+    void shouldFilterCsvByStatusAndDateRange() throws Exception {
+        insertPayments(5, "SUCCESS");
+        jdbcTemplate.update("UPDATE payments SET status = 'FAILED', failure_reason = 'Limit, \"daily\"' "
+                + "WHERE payment_id = 'PAY-TEST-3'");
+
+        PaymentExportFilter filter = new PaymentExportFilter(
+                PaymentStatus.FAILED, BASE_TIME.plusSeconds(2), BASE_TIME.plusSeconds(4), false);
+        String[] rows = export(filter, ExportFormat.CSV).split("\r\n");
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows[0]).startsWith("paymentId,type,status,amount");
+        assertThat(rows[1]).startsWith("PAY-TEST-3,PIX,FAILED,10.00")
+                .contains("\"Limit, \"\"daily\"\"\"");
+    }
+
+    /**
+     * Proves the export streams: with a 64 MB heap, buffering 5M rows would run out of memory.
+     * <pre>
+     * mvn -pl payment-api test -Dtest=PaymentExportServiceTest -Dexport.rows=5000000 -DargLine=-Xmx64m
+     * </pre>
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "export.rows", matches = "\\d+")
+    @DisplayName("Should export millions of rows with a small heap")
+    void shouldExportMillionsOfRowsWithSmallHeap() throws Exception {
+        int rows = Integer.getInteger("export.rows");
+        assertThat(Runtime.getRuntime().maxMemory())
+                .as("run with -DargLine=-Xmx64m")
+                .isLessThanOrEqualTo(128L * 1024 * 1024);
+        insertPayments(rows, "SUCCESS");
+
+        LineCountingOutputStream out = new LineCountingOutputStream();
+        long exported = exportService.export(new PaymentExportFilter(null, null, null, false), ExportFormat.NDJSON, out);
+
+        assertThat(exported).isEqualTo(rows);
+        assertThat(out.lines).isEqualTo(rows);
+    }
+
+    private void insertPayments(int count, String status) {
+        jdbcTemplate.update("""
+                INSERT INTO payments (id, payment_id, type, amount, currency, status, sender_document,
+                                      sender_bank_code, receiver_pix_key, receiver_pix_key_type,
+                                      created_at, updated_at, version)
+                SELECT gen_random_uuid(), 'PAY-TEST-' || g, 'PIX', 10.00, 'BRL', ?, '12345678909',
+                       '001', 'user@example.com', 'EMAIL', ? + g * INTERVAL '1 second', now(), 0
+                FROM generate_series(1, ?) g
+                """, status, BASE_TIME, count);
+    }
+
+    private String export(PaymentExportFilter filter, ExportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(filter, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static final class LineCountingOutputStream extends OutputStream {
+
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.openfinance.payment.processing;
 
+import com.openfinance.payment.processing.config.ProcessingProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
@@ -13,6 +15,7 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 @EnableJpaRepositories(basePackages = "com.openfinance.payment.common.repository")
 @EntityScan(basePackages = "com.openfinance.payment.common.entity")
 @EnableScheduling
+@EnableConfigurationProperties(ProcessingProperties.class)
 public class ProcessingServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,34 @@
+package com.openfinance.payment.processing.client;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking client for the banking institution.
+ * Implementations must not park the calling thread while the bank responds.
+ */
+public interface BankClient {
+
+    /**
+     * Submits a PIX payment to the bank
+     * @param paymentId The payment ID
+     * @param amount The payment amount
+     * @param pixKey The receiver PIX key
+     * @return future completed with the bank's response
+     */
+    CompletableFuture<BankResponse> processPixPayment(UUID paymentId, String amount, String pixKey);
+
+    /**
+     * Submits several PIX payments in one bank call
+     * @return future completed with one response per transfer, in the same order
+     */
+    CompletableFuture<List<BankResponse>> processPixPayments(List<PixTransfer> transfers);
+
+    /**
+     * Queries bank for payment status
+     * @param confirmationCode The confirmation code from previous processing
+     * @return future completed with the current status
+     */
+    CompletableFuture<BankResponse> queryPaymentStatus(String confirmationCode);
+}
@@ -0,0 +1,46 @@
+package com.openfinance.payment.processing.client;
+
+/**
+ * Outcome of a bank call
+ */
+public record BankResponse(
+        boolean success,
+        String confirmationCode,
+        String message,
+        String errorMessage
+) {
+    public static BankResponseBuilder builder() {
+        return new BankResponseBuilder();
+    }
+
+    public static class BankResponseBuilder {
+        private boolean success;
+        private String confirmationCode;
+        private String message;
+        private String errorMessage;
+
+        public BankResponseBuilder success(boolean success) {
+            this.success = success;
+            return this;
+        }
+
+        public BankResponseBuilder confirmationCode(String confirmationCode) {
+            this.confirmationCode = confirmationCode;
+            return this;
+        }
+
+        public BankResponseBuilder message(String message) {
+            this.message = message;
+            return this;
+        }
+
+        public BankResponseBuilder errorMessage(String errorMessage) {
+            this.errorMessage = errorMessage;
+            return this;
+        }
+
+        public BankResponse build() {
+            return new BankResponse(success, confirmationCode, message, errorMessage);
+        }
+    }
+}
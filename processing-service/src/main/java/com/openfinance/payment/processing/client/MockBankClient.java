@@ -1,106 +1,113 @@
 package com.openfinance.payment.processing.client;
 
+import com.openfinance.payment.common.bank.BankCallGuard;
+import com.openfinance.payment.common.bank.BankSimulator;
+import com.openfinance.payment.processing.config.ProcessingProperties;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
-import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Mock bank client to simulate communication with banking institutions
  * In production, this would be replaced with real HTTP clients to bank APIs
+ *
+ * Latency and outcomes come from {@link BankSimulator}s configured under {@code bank.simulator}.
+ * Each endpoint sits behind its own {@link BankCallGuard}; responses carrying one of
+ * {@code processing.bank-limit.overload-errors} count as failures towards opening its circuit.
  */
 @Component
 @Slf4j
-public class MockBankClient {
-
-    private static final Random RANDOM = new SecureRandom();
-    private static final double SUCCESS_RATE = 0.85; // 85% success rate
-
-    /**
-     * Simulates processing a PIX payment with a bank
-     * @param paymentId The payment ID
-     * @param amount The payment amount
-     * @param pixKey The receiver PIX key
-     * @return BankResponse with status and confirmation code
-     */
-    public BankResponse processPixPayment(UUID paymentId, String amount, String pixKey) {
+public class MockBankClient implements BankClient {
+
+    private final BankSimulator pixSimulator;
+    private final BankSimulator statusQuerySimulator;
+    private final BankCallGuard pixGuard;
+    private final BankCallGuard statusQueryGuard;
+    private final Set<String> overloadErrors;
+
+    public MockBankClient(@Qualifier("pixSimulator") BankSimulator pixSimulator,
+                          @Qualifier("statusQuerySimulator") BankSimulator statusQuerySimulator,
+                          @Qualifier("pixBankGuard") BankCallGuard pixGuard,
+                          @Qualifier("statusQueryBankGuard") BankCallGuard statusQueryGuard,
+                          ProcessingProperties properties) {
+        this.pixSimulator = pixSimulator;
+        this.statusQuerySimulator = statusQuerySimulator;
+        this.pixGuard = pixGuard;
+        this.statusQueryGuard = statusQueryGuard;
+        this.overloadErrors = Set.copyOf(properties.getBankLimit().getOverloadErrors());
+    }
+
+    public BankSimulator getPixSimulator() {
+        return pixSimulator;
+    }
+
+    @Override
+    public CompletableFuture<BankResponse> processPixPayment(UUID paymentId, String amount, String pixKey) {
         log.info("Processing PIX payment with bank: paymentId={}, amount={}, pixKey={}",
                 paymentId, amount, maskPixKey(pixKey));
 
-        try {
-            // Simulate network delay
-            Thread.sleep(RANDOM.nextInt(1000) + 500); // 500-1500ms
-
-            // Simulate success/failure based on success rate
-            boolean success = RANDOM.nextDouble() < SUCCESS_RATE;
-
-            if (success) {
-                String confirmationCode = generateConfirmationCode();
-                log.info("Bank processing successful: paymentId={}, confirmationCode={}",
-                        paymentId, confirmationCode);
-
-                return BankResponse.builder()
-                        .success(true)
-                        .confirmationCode(confirmationCode)
-                        .message("Payment processed successfully")
-                        .build();
-            } else {
-                String errorMessage = getRandomErrorMessage();
-                log.warn("Bank processing failed: paymentId={}, error={}",
-                        paymentId, errorMessage);
-
-                return BankResponse.builder()
-                        .success(false)
-                        .errorMessage(errorMessage)
-                        .message("Payment processing failed")
-                        .build();
-            }
+        return pixGuard.call(() -> pixSimulator.call().thenApply(outcome -> toPixResponse(paymentId, outcome)),
+                this::isUnavailable);
+    }
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Payment processing interrupted: paymentId={}", paymentId, e);
+    @Override
+    public CompletableFuture<List<BankResponse>> processPixPayments(List<PixTransfer> transfers) {
+        log.info("Submitting PIX batch to bank: size={}", transfers.size());
 
-            return BankResponse.builder()
-                    .success(false)
-                    .errorMessage("Processing interrupted")
-                    .build();
-        }
+        // Individual items fail for their own reasons; only a mostly unavailable batch counts against the bank
+        return pixGuard.call(() -> pixSimulator.callBatch(transfers.size()).thenApply(outcomes -> {
+            List<BankResponse> responses = new ArrayList<>(transfers.size());
+            for (int i = 0; i < transfers.size(); i++) {
+                responses.add(toPixResponse(transfers.get(i).paymentId(), outcomes.get(i)));
+            }
+            return responses;
+        }), responses -> !responses.isEmpty()
+                && responses.stream().filter(this::isUnavailable).count() * 2 >= responses.size());
     }
 
-    /**
-     * Queries bank for payment status
-     * @param confirmationCode The confirmation code from previous processing
-     * @return BankResponse with current status
-     */
-    public BankResponse queryPaymentStatus(String confirmationCode) {
+    @Override
+    public CompletableFuture<BankResponse> queryPaymentStatus(String confirmationCode) {
         log.info("Querying payment status with bank: confirmationCode={}", confirmationCode);
 
-        try {
-            // Simulate network delay
-            Thread.sleep(RANDOM.nextInt(300) + 100); // 100-400ms
-
-            // Most queries return success (95%)
-            boolean success = RANDOM.nextDouble() < 0.95;
+        return statusQueryGuard.call(() -> statusQuerySimulator.call().thenApply(outcome -> BankResponse.builder()
+                .success(outcome.success())
+                .confirmationCode(confirmationCode)
+                .message(outcome.success() ? "Payment confirmed" : outcome.errorMessage())
+                .build()), this::isUnavailable);
+    }
 
-            return BankResponse.builder()
-                    .success(success)
-                    .confirmationCode(confirmationCode)
-                    .message(success ? "Payment confirmed" : "Payment not found")
-                    .build();
+    private boolean isUnavailable(BankResponse response) {
+        return !response.success() && response.errorMessage() != null && overloadErrors.contains(response.errorMessage());
+    }
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Status query interrupted: confirmationCode={}", confirmationCode, e);
+    private BankResponse toPixResponse(UUID paymentId, BankSimulator.Outcome outcome) {
+        if (outcome.success()) {
+            String confirmationCode = generateConfirmationCode();
+            log.info("Bank processing successful: paymentId={}, confirmationCode={}",
+                    paymentId, confirmationCode);
 
             return BankResponse.builder()
-                    .success(false)
-                    .errorMessage("Query interrupted")
+                    .success(true)
+                    .confirmationCode(confirmationCode)
+                    .message("Payment processed successfully")
                     .build();
         }
+
+        log.warn("Bank processing failed: paymentId={}, error={}", paymentId, outcome.errorMessage());
+        return BankResponse.builder()
+                .success(false)
+                .errorMessage(outcome.errorMessage())
+                .message("Payment processing failed")
+                .build();
     }
 
     private String generateConfirmationCode() {
@@ -108,21 +115,9 @@ public class MockBankClient {
         // Format: E12345678202511191900001234567890
         LocalDateTime now = LocalDateTime.now();
         String date = now.format(DateTimeFormatter.ofPattern("yyyyMMddHHmm"));
-        long sequence = RANDOM.nextLong(1000000000L);
+        long sequence = ThreadLocalRandom.current().nextLong(1000000000L);
 
-        return String.format("E%011d%s%09d", RANDOM.nextLong(100000000000L), date, sequence);
-    }
-
-    private String getRandomErrorMessage() {
-        String[] errors = {
-                "Insufficient funds",
-                "Invalid PIX key",
-                "Bank system temporarily unavailable",
-                "Daily limit exceeded",
-                "Account blocked",
-                "Timeout communicating with bank"
-        };
-        return errors[RANDOM.nextInt(errors.length)];
+        return String.format("E%011d%s%09d", ThreadLocalRandom.current().nextLong(100000000000L), date, sequence);
     }
 
     private String maskPixKey(String pixKey) {
@@ -131,46 +126,4 @@ public class MockBankClient {
         }
         return pixKey.substring(0, 2) + "****" + pixKey.substring(pixKey.length() - 2);
     }
-
-    public record BankResponse(
-            boolean success,
-            String confirmationCode,
-            String message,
-            String errorMessage
-    ) {
-        public static BankResponseBuilder builder() {
-            return new BankResponseBuilder();
-        }
-    }
-
-    public static class BankResponseBuilder {
-        private boolean success;
-        private String confirmationCode;
-        private String message;
-        private String errorMessage;
-
-        public BankResponseBuilder success(boolean success) {
-            this.success = success;
-            return this;
-        }
-
-        public BankResponseBuilder confirmationCode(String confirmationCode) {
-            this.confirmationCode = confirmationCode;
-            return this;
-        }
-
-        public BankResponseBuilder message(String message) {
-            this.message = message;
-            return this;
-        }
-
-        public BankResponseBuilder errorMessage(String errorMessage) {
-            this.errorMessage = errorMessage;
-            return this;
-        }
-
-        public BankResponse build() {
-            return new BankResponse(success, confirmationCode, message, errorMessage);
-        }
-    }
 }
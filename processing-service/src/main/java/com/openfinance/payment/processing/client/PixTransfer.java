@@ -0,0 +1,13 @@
+package com.openfinance.payment.processing.client;
+
+import java.util.UUID;
+
+/**
+ * One PIX payment as submitted to the bank
+ */
+public record PixTransfer(
+        UUID paymentId,
+        String amount,
+        String pixKey
+) {
+}
@@ -0,0 +1,35 @@
+package com.openfinance.payment.processing.config;
+
+import com.openfinance.payment.common.bank.BankCallGuard;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Circuit breakers and bulkheads for the bank endpoints, configured under
+ * {@code resilience4j.circuitbreaker.instances.*} and {@code resilience4j.bulkhead.instances.*}.
+ * Breaker state and call counts are published by resilience4j-micrometer as {@code resilience4j.circuitbreaker.*}.
+ */
+@Configuration
+public class BankResilienceConfig {
+
+    public static final String PIX = "bank-pix";
+    public static final String STATUS_QUERY = "bank-status-query";
+
+    @Bean
+    public BankCallGuard pixBankGuard(CircuitBreakerRegistry circuitBreakerRegistry,
+                                      BulkheadRegistry bulkheadRegistry,
+                                      ProcessingProperties properties) {
+        return new BankCallGuard(circuitBreakerRegistry.circuitBreaker(PIX), bulkheadRegistry.bulkhead(PIX),
+                properties.getBankTimeout());
+    }
+
+    @Bean
+    public BankCallGuard statusQueryBankGuard(CircuitBreakerRegistry circuitBreakerRegistry,
+                                              BulkheadRegistry bulkheadRegistry,
+                                              ProcessingProperties properties) {
+        return new BankCallGuard(circuitBreakerRegistry.circuitBreaker(STATUS_QUERY),
+                bulkheadRegistry.bulkhead(STATUS_QUERY), properties.getBankTimeout());
+    }
+}
@@ -0,0 +1,58 @@
+package com.openfinance.payment.processing.config;
+
+import com.openfinance.payment.common.bank.BankSimulator;
+import com.openfinance.payment.common.bank.BankSimulatorSettings;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Simulated bank endpoints, tunable under {@code bank.simulator.*}.
+ * All simulated calls complete from one timer thread, so thousands of calls
+ * can be in flight without a thread per call.
+ */
+@Configuration
+public class BankSimulatorConfig implements DisposableBean {
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("bank-simulator").daemon(true).factory());
+
+    @Bean
+    @ConfigurationProperties(prefix = "bank.simulator.pix")
+    public BankSimulatorSettings pixSimulatorSettings() {
+        return BankSimulatorSettings.uniform(Duration.ofMillis(500), Duration.ofMillis(1500), 0.85,
+                "Insufficient funds",
+                "Invalid PIX key",
+                "Bank system temporarily unavailable",
+                "Daily limit exceeded",
+                "Account blocked",
+                "Timeout communicating with bank");
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "bank.simulator.status-query")
+    public BankSimulatorSettings statusQuerySimulatorSettings() {
+        return BankSimulatorSettings.uniform(Duration.ofMillis(100), Duration.ofMillis(400), 0.95,
+                "Payment not found");
+    }
+
+    @Bean
+    public BankSimulator pixSimulator() {
+        return new BankSimulator(pixSimulatorSettings(), timer);
+    }
+
+    @Bean
+    public BankSimulator statusQuerySimulator() {
+        return new BankSimulator(statusQuerySimulatorSettings(), timer);
+    }
+
+    @Override
+    public void destroy() {
+        timer.shutdownNow();
+    }
+}
@@ -0,0 +1,185 @@
+package com.openfinance.payment.processing.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Tunables for the processing service, bound from the {@code processing.*} properties
+ */
+@Data
+@ConfigurationProperties(prefix = "processing")
+public class ProcessingProperties {
+
+    /**
+     * Identifies this node as the owner of leased queue items
+     */
+    private String nodeId;
+
+    /**
+     * How long to wait for the bank before treating the call as failed
+     */
+    private Duration bankTimeout = Duration.ofSeconds(10);
+
+    private final Queue queue = new Queue();
+
+    private final Workers workers = new Workers();
+
+    private final BankBatch bankBatch = new BankBatch();
+
+    private final BankLimit bankLimit = new BankLimit();
+
+    @Data
+    public static class Queue {
+
+        /**
+         * Maximum number of queue items claimed per poll
+         */
+        private int claimBatchSize = 50;
+
+        /**
+         * How long a claimed item stays leased before other nodes may reclaim it
+         */
+        private Duration leaseDuration = Duration.ofMinutes(2);
+
+        /**
+         * How long an item handed back unprocessed because the bank circuit is open waits before
+         * it may be claimed again; its retry count is left alone
+         */
+        private Duration parkDelay = Duration.ofSeconds(5);
+
+        private final Listen listen = new Listen();
+
+        private final RetryTimer retryTimer = new RetryTimer();
+
+        private final Metrics metrics = new Metrics();
+    }
+
+    @Data
+    public static class Metrics {
+
+        /**
+         * Count queue items exactly on every sample while the table holds at most this many rows
+         * (by the Postgres estimate); larger queues scale the last exact breakdown by the estimate
+         */
+        private long exactCountThreshold = 10_000;
+
+        /**
+         * Longest time between exact counts, however large the queue
+         */
+        private Duration exactCountInterval = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Listen {
+
+        /**
+         * Hold a dedicated LISTEN connection that wakes the claim loop on new payments
+         */
+        private boolean enabled = true;
+
+        /**
+         * Delay before reconnecting after the LISTEN connection drops
+         */
+        private Duration reconnectBackoff = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Workers {
+
+        /**
+         * Maximum number of payments processed concurrently on this node
+         */
+        private int concurrency = 64;
+
+        /**
+         * Platform threads running the database phases; ignored with virtual threads
+         */
+        private int threads = 16;
+
+        /**
+         * Run each payment on its own virtual thread instead of a fixed platform pool
+         */
+        private boolean virtualThreads = false;
+
+        /**
+         * How long to wait for in-flight payments when the service stops
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class BankBatch {
+
+        /**
+         * Group PIX submissions into micro-batches instead of one bank call per payment
+         */
+        private boolean enabled = false;
+
+        /**
+         * Largest batch sent in one bank call
+         */
+        private int maxSize = 50;
+
+        /**
+         * How long the first payment of a batch waits for others to join it
+         */
+        private Duration linger = Duration.ofMillis(10);
+    }
+
+    @Data
+    public static class BankLimit {
+
+        /**
+         * Adapt the number of concurrent PIX calls to the bank's latency and errors
+         */
+        private boolean enabled = true;
+
+        private int initialLimit = 20;
+
+        private int minLimit = 1;
+
+        private int maxLimit = 200;
+
+        /**
+         * How far latency may rise above the bank's no-load latency before the limit shrinks
+         */
+        private double rttTolerance = 1.5;
+
+        /**
+         * Factor applied to the limit when a call fails or the bank reports overload
+         */
+        private double backoffRatio = 0.9;
+
+        /**
+         * How long a call may wait for the limit; calls that wait longer fail without reaching the bank
+         */
+        private Duration maxWait = Duration.ofSeconds(10);
+
+        /**
+         * Bank errors that mean the bank is overloaded rather than that the payment was declined;
+         * they also count as failures towards opening the bank circuit breaker
+         */
+        private List<String> overloadErrors = List.of(
+                "Bank system temporarily unavailable",
+                "Timeout communicating with bank");
+    }
+
+    @Data
+    public static class RetryTimer {
+
+        /**
+         * Resolution of the retry timing wheel
+         */
+        private Duration tick = Duration.ofMillis(20);
+
+        /**
+         * Slots per wheel level (power of two)
+         */
+        private int wheelSize = 64;
+
+        private int levels = 4;
+    }
+}
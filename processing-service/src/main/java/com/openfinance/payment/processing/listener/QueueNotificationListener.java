@@ -0,0 +1,131 @@
+package com.openfinance.payment.processing.listener;
+
+import com.openfinance.payment.common.notification.PostgresNotifier;
+import com.openfinance.payment.processing.config.ProcessingProperties;
+import com.openfinance.payment.processing.scheduler.ProcessingScheduler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Holds a dedicated Postgres connection listening on the payment queue channel and
+ * wakes the claim loop as soon as a payment is enqueued. The connection is opened
+ * outside the Hikari pool so it never competes with processing work.
+ */
+@Component
+@ConditionalOnProperty(prefix = "processing.queue.listen", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class QueueNotificationListener {
+
+    private static final int RECEIVE_TIMEOUT_MS = 10_000;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final ProcessingScheduler scheduler;
+    private final Duration reconnectBackoff;
+    private final Counter notificationsCounter;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread listenerThread;
+
+    public QueueNotificationListener(DataSourceProperties dataSourceProperties,
+                                     ProcessingScheduler scheduler,
+                                     ProcessingProperties properties,
+                                     MeterRegistry meterRegistry) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.scheduler = scheduler;
+        this.reconnectBackoff = properties.getQueue().getListen().getReconnectBackoff();
+
+        this.notificationsCounter = Counter.builder("payments.queue.notifications")
+                .description("Queue notifications received from Postgres")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        listenerThread = Thread.ofPlatform()
+                .name("queue-notification-listener")
+                .daemon(true)
+                .start(this::listen);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        listenerThread.interrupt();
+        closeQuietly(connection);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection listenConnection = openConnection()) {
+                connection = listenConnection;
+                try (Statement statement = listenConnection.createStatement()) {
+                    statement.execute("LISTEN " + PostgresNotifier.PAYMENT_QUEUE_CHANNEL);
+                }
+                log.info("Listening for queue notifications: channel={}", PostgresNotifier.PAYMENT_QUEUE_CHANNEL);
+
+                // Catch up on anything enqueued while we were not listening
+                scheduler.requestWakeup();
+
+                PGConnection pgConnection = listenConnection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(RECEIVE_TIMEOUT_MS);
+                    if (notifications != null && notifications.length > 0) {
+                        notificationsCounter.increment(notifications.length);
+                        scheduler.requestWakeup();
+                    }
+                }
+
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("Queue notification listener disconnected, reconnecting in {}: {}",
+                        reconnectBackoff, e.getMessage());
+                try {
+                    Thread.sleep(reconnectBackoff.toMillis());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            } finally {
+                connection = null;
+            }
+        }
+        log.info("Queue notification listener stopped");
+    }
+
+    private Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword()
+        );
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Error closing listener connection", e);
+        }
+    }
+}
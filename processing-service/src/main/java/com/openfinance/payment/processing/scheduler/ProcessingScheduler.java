@@ -1,92 +1,210 @@
 package com.openfinance.payment.processing.scheduler;
 
+import com.openfinance.payment.common.bank.BankCallGuard;
 import com.openfinance.payment.common.entity.PaymentQueue;
-import com.openfinance.payment.common.repository.PaymentQueueRepository;
+import com.openfinance.payment.processing.config.ProcessingProperties;
 import com.openfinance.payment.processing.service.PaymentProcessingService;
+import com.openfinance.payment.processing.service.QueueClaimService;
+import com.openfinance.payment.processing.worker.PaymentWorkerPool;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Component
 @Slf4j
 public class ProcessingScheduler {
 
-    private final PaymentQueueRepository queueRepository;
+    private static final Duration SLOT_WAIT_TIMEOUT = Duration.ofSeconds(1);
+
     private final PaymentProcessingService processingService;
+    private final QueueClaimService claimService;
+    private final PaymentWorkerPool workerPool;
+    private final RetryTimer retryTimer;
+    private final ProcessingProperties properties;
+    private final QueueMetrics queueMetrics;
+    private final BankCallGuard bankGuard;
     private final AtomicInteger queueSize = new AtomicInteger(0);
-
-    public ProcessingScheduler(PaymentQueueRepository queueRepository,
-                               PaymentProcessingService processingService,
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final AtomicBoolean drainRequested = new AtomicBoolean(false);
+    private final AtomicBoolean wakeupPending = new AtomicBoolean(false);
+    private final ExecutorService wakeupExecutor =
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().name("queue-wakeup").factory());
+
+    public ProcessingScheduler(PaymentProcessingService processingService,
+                               QueueClaimService claimService,
+                               PaymentWorkerPool workerPool,
+                               RetryTimer retryTimer,
+                               ProcessingProperties properties,
+                               QueueMetrics queueMetrics,
+                               @Qualifier("pixBankGuard") BankCallGuard bankGuard,
                                MeterRegistry meterRegistry) {
-        this.queueRepository = queueRepository;
         this.processingService = processingService;
+        this.claimService = claimService;
+        this.workerPool = workerPool;
+        this.retryTimer = retryTimer;
+        this.properties = properties;
+        this.queueMetrics = queueMetrics;
+        this.bankGuard = bankGuard;
+
+        retryTimer.onDue(this::requestWakeup);
+        // Claiming stops while the bank circuit is open; resume as soon as it lets calls through
+        bankGuard.onCallsPermitted(this::requestWakeup);
 
         // Register gauge for queue size
         Gauge.builder("payments.queue.size", queueSize, AtomicInteger::get)
-                .description("Current payment queue size")
+                .description("Payments claimed in the last scheduling cycle")
                 .register(meterRegistry);
     }
 
     /**
-     * Process pending payments every 5 seconds
+     * Fallback poll for ready payments. New payments normally wake the claim loop
+     * immediately through {@link #requestWakeup()} and retries through the {@link RetryTimer};
+     * this catches anything enqueued while no notification listener was connected
+     * and items whose lease expired on another node.
      */
-    @Scheduled(fixedDelay = 5000, initialDelay = 2000)
+    @Scheduled(fixedDelayString = "${processing.queue.poll-interval-ms:15000}", initialDelay = 2000)
     public void processPendingPayments() {
+        drainRequested.set(true);
+        while (drainRequested.get() && drainLock.tryLock()) {
+            try {
+                if (drainRequested.getAndSet(false)) {
+                    drainQueue();
+                }
+            } finally {
+                drainLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Asks for an immediate drain of the queue without blocking the caller.
+     * Bursts of requests are coalesced into a single pending drain.
+     */
+    public void requestWakeup() {
+        if (wakeupPending.compareAndSet(false, true)) {
+            wakeupExecutor.execute(() -> {
+                wakeupPending.set(false);
+                processPendingPayments();
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wakeupExecutor.shutdownNow();
+
+        // Hand retries held in memory back to the cluster instead of waiting for their leases to expire
+        List<UUID> heldRetries = retryTimer.drainHeld();
+        if (!heldRetries.isEmpty()) {
+            int released = claimService.releaseLeases(heldRetries);
+            log.info("Released leases on {} pending retries", released);
+        }
+    }
+
+    /**
+     * Claims ready payments and hands them to the worker pool, claiming more
+     * as workers free up until the queue has been drained. Nothing is claimed while
+     * the bank circuit is open; items stay in the queue with their retry counts intact.
+     * While it is half-open, one pass claims no more than its remaining trial calls.
+     */
+    private void drainQueue() {
         try {
-            List<PaymentQueue> readyItems = queueRepository.findReadyForProcessing(LocalDateTime.now());
-            queueSize.set(readyItems.size());
+            int claimedTotal = 0;
 
-            if (readyItems.isEmpty()) {
-                log.trace("No payments ready for processing");
-                return;
-            }
+            while (!Thread.currentThread().isInterrupted()) {
+                int permittedCalls = bankGuard.permittedCalls();
+                if (permittedCalls == 0) {
+                    log.debug("Bank circuit open or out of trial calls, not claiming payments");
+                    break;
+                }
+
+                if (!workerPool.awaitAvailableSlot(SLOT_WAIT_TIMEOUT)) {
+                    log.debug("All workers busy, waiting for a free slot");
+                    continue;
+                }
 
-            log.info("Found {} payments ready for processing", readyItems.size());
+                int limit = Math.min(Math.min(properties.getQueue().getClaimBatchSize(), workerPool.availableSlots()),
+                        permittedCalls);
+                boolean probing = permittedCalls != Integer.MAX_VALUE;
 
-            for (PaymentQueue queueItem : readyItems) {
-                try {
-                    log.debug("Processing payment from queue: paymentId={}, retryCount={}",
-                            queueItem.getPaymentId(), queueItem.getRetryCount());
+                // Retries already leased to this node go first, then new work from the table
+                List<PaymentQueue> dueRetries = claimService.renewLeases(retryTimer.pollDue(limit));
+                for (PaymentQueue queueItem : dueRetries) {
+                    workerPool.submit(() -> processQueueItem(queueItem));
+                }
+                claimedTotal += dueRetries.size();
+                if (retryTimer.hasDue() && !probing) {
+                    continue;
+                }
+                limit -= dueRetries.size();
 
-                    processingService.processPayment(queueItem.getPaymentId());
+                List<PaymentQueue> readyItems = limit > 0 ? claimService.claimBatch(limit) : List.of();
+                claimedTotal += readyItems.size();
 
-                } catch (Exception e) {
-                    log.error("Error processing payment from queue: paymentId={}",
-                            queueItem.getPaymentId(), e);
-                    // Continue with next payment
+                for (PaymentQueue queueItem : readyItems) {
+                    workerPool.submit(() -> processQueueItem(queueItem));
+                }
+
+                // Trial calls only show up in the circuit once the workers send them; claiming
+                // again before then would hand out more payments than the circuit lets through
+                if (readyItems.size() < limit || probing) {
+                    break;
                 }
             }
 
-            log.info("Finished processing batch of {} payments", readyItems.size());
+            queueSize.set(claimedTotal);
 
+            if (claimedTotal == 0) {
+                log.trace("No payments ready for processing");
+            } else {
+                log.info("Handed off {} payments to worker pool", claimedTotal);
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Processing scheduler interrupted");
         } catch (Exception e) {
             log.error("Error in processing scheduler", e);
         }
     }
 
+    private CompletableFuture<Void> processQueueItem(PaymentQueue queueItem) {
+        log.debug("Processing payment from queue: paymentId={}, retryCount={}",
+                queueItem.getPaymentId(), queueItem.getRetryCount());
+
+        // Failures are logged and recorded by the processing service
+        return processingService.processPayment(queueItem.getPaymentId());
+    }
+
     /**
-     * Log queue statistics every minute
+     * Log queue statistics every minute, from the latest {@link QueueMetrics} sample
      */
     @Scheduled(fixedDelay = 60000)
     public void logQueueStatistics() {
-        try {
-            long totalPending = queueRepository.countPendingItems();
-            long totalInQueue = queueRepository.count();
-
-            log.info("Queue statistics: totalInQueue={}, pendingItems={}", totalInQueue, totalPending);
+        QueueMetrics.QueueSnapshot snapshot = queueMetrics.snapshot();
+        QueueMetrics.Counts counts = snapshot.counts();
 
-            if (totalInQueue > 1000) {
-                log.warn("High queue size detected: {} items in queue", totalInQueue);
-            }
+        log.info("Queue statistics: totalInQueue={}, ready={}, retrying={}, leased={}, exhausted={}, "
+                        + "oldestReadyAge={}, exact={}",
+                counts.total(), counts.ready(), counts.retrying(), counts.leased(), counts.exhausted(),
+                snapshot.oldestReadyAge(), snapshot.exact());
 
-        } catch (Exception e) {
-            log.error("Error logging queue statistics", e);
+        if (counts.total() > 1000) {
+            log.warn("High queue size detected: {} items in queue", counts.total());
         }
     }
 }
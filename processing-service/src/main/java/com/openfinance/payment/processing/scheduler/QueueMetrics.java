@@ -0,0 +1,180 @@
+package com.openfinance.payment.processing.scheduler;
+
+import com.openfinance.payment.processing.config.ProcessingProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Samples the depth and lag of {@code payment_queue} without scanning it on every sample:
+ * <ul>
+ *   <li>oldest ready item: one probe of the ready index, always exact</li>
+ *   <li>depth, enqueues and dequeues: Postgres' own table statistics
+ *       ({@code n_live_tup}, {@code n_tup_ins}, {@code n_tup_del}), covering every node</li>
+ *   <li>ready, retrying, leased and exhausted counts: exact while the table is small; for large
+ *       queues the last exact breakdown is scaled to the estimated depth, and recounted
+ *       every {@code processing.queue.metrics.exact-count-interval}</li>
+ * </ul>
+ * Items leave the queue when they settle, so dequeues count completions, not claims.
+ */
+@Component
+@Slf4j
+public class QueueMetrics {
+
+    private static final String TABLE_STATS_SQL = """
+            SELECT n_live_tup, n_tup_ins, n_tup_del
+            FROM pg_stat_user_tables
+            WHERE relname = 'payment_queue'
+            """;
+
+    private static final String OLDEST_READY_SQL = """
+            SELECT next_retry_at FROM payment_queue
+            WHERE next_retry_at <= ?
+              AND retry_count < max_retries
+              AND (lease_expires_at IS NULL OR lease_expires_at <= ?)
+            ORDER BY next_retry_at ASC
+            LIMIT 1
+            """;
+
+    private static final String EXACT_COUNTS_SQL = """
+            SELECT count(*),
+                   count(*) FILTER (WHERE next_retry_at <= ? AND retry_count < max_retries
+                                      AND (lease_expires_at IS NULL OR lease_expires_at <= ?)),
+                   count(*) FILTER (WHERE retry_count > 0 AND retry_count < max_retries),
+                   count(*) FILTER (WHERE lease_expires_at > ?),
+                   count(*) FILTER (WHERE retry_count >= max_retries)
+            FROM payment_queue
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long exactCountThreshold;
+    private final long exactCountIntervalNanos;
+
+    private volatile QueueSnapshot snapshot = QueueSnapshot.EMPTY;
+    private Counts lastExact;
+    private long lastExactAt;
+    private volatile long inserted;
+    private volatile long deleted;
+
+    public QueueMetrics(JdbcTemplate jdbcTemplate,
+                        ProcessingProperties properties,
+                        MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.exactCountThreshold = properties.getQueue().getMetrics().getExactCountThreshold();
+        this.exactCountIntervalNanos = properties.getQueue().getMetrics().getExactCountInterval().toNanos();
+
+        TimeGauge.builder("payments.queue.oldest.ready.age", this, TimeUnit.MILLISECONDS,
+                        metrics -> metrics.snapshot.oldestReadyAge().toMillis())
+                .description("How long the oldest claimable item has been waiting")
+                .register(meterRegistry);
+
+        Gauge.builder("payments.queue.depth", this, metrics -> metrics.snapshot.counts().total())
+                .description("Items in the payment queue")
+                .register(meterRegistry);
+
+        registerStateGauge(meterRegistry, "ready", "Items due and not leased", Counts::ready);
+        registerStateGauge(meterRegistry, "retrying", "Items that failed at least once and will be retried", Counts::retrying);
+        registerStateGauge(meterRegistry, "leased", "Items leased to a processing node", Counts::leased);
+        registerStateGauge(meterRegistry, "exhausted", "Items out of retries that were never settled", Counts::exhausted);
+
+        FunctionCounter.builder("payments.queue.enqueued", this, metrics -> metrics.inserted)
+                .description("Items added to the payment queue by any node")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("payments.queue.dequeued", this, metrics -> metrics.deleted)
+                .description("Items removed from the payment queue by any node")
+                .register(meterRegistry);
+    }
+
+    private void registerStateGauge(MeterRegistry meterRegistry, String state, String description,
+                                    ToDoubleFunction<Counts> count) {
+        Gauge.builder("payments.queue.items", this, metrics -> count.applyAsDouble(metrics.snapshot.counts()))
+                .description(description)
+                .tag("state", state)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${processing.queue.metrics.sample-interval-ms:10000}", initialDelay = 5000)
+    public void sample() {
+        try {
+            snapshot = takeSnapshot();
+        } catch (Exception e) {
+            log.warn("Failed to sample queue metrics: {}", e.getMessage());
+        }
+    }
+
+    public QueueSnapshot snapshot() {
+        return snapshot;
+    }
+
+    private QueueSnapshot takeSnapshot() {
+        LocalDateTime now = LocalDateTime.now();
+        long sampledAt = System.nanoTime();
+
+        List<LocalDateTime> oldest = jdbcTemplate.query(OLDEST_READY_SQL,
+                (rs, row) -> rs.getObject(1, LocalDateTime.class), now, now);
+        Duration oldestReadyAge = oldest.isEmpty() ? Duration.ZERO : Duration.between(oldest.get(0), now);
+        if (oldestReadyAge.isNegative()) {
+            oldestReadyAge = Duration.ZERO;
+        }
+
+        long estimatedTotal = -1;
+        List<long[]> stats = jdbcTemplate.query(TABLE_STATS_SQL,
+                (rs, row) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)});
+        if (!stats.isEmpty()) {
+            estimatedTotal = stats.get(0)[0];
+            inserted = stats.get(0)[1];
+            deleted = stats.get(0)[2];
+        }
+
+        Counts exact = lastExact;
+        boolean recount = exact == null
+                || estimatedTotal < 0
+                || estimatedTotal <= exactCountThreshold
+                || sampledAt - lastExactAt >= exactCountIntervalNanos;
+        if (recount) {
+            exact = jdbcTemplate.queryForObject(EXACT_COUNTS_SQL,
+                    (rs, row) -> new Counts(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5)),
+                    now, now, now);
+            lastExact = exact;
+            lastExactAt = sampledAt;
+            return new QueueSnapshot(exact, oldestReadyAge, true, now);
+        }
+
+        return new QueueSnapshot(exact.scaledTo(estimatedTotal), oldestReadyAge, false, now);
+    }
+
+    /**
+     * @param exact whether the counts come from a full count rather than the table estimate
+     */
+    public record QueueSnapshot(Counts counts, Duration oldestReadyAge, boolean exact, LocalDateTime sampledAt) {
+
+        static final QueueSnapshot EMPTY = new QueueSnapshot(new Counts(0, 0, 0, 0, 0), Duration.ZERO, true, null);
+    }
+
+    /**
+     * Items by state; ready, retrying and leased overlap (a retry waiting on this node is both retrying and leased)
+     */
+    public record Counts(long total, long ready, long retrying, long leased, long exhausted) {
+
+        Counts scaledTo(long estimatedTotal) {
+            if (total == 0) {
+                return new Counts(estimatedTotal, estimatedTotal, 0, 0, 0);
+            }
+            double factor = (double) estimatedTotal / total;
+            return new Counts(estimatedTotal, Math.round(ready * factor), Math.round(retrying * factor),
+                    Math.round(leased * factor), Math.round(exhausted * factor));
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.openfinance.payment.processing.scheduler;
+
+import com.openfinance.payment.common.util.TimingWheel;
+import com.openfinance.payment.processing.config.ProcessingProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory timing wheel holding the retry deadlines of queue items leased by this node.
+ * When a deadline passes the payment is handed back to the claim loop, so a 2s backoff
+ * fires after 2s instead of waiting for the next table scan.
+ *
+ * The payment_queue row (next_retry_at, lease_expires_at) stays the durable record:
+ * if this node dies, the lease expires and another node reclaims the item.
+ */
+@Component
+@Slf4j
+public class RetryTimer {
+
+    private final TimingWheel<UUID> wheel;
+    private final Map<UUID, TimingWheel.Timeout<UUID>> timers = new HashMap<>();
+    private final Queue<UUID> due = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ScheduledExecutorService ticker;
+    private volatile Runnable dueListener = () -> { };
+
+    public RetryTimer(ProcessingProperties properties, MeterRegistry meterRegistry) {
+        ProcessingProperties.RetryTimer config = properties.getQueue().getRetryTimer();
+        long tickMillis = config.getTick().toMillis();
+        this.wheel = new TimingWheel<>(tickMillis, config.getWheelSize(), config.getLevels(), System.currentTimeMillis());
+        this.ticker = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("retry-timer").daemon(true).factory());
+        this.ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("payments.retry.timers", this, RetryTimer::pending)
+                .description("Retry deadlines held in the in-memory timing wheel")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers the callback invoked whenever retries become due
+     */
+    public void onDue(Runnable listener) {
+        this.dueListener = listener;
+    }
+
+    public void schedule(UUID paymentId, LocalDateTime retryAt) {
+        long deadline = retryAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        lock.lock();
+        try {
+            TimingWheel.Timeout<UUID> previous = timers.put(paymentId, wheel.schedule(paymentId, deadline));
+            if (previous != null) {
+                previous.cancel();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void cancel(UUID paymentId) {
+        lock.lock();
+        try {
+            TimingWheel.Timeout<UUID> timeout = timers.remove(paymentId);
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes up to {@code max} payments whose retry deadline has passed
+     */
+    public List<UUID> pollDue(int max) {
+        List<UUID> result = new ArrayList<>(Math.min(max, 64));
+        UUID paymentId;
+        while (result.size() < max && (paymentId = due.poll()) != null) {
+            result.add(paymentId);
+        }
+        return result;
+    }
+
+    public boolean hasDue() {
+        return !due.isEmpty();
+    }
+
+    public int pending() {
+        lock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Empties the wheel and returns the payments it was still holding,
+     * including any that were due but not yet picked up
+     */
+    public List<UUID> drainHeld() {
+        lock.lock();
+        try {
+            List<UUID> held = new ArrayList<>(timers.keySet());
+            held.addAll(due);
+            timers.values().forEach(TimingWheel.Timeout::cancel);
+            timers.clear();
+            due.clear();
+            return held;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    private void tick() {
+        int fired;
+        lock.lock();
+        try {
+            fired = wheel.advanceTo(System.currentTimeMillis(), paymentId -> {
+                timers.remove(paymentId);
+                due.add(paymentId);
+            });
+        } catch (RuntimeException e) {
+            log.error("Error advancing retry timer", e);
+            return;
+        } finally {
+            lock.unlock();
+        }
+
+        if (fired > 0) {
+            log.debug("Retry deadlines reached: count={}", fired);
+            dueListener.run();
+        }
+    }
+}
@@ -1,43 +1,105 @@
 package com.openfinance.payment.processing.service;
 
+import com.openfinance.payment.common.audit.AuditWriter;
+import com.openfinance.payment.common.bank.BankCallGuard;
 import com.openfinance.payment.common.entity.*;
-import com.openfinance.payment.common.repository.AuditLogRepository;
+import com.openfinance.payment.common.metrics.PaymentLifecycleMetrics;
+import com.openfinance.payment.common.notification.PostgresNotifier;
 import com.openfinance.payment.common.repository.PaymentQueueRepository;
 import com.openfinance.payment.common.repository.PaymentRepository;
-import com.openfinance.payment.processing.client.MockBankClient;
+import com.openfinance.payment.processing.client.BankResponse;
+import com.openfinance.payment.processing.client.PixTransfer;
+import com.openfinance.payment.processing.config.ProcessingProperties;
+import com.openfinance.payment.processing.scheduler.RetryTimer;
+import com.openfinance.payment.processing.worker.PaymentWorkerPool;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Processes queued payments in three phases so no database connection is held
+ * while waiting on the bank:
+ * <ol>
+ *   <li>mark the payment PROCESSING and commit</li>
+ *   <li>call the bank outside any transaction, without blocking a thread</li>
+ *   <li>apply the outcome on a worker thread in a second short transaction, guarded by the payment version</li>
+ * </ol>
+ *
+ * Each step is timed separately under {@value #STAGE_TIMER}, tagged by stage, next to the
+ * total in {@code payments.processing.duration}.
+ *
+ * While the bank circuit is open, payments are handed back to the queue for
+ * {@code processing.queue.park-delay} instead of being attempted: no retry is used up
+ * and nothing is written to the payment or its audit trail. A payment whose call is rejected
+ * after it was marked PROCESSING goes back to PENDING, likewise without using a retry.
+ */
 @Service
 @Slf4j
 public class PaymentProcessingService {
 
+    public static final String STAGE_TIMER = "payments.processing.stage";
+
     private final PaymentRepository paymentRepository;
     private final PaymentQueueRepository queueRepository;
-    private final AuditLogRepository auditLogRepository;
-    private final MockBankClient bankClient;
+    private final AuditWriter auditWriter;
+    private final PostgresNotifier notifier;
+    private final PixSubmitter pixSubmitter;
+    private final TransactionTemplate transactionTemplate;
+    private final RetryTimer retryTimer;
+    private final PaymentWorkerPool workerPool;
+    private final ProcessingProperties properties;
+    private final PaymentLifecycleMetrics lifecycleMetrics;
+    private final BankCallGuard bankGuard;
     private final Counter paymentsSuccessCounter;
     private final Counter paymentsFailedCounter;
+    private final Counter staleOutcomesCounter;
+    private final Counter parkedCounter;
     private final Timer processingDurationTimer;
+    private final Timer dbReadTimer;
+    private final Timer processingUpdateTimer;
+    private final Timer outcomeWriteTimer;
+    private final Timer auditWriteTimer;
 
     public PaymentProcessingService(PaymentRepository paymentRepository,
                                     PaymentQueueRepository queueRepository,
-                                    AuditLogRepository auditLogRepository,
-                                    MockBankClient bankClient,
+                                    AuditWriter auditWriter,
+                                    PostgresNotifier notifier,
+                                    PixSubmitter pixSubmitter,
+                                    TransactionTemplate transactionTemplate,
+                                    RetryTimer retryTimer,
+                                    PaymentWorkerPool workerPool,
+                                    ProcessingProperties properties,
+                                    PaymentLifecycleMetrics lifecycleMetrics,
+                                    @Qualifier("pixBankGuard") BankCallGuard bankGuard,
                                     MeterRegistry meterRegistry) {
         this.paymentRepository = paymentRepository;
         this.queueRepository = queueRepository;
-        this.auditLogRepository = auditLogRepository;
-        this.bankClient = bankClient;
+        this.auditWriter = auditWriter;
+        this.notifier = notifier;
+        this.pixSubmitter = pixSubmitter;
+        this.transactionTemplate = transactionTemplate;
+        this.retryTimer = retryTimer;
+        this.workerPool = workerPool;
+        this.properties = properties;
+        this.lifecycleMetrics = lifecycleMetrics;
+        this.bankGuard = bankGuard;
 
         this.paymentsSuccessCounter = Counter.builder("payments.success")
                 .description("Successfully processed payments")
@@ -47,119 +109,328 @@ public class PaymentProcessingService {
                 .description("Failed payments")
                 .register(meterRegistry);
 
+        this.staleOutcomesCounter = Counter.builder("payments.outcomes.stale")
+                .description("Bank outcomes discarded because the payment changed concurrently")
+                .register(meterRegistry);
+
+        this.parkedCounter = Counter.builder("payments.queue.parked")
+                .description("Payments handed back to the queue unprocessed because the bank circuit was open")
+                .register(meterRegistry);
+
         this.processingDurationTimer = Timer.builder("payments.processing.duration")
                 .description("Payment processing duration")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        this.dbReadTimer = stageTimer(meterRegistry, "db_read", "Loading the payment before processing");
+        this.processingUpdateTimer = stageTimer(meterRegistry, "processing_update", "Marking the payment PROCESSING");
+        this.outcomeWriteTimer = stageTimer(meterRegistry, "outcome_write", "Applying the bank outcome, including commit");
+        this.auditWriteTimer = stageTimer(meterRegistry, "audit_write", "Handing an audit event to the audit writer");
+    }
+
+    static Timer stageTimer(MeterRegistry meterRegistry, String stage, String description) {
+        return Timer.builder(STAGE_TIMER)
+                .description(description)
+                .tag("stage", stage)
+                .publishPercentileHistogram()
                 .register(meterRegistry);
     }
 
-    @Transactional
-    public void processPayment(UUID paymentId) {
+    /**
+     * @return completes once the outcome has been applied or the attempt given up
+     */
+    public CompletableFuture<Void> processPayment(UUID paymentId) {
+        if (!bankGuard.isCallPermitted()) {
+            park(paymentId);
+            return CompletableFuture.completedFuture(null);
+        }
+
         Timer.Sample sample = Timer.start();
 
+        ProcessingAttempt attempt;
+        try {
+            // Phase 1: mark PROCESSING and commit
+            attempt = transactionTemplate.execute(status -> markProcessing(paymentId));
+        } catch (Exception e) {
+            sample.stop(processingDurationTimer);
+            handleFailure(paymentId, e);
+            return CompletableFuture.failedFuture(e);
+        }
+
+        if (attempt == null) {
+            sample.stop(processingDurationTimer);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Phase 2: call the bank without holding a connection or a thread
+        return callBank(attempt)
+                // Phase 3: back on a worker thread, apply the outcome if nobody else touched the payment meanwhile
+                .thenAcceptAsync(bankResponse -> {
+                    Timer.Sample outcomeWrite = Timer.start();
+                    LocalDateTime nextRetryAt;
+                    try {
+                        nextRetryAt = transactionTemplate.execute(status -> applyOutcome(attempt, bankResponse));
+                    } finally {
+                        outcomeWrite.stop(outcomeWriteTimer);
+                    }
+                    if (nextRetryAt != null) {
+                        retryTimer.schedule(paymentId, nextRetryAt);
+                    }
+                }, workerPool.executor())
+                .whenComplete((ignored, error) -> {
+                    sample.stop(processingDurationTimer);
+                    if (error != null && BankCallGuard.isRejection(error)) {
+                        // The circuit opened or the bulkhead filled while this payment was being marked
+                        returnToQueue(attempt);
+                    } else if (error != null) {
+                        handleFailure(paymentId, unwrap(error));
+                    }
+                });
+    }
+
+    /**
+     * Hands a payment that was never sent to the bank back to the queue without using up a retry
+     */
+    private void park(UUID paymentId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> releaseParked(paymentId));
+            parkedCounter.increment();
+            log.debug("Bank circuit open, parked payment: paymentId={}", paymentId);
+        } catch (Exception e) {
+            log.error("Failed to park payment: paymentId={}", paymentId, e);
+        }
+    }
+
+    /**
+     * Like {@link #park}, for a payment already marked PROCESSING: puts it back to PENDING if nobody else touched it
+     */
+    private void returnToQueue(ProcessingAttempt attempt) {
+        UUID paymentId = attempt.paymentId();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                paymentRepository.findById(paymentId)
+                        .filter(payment -> Objects.equals(payment.getVersion(), attempt.version())
+                                && payment.getStatus() == PaymentStatus.PROCESSING)
+                        .ifPresent(payment -> {
+                            payment.setStatus(PaymentStatus.PENDING);
+                            paymentRepository.save(payment);
+
+                            Map<String, Object> metadata = new HashMap<>();
+                            metadata.put("reason", "Bank circuit open, not sent to bank");
+                            createAuditLog(paymentId, AuditLog.EventType.STATUS_CHANGED,
+                                    PaymentStatus.PROCESSING, PaymentStatus.PENDING, metadata);
+                            notifier.notifyStatusChange(payment.getPaymentId(), PaymentStatus.PENDING);
+                        });
+                releaseParked(paymentId);
+            });
+            parkedCounter.increment();
+            log.info("Bank call rejected by circuit breaker, returned payment to queue: paymentId={}",
+                    attempt.reference());
+        } catch (Exception e) {
+            log.error("Failed to return payment to queue: paymentId={}", paymentId, e);
+        }
+    }
+
+    private void releaseParked(UUID paymentId) {
+        queueRepository.findByPaymentId(paymentId).ifPresent(queueItem -> {
+            queueItem.setNextRetryAt(LocalDateTime.now().plus(properties.getQueue().getParkDelay()));
+            queueItem.releaseLease();
+            queueRepository.save(queueItem);
+        });
+    }
+
+    private void handleFailure(UUID paymentId, Throwable error) {
+        if (error instanceof OptimisticLockingFailureException) {
+            staleOutcomesCounter.increment();
+            log.warn("Payment changed while waiting on bank, discarding outcome: paymentId={}", paymentId);
+            return;
+        }
+
+        log.error("Error processing payment: paymentId={}", paymentId, error);
+        try {
+            transactionTemplate.executeWithoutResult(status -> recordError(paymentId, error));
+        } catch (Exception e) {
+            log.error("Failed to record processing error: paymentId={}", paymentId, e);
+        }
+    }
+
+    private ProcessingAttempt markProcessing(UUID paymentId) {
+        Timer.Sample dbRead = Timer.start();
+        Optional<Payment> found = paymentRepository.findById(paymentId);
+        dbRead.stop(dbReadTimer);
+        Payment payment = found.orElseThrow(() -> new RuntimeException("Payment not found: " + paymentId));
+
+        log.info("Processing payment: paymentId={}, status={}", payment.getPaymentId(), payment.getStatus());
+
+        if (isTerminal(payment.getStatus())) {
+            // Already settled (e.g. by reconciliation) - just drop the stale queue entry
+            log.warn("Skipping payment already in terminal state: paymentId={}, status={}",
+                    payment.getPaymentId(), payment.getStatus());
+            queueRepository.findByPaymentId(paymentId).ifPresent(queueRepository::delete);
+            return null;
+        }
+
+        PaymentStatus oldStatus = payment.getStatus();
+        payment.setStatus(PaymentStatus.PROCESSING);
+        Timer.Sample update = Timer.start();
+        payment = paymentRepository.saveAndFlush(payment);
+        update.stop(processingUpdateTimer);
+        createAuditLog(paymentId, AuditLog.EventType.STATUS_CHANGED, oldStatus, PaymentStatus.PROCESSING);
+        notifier.notifyStatusChange(payment.getPaymentId(), PaymentStatus.PROCESSING);
+
+        return new ProcessingAttempt(
+                paymentId,
+                payment.getPaymentId(),
+                payment.getAmount(),
+                payment.getReceiverPixKey(),
+                payment.getVersion()
+        );
+    }
+
+    private CompletableFuture<BankResponse> callBank(ProcessingAttempt attempt) {
+        CompletableFuture<BankResponse> response;
         try {
-            Payment payment = paymentRepository.findById(paymentId)
-                    .orElseThrow(() -> new RuntimeException("Payment not found: " + paymentId));
+            response = pixSubmitter.submit(new PixTransfer(
+                    attempt.paymentId(),
+                    attempt.amount().toString(),
+                    attempt.pixKey()
+            ));
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
 
-            log.info("Processing payment: paymentId={}, status={}", payment.getPaymentId(), payment.getStatus());
+        // The bank call is bounded by processing.bank-timeout, the wait for the concurrency
+        // limit before it by processing.bank-limit.max-wait; both fail with a TimeoutException
+        return response
+                .exceptionally(error -> {
+                    Throwable cause = unwrap(error);
+                    if (BankCallGuard.isRejection(cause)) {
+                        // Never reached the bank; not a failed attempt
+                        throw new CompletionException(cause);
+                    }
+                    String message = cause instanceof TimeoutException
+                            ? "Timeout communicating with bank"
+                            : cause.getMessage();
+                    log.warn("Bank call failed: paymentId={}, error={}", attempt.reference(), message);
+                    return BankResponse.builder()
+                            .success(false)
+                            .errorMessage(message)
+                            .build();
+                });
+    }
+
+    /**
+     * @return when to retry, if the payment stays leased to this node for a retry
+     */
+    private LocalDateTime applyOutcome(ProcessingAttempt attempt, BankResponse bankResponse) {
+        UUID paymentId = attempt.paymentId();
+        Payment payment = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new RuntimeException("Payment not found: " + paymentId));
+
+        if (!Objects.equals(payment.getVersion(), attempt.version())
+                || payment.getStatus() != PaymentStatus.PROCESSING) {
+            throw new ObjectOptimisticLockingFailureException(Payment.class, paymentId);
+        }
 
-            // Update status to PROCESSING
-            PaymentStatus oldStatus = payment.getStatus();
-            payment.setStatus(PaymentStatus.PROCESSING);
+        if (bankResponse.success()) {
+            // Success - update payment
+            payment.setStatus(PaymentStatus.SUCCESS);
+            payment.setConfirmationCode(bankResponse.confirmationCode());
+            payment.setProcessedAt(LocalDateTime.now());
             paymentRepository.save(payment);
-            createAuditLog(paymentId, AuditLog.EventType.STATUS_CHANGED, oldStatus, PaymentStatus.PROCESSING);
-
-            // Process with bank
-            MockBankClient.BankResponse bankResponse = bankClient.processPixPayment(
-                    paymentId,
-                    payment.getAmount().toString(),
-                    payment.getReceiverPixKey()
-            );
-
-            if (bankResponse.success()) {
-                // Success - update payment
-                payment.setStatus(PaymentStatus.SUCCESS);
-                payment.setConfirmationCode(bankResponse.confirmationCode());
-                payment.setProcessedAt(LocalDateTime.now());
-                paymentRepository.save(payment);
 
-                // Remove from queue
-                queueRepository.findByPaymentId(paymentId)
-                        .ifPresent(queueRepository::delete);
+            // Remove from queue
+            queueRepository.findByPaymentId(paymentId)
+                    .ifPresent(queueRepository::delete);
+
+            // Create audit log
+            Map<String, Object> metadata = new HashMap<>();
+            metadata.put("confirmation_code", bankResponse.confirmationCode());
+            metadata.put("message", bankResponse.message());
+            createAuditLog(paymentId, AuditLog.EventType.STATUS_CHANGED,
+                    PaymentStatus.PROCESSING, PaymentStatus.SUCCESS, metadata);
+            notifier.notifyStatusChange(payment.getPaymentId(), PaymentStatus.SUCCESS);
+
+            paymentsSuccessCounter.increment();
+            lifecycleMetrics.recordSettled(payment);
+            log.info("Payment processed successfully: paymentId={}, confirmationCode={}",
+                    payment.getPaymentId(), bankResponse.confirmationCode());
+
+        } else {
+            // Failure - check if we should retry
+            PaymentQueue queueItem = queueRepository.findByPaymentId(paymentId)
+                    .orElseThrow(() -> new RuntimeException("Queue item not found: " + paymentId));
+
+            queueItem.setLastError(bankResponse.errorMessage());
+
+            if (queueItem.canRetry()) {
+                // Retry later - keep the lease so the retry timer on this node fires it
+                queueItem.incrementRetry();
+                queueItem.lease(properties.getNodeId(),
+                        queueItem.getNextRetryAt().plus(properties.getQueue().getLeaseDuration()));
+                queueRepository.save(queueItem);
+
+                payment.setStatus(PaymentStatus.PENDING);
+                payment.setFailureReason(String.format("Retry %d/%d: %s",
+                        queueItem.getRetryCount(), queueItem.getMaxRetries(), bankResponse.errorMessage()));
+                paymentRepository.save(payment);
 
-                // Create audit log
                 Map<String, Object> metadata = new HashMap<>();
-                metadata.put("confirmation_code", bankResponse.confirmationCode());
-                metadata.put("message", bankResponse.message());
-                createAuditLog(paymentId, AuditLog.EventType.STATUS_CHANGED,
-                        PaymentStatus.PROCESSING, PaymentStatus.SUCCESS, metadata);
+                metadata.put("retry_count", queueItem.getRetryCount());
+                metadata.put("next_retry_at", queueItem.getNextRetryAt().toString());
+                metadata.put("error", bankResponse.errorMessage());
+                createAuditLog(paymentId, AuditLog.EventType.RETRY_ATTEMPTED,
+                        PaymentStatus.PROCESSING, PaymentStatus.PENDING, metadata);
+                notifier.notifyStatusChange(payment.getPaymentId(), PaymentStatus.PENDING);
 
-                paymentsSuccessCounter.increment();
-                log.info("Payment processed successfully: paymentId={}, confirmationCode={}",
-                        payment.getPaymentId(), bankResponse.confirmationCode());
+                log.warn("Payment processing failed, will retry: paymentId={}, retryCount={}, error={}",
+                        payment.getPaymentId(), queueItem.getRetryCount(), bankResponse.errorMessage());
+                return queueItem.getNextRetryAt();
 
             } else {
-                // Failure - check if we should retry
-                PaymentQueue queueItem = queueRepository.findByPaymentId(paymentId)
-                        .orElseThrow(() -> new RuntimeException("Queue item not found: " + paymentId));
-
-                queueItem.setLastError(bankResponse.errorMessage());
-
-                if (queueItem.canRetry()) {
-                    // Retry later
-                    queueItem.incrementRetry();
-                    queueRepository.save(queueItem);
-
-                    payment.setStatus(PaymentStatus.PENDING);
-                    payment.setFailureReason(String.format("Retry %d/%d: %s",
-                            queueItem.getRetryCount(), queueItem.getMaxRetries(), bankResponse.errorMessage()));
-                    paymentRepository.save(payment);
-
-                    Map<String, Object> metadata = new HashMap<>();
-                    metadata.put("retry_count", queueItem.getRetryCount());
-                    metadata.put("next_retry_at", queueItem.getNextRetryAt().toString());
-                    metadata.put("error", bankResponse.errorMessage());
-                    createAuditLog(paymentId, AuditLog.EventType.RETRY_ATTEMPTED,
-                            PaymentStatus.PROCESSING, PaymentStatus.PENDING, metadata);
-
-                    log.warn("Payment processing failed, will retry: paymentId={}, retryCount={}, error={}",
-                            payment.getPaymentId(), queueItem.getRetryCount(), bankResponse.errorMessage());
-
-                } else {
-                    // Max retries reached - mark as failed
-                    payment.setStatus(PaymentStatus.FAILED);
-                    payment.setFailureReason("Max retries exceeded: " + bankResponse.errorMessage());
-                    paymentRepository.save(payment);
-
-                    queueRepository.delete(queueItem);
-
-                    Map<String, Object> metadata = new HashMap<>();
-                    metadata.put("error", bankResponse.errorMessage());
-                    metadata.put("retry_count", queueItem.getRetryCount());
-                    createAuditLog(paymentId, AuditLog.EventType.FAILED,
-                            PaymentStatus.PROCESSING, PaymentStatus.FAILED, metadata);
-
-                    paymentsFailedCounter.increment();
-                    log.error("Payment processing failed permanently: paymentId={}, error={}",
-                            payment.getPaymentId(), bankResponse.errorMessage());
-                }
-            }
+                // Max retries reached - mark as failed
+                payment.setStatus(PaymentStatus.FAILED);
+                payment.setFailureReason("Max retries exceeded: " + bankResponse.errorMessage());
+                paymentRepository.save(payment);
 
-        } catch (Exception e) {
-            log.error("Error processing payment: paymentId={}", paymentId, e);
-
-            // Update queue for retry
-            queueRepository.findByPaymentId(paymentId).ifPresent(queueItem -> {
-                queueItem.setLastError(e.getMessage());
-                if (queueItem.canRetry()) {
-                    queueItem.incrementRetry();
-                    queueRepository.save(queueItem);
-                }
-            });
+                queueRepository.delete(queueItem);
 
-            throw e;
-        } finally {
-            sample.stop(processingDurationTimer);
+                Map<String, Object> metadata = new HashMap<>();
+                metadata.put("error", bankResponse.errorMessage());
+                metadata.put("retry_count", queueItem.getRetryCount());
+                createAuditLog(paymentId, AuditLog.EventType.FAILED,
+                        PaymentStatus.PROCESSING, PaymentStatus.FAILED, metadata);
+                notifier.notifyStatusChange(payment.getPaymentId(), PaymentStatus.FAILED);
+
+                paymentsFailedCounter.increment();
+                lifecycleMetrics.recordSettled(payment);
+                log.error("Payment processing failed permanently: paymentId={}, error={}",
+                        payment.getPaymentId(), bankResponse.errorMessage());
+            }
         }
+        return null;
+    }
+
+    private void recordError(UUID paymentId, Throwable e) {
+        // Update queue for retry
+        queueRepository.findByPaymentId(paymentId).ifPresent(queueItem -> {
+            queueItem.setLastError(e.getMessage());
+            if (queueItem.canRetry()) {
+                queueItem.incrementRetry();
+            }
+            queueItem.releaseLease();
+            queueRepository.save(queueItem);
+        });
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static boolean isTerminal(PaymentStatus status) {
+        return status == PaymentStatus.SUCCESS
+                || status == PaymentStatus.FAILED
+                || status == PaymentStatus.CANCELLED;
     }
 
     private void createAuditLog(UUID paymentId, AuditLog.EventType eventType,
@@ -177,6 +448,20 @@ public class PaymentProcessingService {
                 .newStatus(newStatus)
                 .metadata(metadata)
                 .build();
-        auditLogRepository.save(auditLog);
+        Timer.Sample auditWrite = Timer.start();
+        auditWriter.write(auditLog);
+        auditWrite.stop(auditWriteTimer);
+    }
+
+    /**
+     * Snapshot taken when a payment is marked PROCESSING, carried across the bank call
+     */
+    private record ProcessingAttempt(
+            UUID paymentId,
+            String reference,
+            BigDecimal amount,
+            String pixKey,
+            Long version
+    ) {
     }
 }
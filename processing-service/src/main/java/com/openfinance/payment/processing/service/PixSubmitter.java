@@ -0,0 +1,141 @@
+package com.openfinance.payment.processing.service;
+
+import com.openfinance.payment.common.bank.BankCallGuard;
+import com.openfinance.payment.common.util.AdaptiveConcurrencyLimiter;
+import com.openfinance.payment.common.util.MicroBatcher;
+import com.openfinance.payment.processing.client.BankClient;
+import com.openfinance.payment.processing.client.BankResponse;
+import com.openfinance.payment.processing.client.PixTransfer;
+import com.openfinance.payment.processing.config.ProcessingProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Sends PIX payments to the bank, either one call per payment or grouped into
+ * micro-batches bounded by {@code processing.bank-batch.max-size} and {@code linger}.
+ * Every payment gets its own response either way.
+ *
+ * Bank calls (single or batched) pass through an {@link AdaptiveConcurrencyLimiter}
+ * ({@code processing.bank-limit.*}), which keeps as many calls in flight as the bank
+ * handles without queueing and backs off when its latency or overload errors rise.
+ * Time spent waiting for the limit is timed apart from the bank call itself, and a call
+ * that waits longer than {@code processing.bank-limit.max-wait} is never sent.
+ */
+@Component
+@Slf4j
+public class PixSubmitter {
+
+    private final BankClient bankClient;
+    private final MicroBatcher<PixTransfer, BankResponse> batcher;
+    private final ScheduledExecutorService lingerTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer bankCallTimer;
+    private final Timer limitWaitTimer;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Set<String> overloadErrors;
+
+    public PixSubmitter(BankClient bankClient, ProcessingProperties properties, MeterRegistry meterRegistry) {
+        this.bankClient = bankClient;
+        this.batchSizeSummary = DistributionSummary.builder("payments.bank.batch.size")
+                .description("PIX payments per bank call")
+                .register(meterRegistry);
+        this.bankCallTimer = PaymentProcessingService.stageTimer(meterRegistry, "bank_call",
+                "One bank call (a whole batch when batching), including timeouts");
+        this.limitWaitTimer = PaymentProcessingService.stageTimer(meterRegistry, "bank_limit_wait",
+                "Waiting for the adaptive bank concurrency limit");
+
+        ProcessingProperties.BankLimit bankLimit = properties.getBankLimit();
+        this.overloadErrors = Set.copyOf(bankLimit.getOverloadErrors());
+        if (bankLimit.isEnabled()) {
+            this.limiter = new AdaptiveConcurrencyLimiter(bankLimit.getInitialLimit(), bankLimit.getMinLimit(),
+                    bankLimit.getMaxLimit(), bankLimit.getRttTolerance(), bankLimit.getBackoffRatio(),
+                    bankLimit.getMaxWait());
+
+            Gauge.builder("payments.bank.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                    .description("Current adaptive limit on concurrent PIX bank calls")
+                    .register(meterRegistry);
+            Gauge.builder("payments.bank.in_flight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+                    .description("PIX bank calls in flight")
+                    .register(meterRegistry);
+            Gauge.builder("payments.bank.waiting", limiter, AdaptiveConcurrencyLimiter::waiting)
+                    .description("PIX bank calls waiting for the limit")
+                    .register(meterRegistry);
+            log.info("Adaptive bank concurrency limit enabled: initial={}, min={}, max={}",
+                    bankLimit.getInitialLimit(), bankLimit.getMinLimit(), bankLimit.getMaxLimit());
+        } else {
+            this.limiter = null;
+        }
+
+        ProcessingProperties.BankBatch bankBatch = properties.getBankBatch();
+        if (bankBatch.isEnabled()) {
+            this.lingerTimer = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("pix-batch-linger").daemon(true).factory());
+            this.batcher = new MicroBatcher<>(bankBatch.getMaxSize(), bankBatch.getLinger(), lingerTimer,
+                    this::submitBatch);
+            log.info("PIX batch submission enabled: maxSize={}, linger={}",
+                    bankBatch.getMaxSize(), bankBatch.getLinger());
+        } else {
+            this.lingerTimer = null;
+            this.batcher = null;
+        }
+    }
+
+    public CompletableFuture<BankResponse> submit(PixTransfer transfer) {
+        if (batcher != null) {
+            return batcher.submit(transfer);
+        }
+        batchSizeSummary.record(1);
+        return limited(() -> bankClient.processPixPayment(transfer.paymentId(), transfer.amount(), transfer.pixKey()),
+                this::isOverloaded);
+    }
+
+    private CompletableFuture<List<BankResponse>> submitBatch(List<PixTransfer> transfers) {
+        batchSizeSummary.record(transfers.size());
+        // Individual items fail for their own reasons; only a mostly overloaded batch means the bank is
+        return limited(() -> bankClient.processPixPayments(transfers),
+                responses -> !responses.isEmpty()
+                        && responses.stream().filter(this::isOverloaded).count() * 2 >= responses.size());
+    }
+
+    private <T> CompletableFuture<T> limited(Supplier<CompletableFuture<T>> call, Predicate<T> overloaded) {
+        if (limiter == null) {
+            return timed(call);
+        }
+        Timer.Sample limitWait = Timer.start();
+        // An open circuit or full bulkhead says nothing about the bank's latency
+        return limiter.submit(() -> {
+            limitWait.stop(limitWaitTimer);
+            return timed(call);
+        }, overloaded, BankCallGuard::isRejection);
+    }
+
+    private <T> CompletableFuture<T> timed(Supplier<CompletableFuture<T>> call) {
+        Timer.Sample bankCall = Timer.start();
+        return call.get().whenComplete((ignored, error) -> bankCall.stop(bankCallTimer));
+    }
+
+    private boolean isOverloaded(BankResponse response) {
+        return !response.success() && response.errorMessage() != null && overloadErrors.contains(response.errorMessage());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (batcher != null) {
+            batcher.close();
+            lingerTimer.shutdown();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.openfinance.payment.processing.service;
+
+import com.openfinance.payment.common.entity.PaymentQueue;
+import com.openfinance.payment.common.repository.PaymentQueueRepository;
+import com.openfinance.payment.processing.config.ProcessingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Claims queue items for this node using SELECT ... FOR UPDATE SKIP LOCKED,
+ * so several processing-service replicas can split the queue without overlap
+ */
+@Service
+@Slf4j
+public class QueueClaimService {
+
+    private final PaymentQueueRepository queueRepository;
+    private final ProcessingProperties properties;
+    private final Timer queueWaitTimer;
+    private final Counter claimedCounter;
+
+    public QueueClaimService(PaymentQueueRepository queueRepository,
+                             ProcessingProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.queueRepository = queueRepository;
+        this.properties = properties;
+        this.queueWaitTimer = PaymentProcessingService.stageTimer(meterRegistry, "queue_wait",
+                "Time from an item becoming ready (next_retry_at) until this node claims it");
+        this.claimedCounter = Counter.builder("payments.queue.claimed")
+                .description("Ready queue items claimed by this node")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Atomically leases up to {@code limit} ready items to this node.
+     * Items whose lease has expired (e.g. the owning node crashed) are eligible again.
+     */
+    @Transactional
+    public List<PaymentQueue> claimBatch(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<PaymentQueue> items = queueRepository.lockReadyForProcessing(now, limit);
+        if (items.isEmpty()) {
+            return items;
+        }
+
+        LocalDateTime leaseExpiresAt = now.plus(properties.getQueue().getLeaseDuration());
+        for (PaymentQueue item : items) {
+            if (item.getLeaseOwner() != null) {
+                log.warn("Reclaiming expired lease: paymentId={}, previousOwner={}",
+                        item.getPaymentId(), item.getLeaseOwner());
+            }
+            item.lease(properties.getNodeId(), leaseExpiresAt);
+            recordQueueWait(item, now);
+        }
+
+        claimedCounter.increment(items.size());
+        log.debug("Claimed {} queue items: nodeId={}, leaseExpiresAt={}",
+                items.size(), properties.getNodeId(), leaseExpiresAt);
+        return queueRepository.saveAll(items);
+    }
+
+    /**
+     * Extends the lease on items this node still owns, e.g. when their retry timer fires.
+     * Items whose lease expired or was lost to another node are not returned; their timer
+     * entries are already spent, and the items go back to being claimed from the table.
+     */
+    @Transactional
+    public List<PaymentQueue> renewLeases(Collection<UUID> paymentIds) {
+        if (paymentIds.isEmpty()) {
+            return List.of();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<PaymentQueue> items = queueRepository.lockLeasedBy(paymentIds, properties.getNodeId(), now);
+        LocalDateTime leaseExpiresAt = now.plus(properties.getQueue().getLeaseDuration());
+        for (PaymentQueue item : items) {
+            item.lease(properties.getNodeId(), leaseExpiresAt);
+            recordQueueWait(item, now);
+        }
+
+        if (items.size() < paymentIds.size()) {
+            log.warn("Lost lease on {} of {} due retries", paymentIds.size() - items.size(), paymentIds.size());
+        }
+        return queueRepository.saveAll(items);
+    }
+
+    private void recordQueueWait(PaymentQueue item, LocalDateTime claimedAt) {
+        if (item.getNextRetryAt() != null) {
+            Duration wait = Duration.between(item.getNextRetryAt(), claimedAt);
+            queueWaitTimer.record(wait.isNegative() ? Duration.ZERO : wait);
+        }
+    }
+
+    /**
+     * Gives up this node's leases so other nodes can claim the items right away
+     */
+    @Transactional
+    public int releaseLeases(Collection<UUID> paymentIds) {
+        if (paymentIds.isEmpty()) {
+            return 0;
+        }
+        return queueRepository.releaseLeases(paymentIds, properties.getNodeId());
+    }
+}
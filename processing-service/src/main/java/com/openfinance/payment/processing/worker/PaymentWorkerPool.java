@@ -0,0 +1,116 @@
+package com.openfinance.payment.processing.worker;
+
+import com.openfinance.payment.processing.config.ProcessingProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bounded worker pool that runs claimed payments concurrently.
+ * A payment holds its slot until its asynchronous processing completes, so the number
+ * of in-flight payments never exceeds the configured concurrency while worker threads
+ * are only occupied for the database phases, not while waiting on the bank.
+ */
+@Component
+@Slf4j
+public class PaymentWorkerPool {
+
+    private final ExecutorService executor;
+    private final Semaphore slots;
+    private final int concurrency;
+    private final Duration shutdownTimeout;
+
+    public PaymentWorkerPool(ProcessingProperties properties, MeterRegistry meterRegistry) {
+        ProcessingProperties.Workers workers = properties.getWorkers();
+        this.concurrency = workers.getConcurrency();
+        this.shutdownTimeout = workers.getShutdownTimeout();
+        this.slots = new Semaphore(concurrency);
+        this.executor = workers.isVirtualThreads()
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("payment-worker-", 1).factory())
+                : Executors.newFixedThreadPool(workers.getThreads(), Thread.ofPlatform().name("payment-worker-", 1).factory());
+
+        Gauge.builder("payments.workers.in_flight", this, PaymentWorkerPool::inFlight)
+                .description("Payments currently being processed by the worker pool")
+                .register(meterRegistry);
+
+        log.info("Payment worker pool started: concurrency={}, threads={}, virtualThreads={}",
+                concurrency, workers.isVirtualThreads() ? "per-task" : workers.getThreads(), workers.isVirtualThreads());
+    }
+
+    public int availableSlots() {
+        return slots.availablePermits();
+    }
+
+    public int inFlight() {
+        return concurrency - slots.availablePermits();
+    }
+
+    /**
+     * Blocks until at least one worker slot is free or the timeout elapses
+     * @return true if a slot is available
+     */
+    public boolean awaitAvailableSlot(Duration timeout) throws InterruptedException {
+        if (!slots.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            return false;
+        }
+        slots.release();
+        return true;
+    }
+
+    /**
+     * Executor for continuations that must run on a worker thread
+     */
+    public Executor executor() {
+        return executor;
+    }
+
+    /**
+     * Starts the task on the pool, blocking while all slots are busy.
+     * The slot is released when the stage returned by the task completes.
+     */
+    public void submit(Supplier<? extends CompletionStage<?>> task) throws InterruptedException {
+        slots.acquire();
+        try {
+            executor.execute(() -> {
+                CompletionStage<?> stage;
+                try {
+                    stage = task.get();
+                } catch (RuntimeException e) {
+                    slots.release();
+                    log.error("Worker task failed to start", e);
+                    return;
+                }
+                stage.whenComplete((result, error) -> slots.release());
+            });
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("Shutting down payment worker pool: inFlight={}", inFlight());
+        try {
+            // In-flight payments still need the executor to apply their bank outcome
+            if (!slots.tryAcquire(concurrency, shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Worker pool did not drain within {}, interrupting remaining workers", shutdownTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdownNow();
+    }
+}
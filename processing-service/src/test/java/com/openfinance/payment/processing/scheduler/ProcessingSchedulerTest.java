@@ -0,0 +1,111 @@
+package com.openfinance.payment.processing.scheduler;
+
+import com.openfinance.payment.common.bank.BankCallGuard;
+import com.openfinance.payment.common.entity.PaymentQueue;
+import com.openfinance.payment.processing.config.ProcessingProperties;
+import com.openfinance.payment.processing.service.PaymentProcessingService;
+import com.openfinance.payment.processing.service.QueueClaimService;
+import com.openfinance.payment.processing.worker.PaymentWorkerPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Processing Scheduler Tests")
+class ProcessingSchedulerTest {
+
+    private final QueueClaimService claimService = mock(QueueClaimService.class);
+    private final PaymentWorkerPool workerPool = mock(PaymentWorkerPool.class);
+    private final RetryTimer retryTimer = mock(RetryTimer.class);
+    private final BankCallGuard bankGuard = mock(BankCallGuard.class);
+
+    private ProcessingScheduler scheduler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        scheduler = new ProcessingScheduler(mock(PaymentProcessingService.class), claimService, workerPool, retryTimer,
+                new ProcessingProperties(), mock(QueueMetrics.class), bankGuard, new SimpleMeterRegistry());
+
+        when(workerPool.awaitAvailableSlot(any())).thenReturn(true);
+        when(workerPool.availableSlots()).thenReturn(64);
+        when(retryTimer.pollDue(anyInt())).thenReturn(List.of());
+        when(claimService.renewLeases(List.of())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should claim no more than the remaining trial calls while the circuit is half-open")
+    void shouldCapClaimByTrialCalls() throws Exception {
+        when(bankGuard.permittedCalls()).thenReturn(2);
+        when(claimService.claimBatch(2)).thenReturn(items(2));
+
+        scheduler.processPendingPayments();
+
+        verify(claimService, times(1)).claimBatch(anyInt());
+        verify(claimService).claimBatch(2);
+        verify(workerPool, times(2)).submit(any());
+    }
+
+    @Test
+    @DisplayName("Should count due retries against the trial calls while the circuit is half-open")
+    void shouldCountRetriesAgainstTrialCalls() throws Exception {
+        List<PaymentQueue> retries = items(1);
+        List<UUID> retryIds = List.of(retries.get(0).getPaymentId());
+        when(bankGuard.permittedCalls()).thenReturn(2);
+        when(retryTimer.pollDue(2)).thenReturn(retryIds);
+        when(retryTimer.hasDue()).thenReturn(true);
+        when(claimService.renewLeases(retryIds)).thenReturn(retries);
+        when(claimService.claimBatch(1)).thenReturn(items(1));
+
+        scheduler.processPendingPayments();
+
+        verify(claimService, times(1)).claimBatch(anyInt());
+        verify(claimService).claimBatch(1);
+        verify(workerPool, times(2)).submit(any());
+    }
+
+    @Test
+    @DisplayName("Should claim a full batch while the circuit is closed")
+    void shouldClaimFullBatchWhenClosed() throws Exception {
+        when(bankGuard.permittedCalls()).thenReturn(Integer.MAX_VALUE);
+        when(claimService.claimBatch(50)).thenReturn(items(3));
+
+        scheduler.processPendingPayments();
+
+        verify(claimService, times(1)).claimBatch(anyInt());
+        verify(workerPool, times(3)).submit(any());
+    }
+
+    @Test
+    @DisplayName("Should not claim while the circuit is open")
+    void shouldNotClaimWhenOpen() {
+        when(bankGuard.permittedCalls()).thenReturn(0);
+
+        scheduler.processPendingPayments();
+
+        verifyNoInteractions(claimService, workerPool);
+    }
+
+    private static List<PaymentQueue> items(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> PaymentQueue.builder().paymentId(UUID.randomUUID()).build())
+                .toList();
+    }
+}
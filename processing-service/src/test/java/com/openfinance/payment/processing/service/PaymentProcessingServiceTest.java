@@ -0,0 +1,183 @@
+package com.openfinance.payment.processing.service;
+
+import com.openfinance.payment.common.audit.AuditWriter;
+import com.openfinance.payment.common.bank.BankCallGuard;
+import com.openfinance.payment.common.entity.AuditLog;
+import com.openfinance.payment.common.entity.Payment;
+import com.openfinance.payment.common.entity.PaymentQueue;
+import com.openfinance.payment.common.entity.PaymentStatus;
+import com.openfinance.payment.common.metrics.PaymentLifecycleMetrics;
+import com.openfinance.payment.common.notification.PostgresNotifier;
+import com.openfinance.payment.common.repository.PaymentQueueRepository;
+import com.openfinance.payment.common.repository.PaymentRepository;
+import com.openfinance.payment.processing.client.BankResponse;
+import com.openfinance.payment.processing.config.ProcessingProperties;
+import com.openfinance.payment.processing.scheduler.RetryTimer;
+import com.openfinance.payment.processing.worker.PaymentWorkerPool;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Payment Processing Service Tests")
+class PaymentProcessingServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+    private final PaymentQueueRepository queueRepository = mock(PaymentQueueRepository.class);
+    private final AuditWriter auditWriter = mock(AuditWriter.class);
+    private final PostgresNotifier notifier = mock(PostgresNotifier.class);
+    private final PixSubmitter pixSubmitter = mock(PixSubmitter.class);
+    private final RetryTimer retryTimer = mock(RetryTimer.class);
+    private final PaymentWorkerPool workerPool = mock(PaymentWorkerPool.class);
+    private final BankCallGuard bankGuard = mock(BankCallGuard.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PaymentProcessingService service;
+    private Payment payment;
+    private PaymentQueue queueItem;
+
+    @BeforeEach
+    void setUp() {
+        ProcessingProperties properties = new ProcessingProperties();
+        properties.setNodeId("node-a");
+        service = new PaymentProcessingService(paymentRepository, queueRepository, auditWriter, notifier,
+                pixSubmitter, new TransactionTemplate(mock(PlatformTransactionManager.class)), retryTimer,
+                workerPool, properties, new PaymentLifecycleMetrics(meterRegistry), bankGuard, meterRegistry);
+
+        UUID id = UUID.randomUUID();
+        payment = Payment.builder()
+                .id(id)
+                .paymentId("PAY-1")
+                .amount(new BigDecimal("100.50"))
+                .receiverPixKey("user@example.com")
+                .status(PaymentStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .version(1L)
+                .build();
+        queueItem = PaymentQueue.builder()
+                .paymentId(id)
+                .nextRetryAt(LocalDateTime.now())
+                .leaseOwner("node-a")
+                .leaseExpiresAt(LocalDateTime.now().plusMinutes(2))
+                .build();
+
+        when(paymentRepository.findById(id)).thenReturn(Optional.of(payment));
+        // Flushing bumps the version, as Hibernate does
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenAnswer(invocation -> {
+            Payment saved = invocation.getArgument(0);
+            saved.setVersion(saved.getVersion() + 1);
+            return saved;
+        });
+        when(queueRepository.findByPaymentId(id)).thenReturn(Optional.of(queueItem));
+        when(workerPool.executor()).thenReturn((Executor) Runnable::run);
+        when(bankGuard.isCallPermitted()).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("Should drop the bank outcome when the payment changed during the call")
+    void shouldDropStaleOutcome() {
+        CompletableFuture<BankResponse> response = new CompletableFuture<>();
+        when(pixSubmitter.submit(any())).thenReturn(response);
+
+        CompletableFuture<Void> result = service.processPayment(payment.getId());
+        // e.g. reconciliation settled it meanwhile
+        payment.setVersion(payment.getVersion() + 1);
+        response.complete(BankResponse.builder().success(true).confirmationCode("CONF-1").build());
+
+        assertThat(result).failsWithin(TIMEOUT);
+        assertThat(payment.getStatus()).isEqualTo(PaymentStatus.PROCESSING);
+        assertThat(payment.getConfirmationCode()).isNull();
+        assertThat(queueItem.getRetryCount()).isZero();
+        verify(paymentRepository, never()).save(any());
+        verify(queueRepository, never()).delete(any());
+        verifyNoInteractions(retryTimer);
+        assertThat(meterRegistry.counter("payments.outcomes.stale").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("payments.success").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should park the queue item without touching the payment while the circuit is open")
+    void shouldParkWhileCircuitOpen() {
+        when(bankGuard.isCallPermitted()).thenReturn(false);
+
+        CompletableFuture<Void> result = service.processPayment(payment.getId());
+
+        assertThat(result).isCompleted();
+        assertThat(queueItem.getLeaseOwner()).isNull();
+        assertThat(queueItem.getRetryCount()).isZero();
+        assertThat(queueItem.getNextRetryAt()).isAfter(LocalDateTime.now().plusSeconds(4));
+        assertThat(payment.getStatus()).isEqualTo(PaymentStatus.PENDING);
+        verify(queueRepository).save(queueItem);
+        verify(paymentRepository, never()).findById(any());
+        verifyNoInteractions(pixSubmitter, auditWriter);
+        assertThat(meterRegistry.counter("payments.queue.parked").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should return the payment to PENDING when the circuit rejects its bank call")
+    void shouldReturnRejectedPaymentToPending() {
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("bank");
+        circuitBreaker.transitionToOpenState();
+        when(pixSubmitter.submit(any())).thenReturn(CompletableFuture.failedFuture(
+                CallNotPermittedException.createCallNotPermittedException(circuitBreaker)));
+
+        CompletableFuture<Void> result = service.processPayment(payment.getId());
+
+        assertThat(result).failsWithin(TIMEOUT);
+        assertThat(payment.getStatus()).isEqualTo(PaymentStatus.PENDING);
+        assertThat(payment.getFailureReason()).isNull();
+        assertThat(queueItem.getRetryCount()).isZero();
+        assertThat(queueItem.getLeaseOwner()).isNull();
+        assertThat(queueItem.getNextRetryAt()).isAfter(LocalDateTime.now().plusSeconds(4));
+        verify(notifier).notifyStatusChange("PAY-1", PaymentStatus.PENDING);
+        verifyNoInteractions(retryTimer);
+        assertThat(meterRegistry.counter("payments.queue.parked").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should count a declined call as a retry and keep the lease for the retry timer")
+    void shouldIncrementRetryOnBankFailure() {
+        when(pixSubmitter.submit(any())).thenReturn(CompletableFuture.completedFuture(
+                BankResponse.builder().success(false).errorMessage("Insufficient funds").build()));
+
+        CompletableFuture<Void> result = service.processPayment(payment.getId());
+
+        assertThat(result).succeedsWithin(TIMEOUT);
+        assertThat(queueItem.getRetryCount()).isEqualTo(1);
+        assertThat(queueItem.getLastError()).isEqualTo("Insufficient funds");
+        assertThat(queueItem.getLeaseOwner()).isEqualTo("node-a");
+        assertThat(queueItem.getLeaseExpiresAt()).isEqualTo(queueItem.getNextRetryAt().plusMinutes(2));
+        assertThat(payment.getStatus()).isEqualTo(PaymentStatus.PENDING);
+        assertThat(payment.getFailureReason()).isEqualTo("Retry 1/3: Insufficient funds");
+        verify(retryTimer).schedule(payment.getId(), queueItem.getNextRetryAt());
+
+        ArgumentCaptor<AuditLog> audit = ArgumentCaptor.forClass(AuditLog.class);
+        verify(auditWriter, times(2)).write(audit.capture());
+        assertThat(audit.getAllValues()).extracting(AuditLog::getEventType)
+                .containsExactly(AuditLog.EventType.STATUS_CHANGED, AuditLog.EventType.RETRY_ATTEMPTED);
+    }
+}
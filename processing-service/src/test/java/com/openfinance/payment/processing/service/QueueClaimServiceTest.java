@@ -0,0 +1,179 @@
+package com.openfinance.payment.processing.service;
+
+import com.openfinance.payment.common.entity.PaymentQueue;
+import com.openfinance.payment.common.repository.PaymentQueueRepository;
+import com.openfinance.payment.processing.config.ProcessingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Queue Claim Service Tests")
+class QueueClaimServiceTest {
+
+    @Autowired
+    private PaymentQueueRepository queueRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactions;
+    private QueueClaimService nodeA;
+    private QueueClaimService nodeB;
+
+    @BeforeEach
+    void setUp() {
+        queueRepository.deleteAll();
+        transactions = new TransactionTemplate(transactionManager);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        nodeA = new QueueClaimService(queueRepository, properties("node-a"), meterRegistry);
+        nodeB = new QueueClaimService(queueRepository, properties("node-b"), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should skip items locked by another node's claim that has not committed yet")
+    void shouldSkipItemsLockedByAnotherClaim() throws Exception {
+        List<UUID> queued = enqueue(3);
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<UUID>> first = executor.submit(() -> transactions.execute(status -> {
+                List<UUID> ids = paymentIds(nodeA.claimBatch(10));
+                claimed.countDown();
+                await(commit);
+                return ids;
+            }));
+            assertThat(claimed.await(5, TimeUnit.SECONDS)).isTrue();
+            // Queued while the first claim is open; H2, unlike Postgres, locks every matching
+            // row before applying the limit, so these are kept out of the first claim's scan
+            List<UUID> later = enqueue(3);
+
+            // The first claim's leases are not visible yet, only its row locks
+            List<UUID> second = paymentIds(claim(nodeB, 10));
+            commit.countDown();
+            List<UUID> firstIds = first.get(5, TimeUnit.SECONDS);
+
+            assertThat(firstIds).containsExactlyInAnyOrderElementsOf(queued);
+            assertThat(second).containsExactlyInAnyOrderElementsOf(later);
+            assertThat(leaseOwners(firstIds)).containsOnly("node-a");
+            assertThat(leaseOwners(second)).containsOnly("node-b");
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should not claim items leased to another node until their lease expires")
+    void shouldReclaimOnlyExpiredLeases() {
+        List<UUID> queued = enqueue(2);
+        assertThat(paymentIds(claim(nodeA, 10))).containsExactlyInAnyOrderElementsOf(queued);
+
+        assertThat(claim(nodeB, 10)).isEmpty();
+
+        PaymentQueue expired = queueRepository.findByPaymentId(queued.get(0)).orElseThrow();
+        expired.lease("node-a", LocalDateTime.now().minusSeconds(1));
+        queueRepository.save(expired);
+
+        assertThat(paymentIds(claim(nodeB, 10))).containsExactly(queued.get(0));
+        assertThat(leaseOwners(queued)).containsExactly("node-b", "node-a");
+    }
+
+    @Test
+    @DisplayName("Should renew only the leases this node still holds")
+    void shouldRenewOnlyOwnUnexpiredLeases() {
+        List<UUID> queued = enqueue(3);
+        claim(nodeA, 10);
+        LocalDateTime now = LocalDateTime.now();
+        lease(queued.get(0), "node-a", now.plusSeconds(10));
+        lease(queued.get(1), "node-a", now.minusSeconds(1));
+        lease(queued.get(2), "node-b", now.plusSeconds(10));
+
+        List<PaymentQueue> renewed = transactions.execute(status -> nodeA.renewLeases(queued));
+
+        assertThat(paymentIds(renewed)).containsExactly(queued.get(0));
+        PaymentQueue own = queueRepository.findByPaymentId(queued.get(0)).orElseThrow();
+        assertThat(own.getLeaseExpiresAt()).isAfter(now.plusMinutes(1));
+
+        PaymentQueue expired = queueRepository.findByPaymentId(queued.get(1)).orElseThrow();
+        assertThat(expired.getLeaseExpiresAt()).isBefore(now);
+        PaymentQueue other = queueRepository.findByPaymentId(queued.get(2)).orElseThrow();
+        assertThat(other.getLeaseOwner()).isEqualTo("node-b");
+        assertThat(other.getLeaseExpiresAt()).isBefore(now.plusMinutes(1));
+    }
+
+    /**
+     * Claims in a transaction of its own, as the scheduler's call through the service proxy does
+     */
+    private List<PaymentQueue> claim(QueueClaimService node, int limit) {
+        return transactions.execute(status -> node.claimBatch(limit));
+    }
+
+    private List<UUID> enqueue(int count) {
+        List<UUID> paymentIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UUID paymentId = UUID.randomUUID();
+            queueRepository.save(PaymentQueue.builder()
+                    .paymentId(paymentId)
+                    .nextRetryAt(LocalDateTime.now().minusSeconds(count - i))
+                    .build());
+            paymentIds.add(paymentId);
+        }
+        return paymentIds;
+    }
+
+    private void lease(UUID paymentId, String owner, LocalDateTime expiresAt) {
+        PaymentQueue item = queueRepository.findByPaymentId(paymentId).orElseThrow();
+        item.lease(owner, expiresAt);
+        queueRepository.save(item);
+    }
+
+    private List<String> leaseOwners(List<UUID> paymentIds) {
+        return paymentIds.stream()
+                .map(paymentId -> queueRepository.findByPaymentId(paymentId).orElseThrow().getLeaseOwner())
+                .toList();
+    }
+
+    private static List<UUID> paymentIds(List<PaymentQueue> items) {
+        return items.stream().map(PaymentQueue::getPaymentId).toList();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ProcessingProperties properties(String nodeId) {
+        ProcessingProperties properties = new ProcessingProperties();
+        properties.setNodeId(nodeId);
+        return properties;
+    }
+}
@@ -0,0 +1,15 @@
+package com.openfinance.payment.reconciliation.client;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking client for querying payment status at the bank
+ */
+public interface BankClient {
+
+    /**
+     * Query bank for payment status using confirmation code
+     * @return future completed with the bank's view of the payment
+     */
+    CompletableFuture<BankResponse> queryPaymentStatus(String confirmationCode);
+}
@@ -0,0 +1,46 @@
+package com.openfinance.payment.reconciliation.client;
+
+/**
+ * Payment status as reported by the bank
+ */
+public record BankResponse(
+        boolean success,
+        String status,
+        String confirmationCode,
+        String message
+) {
+    public static BankResponseBuilder builder() {
+        return new BankResponseBuilder();
+    }
+
+    public static class BankResponseBuilder {
+        private boolean success;
+        private String status;
+        private String confirmationCode;
+        private String message;
+
+        public BankResponseBuilder success(boolean success) {
+            this.success = success;
+            return this;
+        }
+
+        public BankResponseBuilder status(String status) {
+            this.status = status;
+            return this;
+        }
+
+        public BankResponseBuilder confirmationCode(String confirmationCode) {
+            this.confirmationCode = confirmationCode;
+            return this;
+        }
+
+        public BankResponseBuilder message(String message) {
+            this.message = message;
+            return this;
+        }
+
+        public BankResponse build() {
+            return new BankResponse(success, status, confirmationCode, message);
+        }
+    }
+}
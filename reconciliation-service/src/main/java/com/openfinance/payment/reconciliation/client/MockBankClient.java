@@ -1,33 +1,36 @@
 package com.openfinance.payment.reconciliation.client;
 
+import com.openfinance.payment.common.bank.BankCallGuard;
+import com.openfinance.payment.common.bank.BankSimulator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.security.SecureRandom;
-import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Mock bank client for reconciliation service
- * Simulates querying bank APIs for payment status
+ * Simulates querying bank APIs for payment status; latency and the confirmed rate
+ * come from the {@code bank.simulator.status-query} settings. Queries pass through a
+ * {@link BankCallGuard}; "not found" answers are the bank answering and do not count against it.
  */
 @Component
 @Slf4j
-public class MockBankClient {
+public class MockBankClient implements BankClient {
 
-    private static final Random RANDOM = new SecureRandom();
-    private static final double CONFIRMED_RATE = 0.95; // 95% of queries return confirmed
+    private final BankSimulator statusQuerySimulator;
+    private final BankCallGuard statusQueryGuard;
 
-    /**
-     * Query bank for payment status using confirmation code
-     */
-    public BankResponse queryPaymentStatus(String confirmationCode) {
-        log.debug("Querying bank for payment status: confirmationCode={}", confirmationCode);
+    public MockBankClient(BankSimulator statusQuerySimulator, BankCallGuard statusQueryGuard) {
+        this.statusQuerySimulator = statusQuerySimulator;
+        this.statusQueryGuard = statusQueryGuard;
+    }
 
-        try {
-            // Simulate network delay
-            Thread.sleep(RANDOM.nextInt(300) + 100); // 100-400ms
+    @Override
+    public CompletableFuture<BankResponse> queryPaymentStatus(String confirmationCode) {
+        log.debug("Querying bank for payment status: confirmationCode={}", confirmationCode);
 
-            boolean confirmed = RANDOM.nextDouble() < CONFIRMED_RATE;
+        return statusQueryGuard.call(() -> statusQuerySimulator.call().thenApply(outcome -> {
+            boolean confirmed = outcome.success();
             String status = confirmed ? "SUCCESS" : "FAILED";
 
             log.debug("Bank query result: confirmationCode={}, status={}", confirmationCode, status);
@@ -38,58 +41,6 @@ public class MockBankClient {
                     .confirmationCode(confirmationCode)
                     .message(confirmed ? "Payment confirmed" : "Payment not found or failed")
                     .build();
-
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Bank query interrupted: confirmationCode={}", confirmationCode, e);
-
-            return BankResponse.builder()
-                    .success(false)
-                    .status("ERROR")
-                    .message("Query interrupted")
-                    .build();
-        }
-    }
-
-    public record BankResponse(
-            boolean success,
-            String status,
-            String confirmationCode,
-            String message
-    ) {
-        public static BankResponseBuilder builder() {
-            return new BankResponseBuilder();
-        }
-    }
-
-    public static class BankResponseBuilder {
-        private boolean success;
-        private String status;
-        private String confirmationCode;
-        private String message;
-
-        public BankResponseBuilder success(boolean success) {
-            this.success = success;
-            return this;
-        }
-
-        public BankResponseBuilder status(String status) {
-            this.status = status;
-            return this;
-        }
-
-        public BankResponseBuilder confirmationCode(String confirmationCode) {
-            this.confirmationCode = confirmationCode;
-            return this;
-        }
-
-        public BankResponseBuilder message(String message) {
-            this.message = message;
-            return this;
-        }
-
-        public BankResponse build() {
-            return new BankResponse(success, status, confirmationCode, message);
-        }
+        }), response -> false);
     }
 }
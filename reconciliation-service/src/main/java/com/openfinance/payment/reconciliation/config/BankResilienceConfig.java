@@ -0,0 +1,28 @@
+package com.openfinance.payment.reconciliation.config;
+
+import com.openfinance.payment.common.bank.BankCallGuard;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker and bulkhead for bank status queries, configured under
+ * {@code resilience4j.circuitbreaker.instances.bank-status-query} and {@code resilience4j.bulkhead.instances.bank-status-query}
+ */
+@Configuration
+public class BankResilienceConfig {
+
+    public static final String STATUS_QUERY = "bank-status-query";
+
+    @Bean
+    public BankCallGuard statusQueryBankGuard(CircuitBreakerRegistry circuitBreakerRegistry,
+                                              BulkheadRegistry bulkheadRegistry,
+                                              @Value("${reconciliation.bank-timeout:10s}") Duration bankTimeout) {
+        return new BankCallGuard(circuitBreakerRegistry.circuitBreaker(STATUS_QUERY),
+                bulkheadRegistry.bulkhead(STATUS_QUERY), bankTimeout);
+    }
+}
@@ -0,0 +1,38 @@
+package com.openfinance.payment.reconciliation.config;
+
+import com.openfinance.payment.common.bank.BankSimulator;
+import com.openfinance.payment.common.bank.BankSimulatorSettings;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Simulated bank status endpoint, tunable under {@code bank.simulator.status-query}
+ */
+@Configuration
+public class BankSimulatorConfig implements DisposableBean {
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("bank-simulator").daemon(true).factory());
+
+    @Bean
+    @ConfigurationProperties(prefix = "bank.simulator.status-query")
+    public BankSimulatorSettings statusQuerySimulatorSettings() {
+        return BankSimulatorSettings.uniform(Duration.ofMillis(100), Duration.ofMillis(400), 0.95);
+    }
+
+    @Bean
+    public BankSimulator statusQuerySimulator() {
+        return new BankSimulator(statusQuerySimulatorSettings(), timer);
+    }
+
+    @Override
+    public void destroy() {
+        timer.shutdownNow();
+    }
+}
@@ -1,11 +1,15 @@
 package com.openfinance.payment.reconciliation.service;
 
+import com.openfinance.payment.common.audit.AuditWriter;
+import com.openfinance.payment.common.bank.BankCallGuard;
 import com.openfinance.payment.common.entity.AuditLog;
 import com.openfinance.payment.common.entity.Payment;
 import com.openfinance.payment.common.entity.PaymentStatus;
-import com.openfinance.payment.common.repository.AuditLogRepository;
+import com.openfinance.payment.common.metrics.PaymentLifecycleMetrics;
+import com.openfinance.payment.common.notification.PostgresNotifier;
 import com.openfinance.payment.common.repository.PaymentRepository;
-import com.openfinance.payment.reconciliation.client.MockBankClient;
+import com.openfinance.payment.reconciliation.client.BankClient;
+import com.openfinance.payment.reconciliation.client.BankResponse;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
@@ -16,24 +20,35 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @Slf4j
 public class ReconciliationService {
 
     private final PaymentRepository paymentRepository;
-    private final AuditLogRepository auditLogRepository;
-    private final MockBankClient bankClient;
+    private final AuditWriter auditWriter;
+    private final PostgresNotifier notifier;
+    private final BankClient bankClient;
+    private final PaymentLifecycleMetrics lifecycleMetrics;
+    private final BankCallGuard bankGuard;
     private final Counter reconciledCounter;
     private final Counter inconsistenciesCounter;
 
     public ReconciliationService(PaymentRepository paymentRepository,
-                                 AuditLogRepository auditLogRepository,
-                                 MockBankClient bankClient,
+                                 AuditWriter auditWriter,
+                                 PostgresNotifier notifier,
+                                 BankClient bankClient,
+                                 PaymentLifecycleMetrics lifecycleMetrics,
+                                 BankCallGuard bankGuard,
                                  MeterRegistry meterRegistry) {
         this.paymentRepository = paymentRepository;
-        this.auditLogRepository = auditLogRepository;
+        this.auditWriter = auditWriter;
+        this.notifier = notifier;
         this.bankClient = bankClient;
+        this.lifecycleMetrics = lifecycleMetrics;
+        this.bankGuard = bankGuard;
 
         this.reconciledCounter = Counter.builder("payments.reconciled")
                 .description("Successfully reconciled payments")
@@ -45,10 +60,17 @@ public class ReconciliationService {
     }
 
     /**
-     * Find and reconcile stuck payments (PROCESSING for more than 5 minutes)
+     * Find and reconcile stuck payments (PROCESSING for more than 5 minutes).
+     * Skipped while the bank circuit is open: payments stuck by a bank outage would
+     * otherwise be failed for lack of an answer.
      */
     @Transactional
     public void reconcileStuckPayments() {
+        if (!bankGuard.isCallPermitted()) {
+            log.info("Bank circuit open, postponing stuck payments reconciliation");
+            return;
+        }
+
         LocalDateTime fiveMinutesAgo = LocalDateTime.now().minusMinutes(5);
         List<Payment> stuckPayments = paymentRepository.findStuckPayments(fiveMinutesAgo);
 
@@ -59,10 +81,15 @@ public class ReconciliationService {
 
         log.info("Found {} stuck payments to reconcile", stuckPayments.size());
 
+        Map<UUID, CompletableFuture<BankResponse>> statusQueries = queryStatuses(stuckPayments);
         for (Payment payment : stuckPayments) {
             try {
-                reconcilePayment(payment);
+                reconcilePayment(payment, statusQueries.get(payment.getId()));
             } catch (Exception e) {
+                if (BankCallGuard.isRejection(e)) {
+                    log.info("Bank unavailable, leaving payment for the next run: paymentId={}", payment.getPaymentId());
+                    continue;
+                }
                 log.error("Error reconciling payment: paymentId={}", payment.getPaymentId(), e);
             }
         }
@@ -73,6 +100,11 @@ public class ReconciliationService {
      */
     @Transactional
     public void verifySuccessfulPayments() {
+        if (!bankGuard.isCallPermitted()) {
+            log.info("Bank circuit open, postponing successful payments verification");
+            return;
+        }
+
         // For demo purposes, randomly select some successful payments to verify
         List<Payment> successfulPayments = paymentRepository.findByStatusAndUpdatedAtBefore(
                 PaymentStatus.SUCCESS,
@@ -88,25 +120,44 @@ public class ReconciliationService {
         int toVerify = Math.min(10, successfulPayments.size());
         log.info("Verifying {} successful payments", toVerify);
 
-        for (int i = 0; i < toVerify; i++) {
-            Payment payment = successfulPayments.get(i);
+        List<Payment> sample = successfulPayments.subList(0, toVerify);
+        Map<UUID, CompletableFuture<BankResponse>> statusQueries = queryStatuses(sample);
+        for (Payment payment : sample) {
             try {
-                verifyPaymentWithBank(payment);
+                verifyPaymentWithBank(payment, statusQueries.get(payment.getId()));
             } catch (Exception e) {
+                if (BankCallGuard.isRejection(e)) {
+                    log.info("Bank unavailable, leaving payment for the next run: paymentId={}", payment.getPaymentId());
+                    continue;
+                }
                 log.error("Error verifying payment: paymentId={}", payment.getPaymentId(), e);
             }
         }
     }
 
-    private void reconcilePayment(Payment payment) {
+    /**
+     * Starts the bank status queries for all payments at once so they overlap
+     * instead of adding up
+     */
+    private Map<UUID, CompletableFuture<BankResponse>> queryStatuses(List<Payment> payments) {
+        Map<UUID, CompletableFuture<BankResponse>> queries = new HashMap<>();
+        for (Payment payment : payments) {
+            if (payment.getConfirmationCode() != null && !payment.getConfirmationCode().isEmpty()) {
+                queries.put(payment.getId(), bankClient.queryPaymentStatus(payment.getConfirmationCode()));
+            }
+        }
+        return queries;
+    }
+
+    private void reconcilePayment(Payment payment, CompletableFuture<BankResponse> statusQuery) {
         log.info("Reconciling stuck payment: paymentId={}, status={}, lastUpdate={}",
                 payment.getPaymentId(), payment.getStatus(), payment.getUpdatedAt());
 
         PaymentStatus oldStatus = payment.getStatus();
 
-        if (payment.getConfirmationCode() != null && !payment.getConfirmationCode().isEmpty()) {
-            // We have a confirmation code, query bank
-            MockBankClient.BankResponse bankResponse = bankClient.queryPaymentStatus(payment.getConfirmationCode());
+        if (statusQuery != null) {
+            // We have a confirmation code, wait for the bank's answer
+            BankResponse bankResponse = statusQuery.join();
 
             if (bankResponse.success() && bankResponse.status().equals("SUCCESS")) {
                 // Bank confirms success, update our status
@@ -119,9 +170,11 @@ public class ReconciliationService {
                 metadata.put("reconciliation_reason", "Bank confirmed success");
                 metadata.put("confirmation_code", payment.getConfirmationCode());
                 createAuditLog(payment, AuditLog.EventType.RECONCILED, oldStatus, PaymentStatus.SUCCESS, metadata);
+                notifier.notifyStatusChange(payment.getPaymentId(), PaymentStatus.SUCCESS);
 
                 reconciledCounter.increment();
                 inconsistenciesCounter.increment();
+                lifecycleMetrics.recordSettled(payment);
                 log.warn("Payment status inconsistency reconciled: paymentId={}, {} -> SUCCESS",
                         payment.getPaymentId(), oldStatus);
 
@@ -135,9 +188,11 @@ public class ReconciliationService {
                 metadata.put("previous_status", oldStatus.name());
                 metadata.put("reconciliation_reason", "Bank reported failure");
                 createAuditLog(payment, AuditLog.EventType.RECONCILED, oldStatus, PaymentStatus.FAILED, metadata);
+                notifier.notifyStatusChange(payment.getPaymentId(), PaymentStatus.FAILED);
 
                 reconciledCounter.increment();
                 inconsistenciesCounter.increment();
+                lifecycleMetrics.recordSettled(payment);
                 log.warn("Payment marked as failed after reconciliation: paymentId={}", payment.getPaymentId());
             }
         } else {
@@ -150,18 +205,20 @@ public class ReconciliationService {
             metadata.put("previous_status", oldStatus.name());
             metadata.put("reconciliation_reason", "Timeout without confirmation code");
             createAuditLog(payment, AuditLog.EventType.RECONCILED, oldStatus, PaymentStatus.FAILED, metadata);
+            notifier.notifyStatusChange(payment.getPaymentId(), PaymentStatus.FAILED);
 
             reconciledCounter.increment();
+            lifecycleMetrics.recordSettled(payment);
             log.warn("Payment marked as failed due to timeout: paymentId={}", payment.getPaymentId());
         }
     }
 
-    private void verifyPaymentWithBank(Payment payment) {
-        if (payment.getConfirmationCode() == null) {
+    private void verifyPaymentWithBank(Payment payment, CompletableFuture<BankResponse> statusQuery) {
+        if (statusQuery == null) {
             return;
         }
 
-        MockBankClient.BankResponse bankResponse = bankClient.queryPaymentStatus(payment.getConfirmationCode());
+        BankResponse bankResponse = statusQuery.join();
 
         if (!bankResponse.success() || !bankResponse.status().equals("SUCCESS")) {
             // Inconsistency detected
@@ -190,6 +247,6 @@ public class ReconciliationService {
                 .newStatus(newStatus)
                 .metadata(metadata)
                 .build();
-        auditLogRepository.save(auditLog);
+        auditWriter.write(auditLog);
     }
 }